@@ -115,6 +115,7 @@ public class AivenAclAuthorizerV2 implements Authorizer {
     public final Map<Endpoint, ? extends CompletionStage<Void>> start(
         final AuthorizerServerInfo serverInfo) {
         auditor = config.getAuditor();
+        auditor.registerMetrics(metrics.metrics);
         logDenials = config.logDenials();
         watchService = initializeWatchService();
         scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
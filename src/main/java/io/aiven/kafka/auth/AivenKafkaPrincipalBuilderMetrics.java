@@ -0,0 +1,331 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aiven.kafka.auth;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.apache.kafka.common.MetricNameTemplate;
+import org.apache.kafka.common.metrics.JmxReporter;
+import org.apache.kafka.common.metrics.KafkaMetricsContext;
+import org.apache.kafka.common.metrics.Measurable;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.Sensor.RecordingLevel;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.CumulativeCount;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.metrics.stats.Rate;
+import org.apache.kafka.common.utils.Time;
+
+import io.aiven.kafka.auth.utils.ReferenceCountedRegistry;
+
+/**
+ * Metrics of the principal builders and of the principal mappers behind them.
+ *
+ * <p>SSL principal mappings are tagged by source: {@code cache} when the subject was found
+ * in the mappers cache, {@code scan} when the mappings had to be matched, and
+ * {@code certificate-cache} when the certificate was found in the certificate cache.
+ *
+ * <p>There is a single instance per process shared by all builders, as Kafka creates
+ * a builder per connection and separate instances would register the same JMX names.
+ *
+ * <p>The principal serde cache metrics read the statistics the cache records itself,
+ * so the serde path doesn't go through a sensor. Likewise recording to a sensor synchronizes on it,
+ * so the connections only count the mappings and unknown principals, which are recorded to the rate
+ * and time sensors every second. The totals and the cache hit ratio read the counters directly,
+ * and the average mapping time is the average of the mean time of every second with mappings.
+ */
+public class AivenKafkaPrincipalBuilderMetrics implements AutoCloseable {
+    static final String METRIC_GROUP_NAME = "principal-builder-metrics";
+
+    static final String SERIALIZE_CACHE_HIT = "principal-serialize-cache-hit";
+    static final String SERIALIZE_CACHE_MISS = "principal-serialize-cache-miss";
+    static final String DESERIALIZE_CACHE_HIT = "principal-deserialize-cache-hit";
+    static final String DESERIALIZE_CACHE_MISS = "principal-deserialize-cache-miss";
+    static final String MAPPING = "principal-mapping";
+    static final String MAPPING_TIME = MAPPING + "-time-ms";
+    static final String MAPPERS_CACHE_HIT_RATIO = "mappers-cache-hit-ratio";
+    static final String MAPPERS_CACHE_EVICTION = "mappers-cache-eviction";
+    static final String UNKNOWN_PRINCIPAL = "unknown-principal";
+    static final String MAPPINGS_COUNT = "principal-mappings-count";
+    static final String MAPPINGS_RELOAD = "principal-mappings-reload";
+    static final String MAPPINGS_RELOAD_TIME = MAPPINGS_RELOAD + "-time-ms";
+
+    private static final ReferenceCountedRegistry<Class<?>, AivenKafkaPrincipalBuilderMetrics> REGISTRY =
+        new ReferenceCountedRegistry<>();
+
+    enum Source {
+        CACHE("cache"),
+        SCAN("scan"),
+        CERTIFICATE_CACHE("certificate-cache");
+
+        private final String tagValue;
+
+        Source(final String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    final Metrics metrics;
+    private final Time time;
+    private final Counters counters;
+    private final Sensor mappingsReloadSensor;
+    private final List<PrincipalMappers> principalMappers = new CopyOnWriteArrayList<>();
+
+    AivenKafkaPrincipalBuilderMetrics(final Time time,
+                                      final MetricConfig metricConfig,
+                                      final PrincipalSerdeCache serdeCache) {
+        this.time = time;
+        this.metrics = new Metrics(
+            metricConfig,
+            List.of(new JmxReporter()),
+            time,
+            new KafkaMetricsContext("aiven.kafka.auth")
+        );
+
+        addCountMetric(SERIALIZE_CACHE_HIT + "-total", "Total number of principal serializations served "
+            + "from the cache", () -> serdeCache.serializeStats().hitCount());
+        addCountMetric(SERIALIZE_CACHE_MISS + "-total", "Total number of principal serializations which had "
+            + "to encode the principal", () -> serdeCache.serializeStats().missCount());
+        addCountMetric(DESERIALIZE_CACHE_HIT + "-total", "Total number of principal deserializations served "
+            + "from the cache", () -> serdeCache.deserializeStats().hitCount());
+        addCountMetric(DESERIALIZE_CACHE_MISS + "-total", "Total number of principal deserializations which had "
+            + "to decode the principal", () -> serdeCache.deserializeStats().missCount());
+
+        counters = new Counters(metrics);
+        metrics.addMetric(metrics.metricInstance(template(MAPPERS_CACHE_HIT_RATIO,
+                "Ratio of SSL principal mappings served from the mappers cache")),
+            (Measurable) (config, now) -> counters.mappersCacheHitRatio());
+        addCountMetric(MAPPERS_CACHE_EVICTION + "-total", "Total number of subjects evicted from the mappers cache",
+            () -> sumOfMappers(true));
+        addCountMetric(MAPPINGS_COUNT, "Number of principal mappings in the loaded configuration files",
+            () -> sumOfMappers(false));
+
+        mappingsReloadSensor = metrics.sensor(MAPPINGS_RELOAD, RecordingLevel.INFO);
+        mappingsReloadSensor.add(metrics.metricInstance(template(MAPPINGS_RELOAD_TIME + "-avg",
+            "Average time of reloading the principal mappings configuration file")), new Avg());
+        mappingsReloadSensor.add(metrics.metricInstance(template(MAPPINGS_RELOAD_TIME + "-max",
+            "Maximum time of reloading the principal mappings configuration file")), new Max());
+        mappingsReloadSensor.add(metrics.metricInstance(template(MAPPINGS_RELOAD + "-total",
+            "Total number of reloads of the principal mappings configuration file")), new CumulativeCount());
+    }
+
+    /**
+     * Get the metrics shared by all builders. Every call must be paired with a {@link #release()}.
+     */
+    static AivenKafkaPrincipalBuilderMetrics acquire() {
+        return REGISTRY.acquire(AivenKafkaPrincipalBuilderMetrics.class,
+            k -> new AivenKafkaPrincipalBuilderMetrics(Time.SYSTEM, new MetricConfig(), PrincipalSerdeCache.INSTANCE));
+    }
+
+    void release() {
+        REGISTRY.release(AivenKafkaPrincipalBuilderMetrics.class);
+    }
+
+    long nanoseconds() {
+        return time.nanoseconds();
+    }
+
+    /**
+     * Record an SSL principal mapping served from the mappers cache, which started at {@code startNs},
+     * as returned by {@link #nanoseconds()}.
+     */
+    void recordCacheMapping(final long startNs) {
+        recordMapping(Source.CACHE, startNs);
+    }
+
+    /**
+     * Record an SSL principal mapping which matched the mappings, which started at {@code startNs}.
+     */
+    void recordScanMapping(final long startNs) {
+        recordMapping(Source.SCAN, startNs);
+    }
+
+    /**
+     * Record an SSL principal mapping served from the certificate cache, which started at {@code startNs}.
+     */
+    void recordCertificateCacheMapping(final long startNs) {
+        recordMapping(Source.CERTIFICATE_CACHE, startNs);
+    }
+
+    private void recordMapping(final Source source, final long startNs) {
+        counters.mappings[source.ordinal()].count(time.nanoseconds() - startNs);
+    }
+
+    void recordUnknownPrincipal() {
+        counters.unknownPrincipals.increment();
+    }
+
+    void recordMappingsReload(final long startNs) {
+        mappingsReloadSensor.record((double) (time.nanoseconds() - startNs) / TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Include the mappings count and cache evictions of {@code mappers} in the metrics until it's unregistered.
+     */
+    void register(final PrincipalMappers mappers) {
+        principalMappers.add(mappers);
+    }
+
+    void unregister(final PrincipalMappers mappers) {
+        principalMappers.remove(mappers);
+    }
+
+    @Override
+    public void close() {
+        counters.close();
+        metrics.close();
+    }
+
+    private void addCountMetric(final String name, final String description, final LongSupplier count) {
+        metrics.addMetric(metrics.metricInstance(template(name, description)),
+            (Measurable) (config, now) -> count.getAsLong());
+    }
+
+    private long sumOfMappers(final boolean evictions) {
+        long sum = 0;
+        for (final PrincipalMappers mappers : principalMappers) {
+            sum += evictions ? mappers.mappersCacheEvictions() : mappers.mappingsCount();
+        }
+        return sum;
+    }
+
+    private static MetricNameTemplate template(final String name, final String description) {
+        return new MetricNameTemplate(name, METRIC_GROUP_NAME, description);
+    }
+
+    private static MetricNameTemplate mappingTemplate(final String name, final String description) {
+        return new MetricNameTemplate(name, METRIC_GROUP_NAME, description + " tagged by source", "source");
+    }
+
+    /**
+     * The mappings and unknown principals counted by the connections, recorded to the sensors every second.
+     */
+    private static final class Counters {
+        // By the ordinal of the source
+        private final MappingCounter[] mappings = new MappingCounter[Source.values().length];
+        private final LongAdder unknownPrincipals = new LongAdder();
+        private final Sensor unknownPrincipalSensor;
+        private final ScheduledExecutorService recorder;
+        // Only accessed by the recorder
+        private long recordedUnknownPrincipals;
+
+        private Counters(final Metrics metrics) {
+            for (final Source source : Source.values()) {
+                mappings[source.ordinal()] = new MappingCounter(metrics, source);
+            }
+            unknownPrincipalSensor = metrics.sensor(UNKNOWN_PRINCIPAL, RecordingLevel.INFO);
+            unknownPrincipalSensor.add(metrics.metricInstance(template(UNKNOWN_PRINCIPAL + "-rate",
+                "Rate of SSL principals matching no mapping")), new Rate());
+            metrics.addMetric(metrics.metricInstance(template(UNKNOWN_PRINCIPAL + "-total",
+                "Total number of SSL principals matching no mapping")),
+                (Measurable) (config, now) -> unknownPrincipals.sum());
+
+            recorder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "aiven-principal-builder-metrics-recorder");
+                thread.setDaemon(true);
+                return thread;
+            });
+            recorder.scheduleAtFixedRate(this::record, 1, 1, TimeUnit.SECONDS);
+        }
+
+        private double mappersCacheHitRatio() {
+            final double hits = mappings[Source.CACHE.ordinal()].count.sum();
+            final double lookups = hits + mappings[Source.SCAN.ordinal()].count.sum();
+            return lookups > 0 ? hits / lookups : 0;
+        }
+
+        /**
+         * Record the mappings and unknown principals counted since the previous call.
+         */
+        private void record() {
+            for (final MappingCounter counter : mappings) {
+                counter.record();
+            }
+            final long total = unknownPrincipals.sum();
+            unknownPrincipalSensor.record(total - recordedUnknownPrincipals);
+            recordedUnknownPrincipals = total;
+        }
+
+        private void close() {
+            recorder.shutdownNow();
+        }
+    }
+
+    /**
+     * The mappings of a source, counted by the connections and recorded to the sensors by the recorder.
+     */
+    private static final class MappingCounter {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder timeNs = new LongAdder();
+        private final LongAccumulator maxTimeNs = new LongAccumulator(Math::max, 0);
+        private final Sensor rateSensor;
+        private final Sensor timeAvgSensor;
+        private final Sensor timeMaxSensor;
+        // Only accessed by the recorder
+        private long recordedCount;
+        private long recordedTimeNs;
+
+        private MappingCounter(final Metrics metrics, final Source source) {
+            final String[] tags = {"source", source.tagValue};
+            rateSensor = metrics.sensor(MAPPING + "," + source.tagValue, RecordingLevel.INFO);
+            rateSensor.add(metrics.metricInstance(mappingTemplate(MAPPING + "-rate",
+                "Rate of SSL principal mappings"), tags), new Rate());
+            metrics.addMetric(metrics.metricInstance(mappingTemplate(MAPPING + "-total",
+                "Total number of SSL principal mappings"), tags), (Measurable) (config, now) -> count.sum());
+            timeAvgSensor = metrics.sensor(MAPPING_TIME + "-avg," + source.tagValue, RecordingLevel.INFO);
+            timeAvgSensor.add(metrics.metricInstance(mappingTemplate(MAPPING_TIME + "-avg",
+                "Average time of SSL principal mappings"), tags), new Avg());
+            timeMaxSensor = metrics.sensor(MAPPING_TIME + "-max," + source.tagValue, RecordingLevel.INFO);
+            timeMaxSensor.add(metrics.metricInstance(mappingTemplate(MAPPING_TIME + "-max",
+                "Maximum time of SSL principal mappings"), tags), new Max());
+        }
+
+        private void count(final long durationNs) {
+            count.increment();
+            timeNs.add(durationNs);
+            maxTimeNs.accumulate(durationNs);
+        }
+
+        private void record() {
+            final long totalCount = count.sum();
+            final long totalTimeNs = timeNs.sum();
+            final long mappings = totalCount - recordedCount;
+            final long mappingsTimeNs = totalTimeNs - recordedTimeNs;
+            // A mapping counted while resetting may be missed, which is fine for a maximum
+            final long maxNs = maxTimeNs.getThenReset();
+            recordedCount = totalCount;
+            recordedTimeNs = totalTimeNs;
+            rateSensor.record(mappings);
+            if (mappings > 0) {
+                timeAvgSensor.record(toMillis((double) mappingsTimeNs / mappings));
+                timeMaxSensor.record(toMillis(maxNs));
+            }
+        }
+
+        private static double toMillis(final double nanoseconds) {
+            return nanoseconds / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -20,6 +20,8 @@ import javax.net.ssl.SSLPeerUnverifiedException;
 import javax.net.ssl.SSLSession;
 import javax.security.sasl.SaslServer;
 
+import java.io.Closeable;
+
 import org.apache.kafka.common.Configurable;
 import org.apache.kafka.common.security.auth.AuthenticationContext;
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
@@ -29,36 +31,41 @@ import org.apache.kafka.common.security.auth.PlaintextAuthenticationContext;
 import org.apache.kafka.common.security.auth.SaslAuthenticationContext;
 import org.apache.kafka.common.security.auth.SslAuthenticationContext;
 import org.apache.kafka.common.security.authenticator.DefaultKafkaPrincipalBuilder;
-import org.apache.kafka.common.utils.Time;
 
 import io.aiven.kafka.auth.utils.TimeWithTimer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class AivenKafkaPrincipalBuilderV2 implements KafkaPrincipalSerde, KafkaPrincipalBuilder, Configurable {
+public class AivenKafkaPrincipalBuilderV2
+    implements KafkaPrincipalSerde, KafkaPrincipalBuilder, Configurable, Closeable {
     private static final DefaultKafkaPrincipalBuilder DEFAULT_KAFKA_PRINCIPAL_BUILDER =
         new DefaultKafkaPrincipalBuilder(null, null);
     private static final Logger LOGGER = LoggerFactory.getLogger(AivenKafkaPrincipalBuilderV2.class);
-    private final TimeWithTimer time;
     private volatile PrincipalMappers principalMappers;
+    private volatile AivenKafkaPrincipalBuilderMetrics metrics;
 
     public AivenKafkaPrincipalBuilderV2() {
-        this.time = new TimeWithTimer(Time.SYSTEM);
     }
 
+    /**
+     * The time is no longer used, the mappings file is reloaded in the background.
+     *
+     * @deprecated use {@link #AivenKafkaPrincipalBuilderV2()}.
+     */
+    @Deprecated
     public AivenKafkaPrincipalBuilderV2(final TimeWithTimer time) {
-        this.time = time;
+        this();
     }
 
     @Override
     public byte[] serialize(final KafkaPrincipal principal) {
-        return DEFAULT_KAFKA_PRINCIPAL_BUILDER.serialize(principal);
+        return PrincipalSerdeCache.INSTANCE.serialize(principal, DEFAULT_KAFKA_PRINCIPAL_BUILDER::serialize);
     }
 
     @Override
     public KafkaPrincipal deserialize(final byte[] bytes) {
-        return DEFAULT_KAFKA_PRINCIPAL_BUILDER.deserialize(bytes);
+        return PrincipalSerdeCache.INSTANCE.deserialize(bytes, DEFAULT_KAFKA_PRINCIPAL_BUILDER::deserialize);
     }
 
     @Override
@@ -83,8 +90,41 @@ public class AivenKafkaPrincipalBuilderV2 implements KafkaPrincipalSerde, KafkaP
         }
         final long cacheCapacity = Long.parseLong(cacheCapacityStr);
 
-        principalMappers = new PrincipalMappers(
-            configFileLocation, refreshTimeout, time, cacheCapacity);
+        // Drop the subjects which haven't been seen for a while from the cache, disabled by default
+        String cacheExpireAfterAccessStr = (String) configs.get(
+            "aiven.kafka.principal.builder.configuration.cache.expire.after.access.ms");
+        if (cacheExpireAfterAccessStr == null) {
+            cacheExpireAfterAccessStr = "0";
+        }
+        final long cacheExpireAfterAccessMs = Long.parseLong(cacheExpireAfterAccessStr);
+
+        // Match all the regex mappings at once, rather than one by one
+        final boolean compiledMatcher = Boolean.parseBoolean((String) configs.get(
+            "aiven.kafka.principal.builder.configuration.compiled.matcher"));
+
+        final PrincipalMappers previousMappers = principalMappers;
+        // Cache the principals by the fingerprint of the peer certificate, disabled by default
+        String certificateCacheCapacityStr = (String) configs.get(
+            "aiven.kafka.principal.builder.configuration.certificate.cache.capacity");
+        if (certificateCacheCapacityStr == null) {
+            certificateCacheCapacityStr = "0";
+        }
+        final long certificateCacheCapacity = Long.parseLong(certificateCacheCapacityStr);
+
+        principalMappers = PrincipalMappers.acquire(
+            configFileLocation, refreshTimeout, cacheCapacity, compiledMatcher, certificateCacheCapacity,
+            cacheExpireAfterAccessMs);
+        if (previousMappers != null) {
+            previousMappers.release();
+        }
+        if (metrics == null) {
+            metrics = AivenKafkaPrincipalBuilderMetrics.acquire();
+        }
+    }
+
+    // visible for testing
+    PrincipalMappers principalMappers() {
+        return principalMappers;
     }
 
     /* Map a ssl principal (subject) to a Kafka principal (type + name).*/
@@ -99,7 +139,7 @@ public class AivenKafkaPrincipalBuilderV2 implements KafkaPrincipalSerde, KafkaP
         } else if (context instanceof SslAuthenticationContext) {
             final SSLSession sslSession = ((SslAuthenticationContext) context).session();
             try {
-                return mapSslPrincipal(sslSession.getPeerPrincipal().getName());
+                return principalMappers.match(sslSession);
             } catch (final SSLPeerUnverifiedException ex) {
                 LOGGER.warn("Failed to verify client certificate, ({})", sslSession.getPeerHost(), ex);
                 return new KafkaPrincipal("Invalid", "UNKNOWN");
@@ -112,4 +152,18 @@ public class AivenKafkaPrincipalBuilderV2 implements KafkaPrincipalSerde, KafkaP
                 + context.getClass().getName());
         }
     }
+
+    @Override
+    public void close() {
+        final PrincipalMappers principalMappers = this.principalMappers;
+        if (principalMappers != null) {
+            this.principalMappers = null;
+            principalMappers.release();
+        }
+        final AivenKafkaPrincipalBuilderMetrics metrics = this.metrics;
+        if (metrics != null) {
+            this.metrics = null;
+            metrics.release();
+        }
+    }
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.MetricNameTemplate;
+import org.apache.kafka.common.metrics.JmxReporter;
+import org.apache.kafka.common.metrics.KafkaMetricsContext;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.Sensor.RecordingLevel;
+import org.apache.kafka.common.metrics.stats.Avg;
+import org.apache.kafka.common.metrics.stats.CumulativeCount;
+import org.apache.kafka.common.metrics.stats.Max;
+import org.apache.kafka.common.metrics.stats.Percentile;
+import org.apache.kafka.common.metrics.stats.Percentiles;
+import org.apache.kafka.common.metrics.stats.Rate;
+import org.apache.kafka.common.metrics.stats.Value;
+import org.apache.kafka.common.utils.Time;
+
+import io.aiven.kafka.auth.utils.ReferenceCountedRegistry;
+
+/**
+ * Metrics of the SASL callback handlers and of the user store behind them.
+ *
+ * <p>Authentications are tagged by outcome: {@code rejected} ones were refused without verification
+ * because of recent failures of the user. SCRAM passwords are verified by Kafka, so the authentications
+ * which got their credential are {@code credential-found} rather than successful.
+ *
+ * <p>There is a single instance per process shared by all handlers, as separate
+ * instances would register the same JMX names.
+ */
+public class AivenSaslCallbackHandlerMetrics implements AutoCloseable {
+    static final String METRIC_GROUP_NAME = "sasl-metrics";
+
+    static final String AUTHENTICATION = "sasl-authentication";
+    static final String AUTHENTICATION_TIME = AUTHENTICATION + "-time-ms";
+    static final String USERS_RELOAD = "users-reload";
+    static final String USERS_RELOAD_TIME = USERS_RELOAD + "-time-ms";
+    static final String USERS_COUNT = "users-count";
+    static final String CREDENTIAL_CACHE_HIT = "credential-cache-hit";
+    static final String CREDENTIAL_CACHE_MISS = "credential-cache-miss";
+
+    // Authentication times above this are all counted in the last bucket of the percentiles.
+    private static final double MAX_AUTHENTICATION_TIME_MS = 1000;
+    private static final int PERCENTILES_SIZE_IN_BYTES = 4000;
+
+    private static final ReferenceCountedRegistry<Class<?>, AivenSaslCallbackHandlerMetrics> REGISTRY =
+        new ReferenceCountedRegistry<>();
+
+    enum Outcome {
+        SUCCESS("success"),
+        FAILURE("failure"),
+        UNKNOWN_USER("unknown-user"),
+        REJECTED("rejected"),
+        CREDENTIAL_FOUND("credential-found");
+
+        private final String tagValue;
+
+        Outcome(final String tagValue) {
+            this.tagValue = tagValue;
+        }
+    }
+
+    final Metrics metrics;
+    private final Time time;
+    private final Sensor usersReloadSensor;
+    private final Sensor usersCountSensor;
+    private final Sensor credentialCacheHitSensor;
+    private final Sensor credentialCacheMissSensor;
+
+    AivenSaslCallbackHandlerMetrics(final Time time, final MetricConfig metricConfig) {
+        this.time = time;
+        this.metrics = new Metrics(
+            metricConfig,
+            List.of(new JmxReporter()),
+            time,
+            new KafkaMetricsContext("aiven.kafka.auth")
+        );
+
+        usersReloadSensor = metrics.sensor(USERS_RELOAD, RecordingLevel.INFO);
+        usersReloadSensor.add(metrics.metricInstance(template(USERS_RELOAD_TIME + "-avg",
+            "Average time of reloading the users configuration file")), new Avg());
+        usersReloadSensor.add(metrics.metricInstance(template(USERS_RELOAD_TIME + "-max",
+            "Maximum time of reloading the users configuration file")), new Max());
+        usersReloadSensor.add(metrics.metricInstance(template(USERS_RELOAD + "-total",
+            "Total number of reloads of the users configuration file")), new CumulativeCount());
+
+        usersCountSensor = metrics.sensor(USERS_COUNT, RecordingLevel.INFO);
+        usersCountSensor.add(metrics.metricInstance(template(USERS_COUNT,
+            "Number of users in the last loaded users configuration file")), new Value());
+
+        credentialCacheHitSensor = countSensor(CREDENTIAL_CACHE_HIT,
+            "SCRAM credential lookups served from the credential cache");
+        credentialCacheMissSensor = countSensor(CREDENTIAL_CACHE_MISS,
+            "SCRAM credential lookups which had to decode or derive the credential");
+    }
+
+    /**
+     * Get the metrics shared by all handlers. Every call must be paired with a {@link #release()}.
+     */
+    static AivenSaslCallbackHandlerMetrics acquire() {
+        return REGISTRY.acquire(AivenSaslCallbackHandlerMetrics.class,
+            k -> new AivenSaslCallbackHandlerMetrics(Time.SYSTEM, new MetricConfig()));
+    }
+
+    void release() {
+        REGISTRY.release(AivenSaslCallbackHandlerMetrics.class);
+    }
+
+    long nanoseconds() {
+        return time.nanoseconds();
+    }
+
+    /**
+     * Record an authentication attempt which started at {@code startNs}, as returned by {@link #nanoseconds()}.
+     */
+    void recordAuthentication(final String mechanism, final Outcome outcome, final long startNs) {
+        final double elapsedMs = (double) (time.nanoseconds() - startNs) / TimeUnit.MILLISECONDS.toNanos(1);
+        final String sensorName = AUTHENTICATION + "," + mechanism + "," + outcome.tagValue;
+        Sensor sensor = metrics.getSensor(sensorName);
+        if (sensor == null) {
+            sensor = authenticationSensor(sensorName, mechanism, outcome);
+        }
+        sensor.record(elapsedMs);
+    }
+
+    void recordUsersReload(final long startNs, final int usersCount) {
+        usersReloadSensor.record((double) (time.nanoseconds() - startNs) / TimeUnit.MILLISECONDS.toNanos(1));
+        usersCountSensor.record(usersCount);
+    }
+
+    void recordCredentialCacheHit() {
+        credentialCacheHitSensor.record();
+    }
+
+    void recordCredentialCacheMiss() {
+        credentialCacheMissSensor.record();
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+    }
+
+    private synchronized Sensor authenticationSensor(final String sensorName,
+                                                     final String mechanism,
+                                                     final Outcome outcome) {
+        final Sensor existing = metrics.getSensor(sensorName);
+        if (existing != null) {
+            return existing;
+        }
+        final String[] tags = {"mechanism", mechanism, "outcome", outcome.tagValue};
+        final Sensor sensor = metrics.sensor(sensorName, RecordingLevel.INFO);
+        sensor.add(metrics.metricInstance(authenticationTemplate(AUTHENTICATION + "-rate",
+            "Rate of SASL authentications"), tags), new Rate());
+        sensor.add(metrics.metricInstance(authenticationTemplate(AUTHENTICATION + "-total",
+            "Total number of SASL authentications"), tags), new CumulativeCount());
+        sensor.add(metrics.metricInstance(authenticationTemplate(AUTHENTICATION_TIME + "-avg",
+            "Average time of SASL authentications"), tags), new Avg());
+        sensor.add(metrics.metricInstance(authenticationTemplate(AUTHENTICATION_TIME + "-max",
+            "Maximum time of SASL authentications"), tags), new Max());
+        sensor.add(new Percentiles(PERCENTILES_SIZE_IN_BYTES, MAX_AUTHENTICATION_TIME_MS,
+            Percentiles.BucketSizing.LINEAR,
+            percentile(AUTHENTICATION_TIME + "-p50", 50, tags),
+            percentile(AUTHENTICATION_TIME + "-p95", 95, tags),
+            percentile(AUTHENTICATION_TIME + "-p99", 99, tags)));
+        return sensor;
+    }
+
+    private Percentile percentile(final String name, final double percentile, final String[] tags) {
+        return new Percentile(metrics.metricInstance(authenticationTemplate(name,
+            "The " + (int) percentile + "th percentile of SASL authentication time"), tags), percentile);
+    }
+
+    private Sensor countSensor(final String name, final String description) {
+        final Sensor sensor = metrics.sensor(name, RecordingLevel.INFO);
+        sensor.add(metrics.metricInstance(template(name + "-rate", "Rate of " + description)), new Rate());
+        sensor.add(metrics.metricInstance(template(name + "-total", "Total number of " + description)),
+            new CumulativeCount());
+        return sensor;
+    }
+
+    private static MetricNameTemplate template(final String name, final String description) {
+        return new MetricNameTemplate(name, METRIC_GROUP_NAME, description);
+    }
+
+    private static MetricNameTemplate authenticationTemplate(final String name, final String description) {
+        return new MetricNameTemplate(name, METRIC_GROUP_NAME,
+            description + " tagged by mechanism and outcome", "mechanism", "outcome");
+    }
+}
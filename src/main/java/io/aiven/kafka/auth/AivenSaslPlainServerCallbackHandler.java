@@ -21,26 +21,18 @@ import javax.security.auth.callback.NameCallback;
 import javax.security.auth.callback.UnsupportedCallbackException;
 import javax.security.auth.login.AppConfigurationEntry;
 
-import java.nio.file.Paths;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
-import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.kafka.common.KafkaException;
-import org.apache.kafka.common.security.JaasContext;
 import org.apache.kafka.common.security.auth.AuthenticateCallbackHandler;
 import org.apache.kafka.common.security.plain.PlainAuthenticateCallback;
 import org.apache.kafka.common.security.plain.PlainLoginModule;
-import org.apache.kafka.common.security.scram.internals.ScramFormatter;
 import org.apache.kafka.common.security.scram.internals.ScramMechanism;
 
-import io.aiven.kafka.auth.json.UsernamePassword;
-import io.aiven.kafka.auth.json.reader.JsonReader;
-import io.aiven.kafka.auth.json.reader.JsonReaderException;
-import io.aiven.kafka.auth.json.reader.UsernamePasswordJsonReader;
+import io.aiven.kafka.auth.AivenSaslCallbackHandlerMetrics.Outcome;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,18 +42,17 @@ public class AivenSaslPlainServerCallbackHandler implements AuthenticateCallback
     private static final Logger LOGGER =
         LoggerFactory.getLogger(AivenSaslPlainServerCallbackHandler.class);
 
-    private String configFileLocation;
-
-    private JsonReader<UsernamePassword> jsonReader;
+    private String mechanismName;
+    private UserStore userStore;
+    private AivenSaslCallbackHandlerMetrics metrics;
 
     @Override
     public void configure(final Map<String, ?> configs,
                           final String mechanism,
                           final List<AppConfigurationEntry> jaasConfigEntries) {
-        configFileLocation = JaasContext.configEntryOption(
-            jaasConfigEntries, "users.config", PlainLoginModule.class.getName());
-        LOGGER.debug("Using configuration file {}", configFileLocation);
-        jsonReader = new UsernamePasswordJsonReader(Paths.get(configFileLocation));
+        mechanismName = mechanism;
+        userStore = UserStore.acquire(jaasConfigEntries, PlainLoginModule.class.getName());
+        metrics = AivenSaslCallbackHandlerMetrics.acquire();
     }
 
     @Override
@@ -86,45 +77,41 @@ public class AivenSaslPlainServerCallbackHandler implements AuthenticateCallback
      * Supports both plaintext passwords and verification against pre-computed SCRAM credentials.
      */
     public boolean authenticate(final String username, final char[] password) {
-        if (configFileLocation == null || username == null) {
+        if (userStore == null || username == null) {
             return false;
         }
 
+        final long startNs = metrics.nanoseconds();
         final String strPassword = new String(password);
 
-        try {
-            final UsernamePassword user = findUser(username);
-            if (user == null) {
-                LOGGER.error("Authentication failed for {}, unknown user", username);
-                return false;
-            }
+        final StoredUser user = userStore.find(username);
+        if (user == null) {
+            userStore.failureLog().failed(username, "unknown user");
+            metrics.recordAuthentication(mechanismName, Outcome.UNKNOWN_USER, startNs);
+            return false;
+        }
 
-            return authenticateUser(user, strPassword, username);
-        } catch (final JsonReaderException ex) {
-            LOGGER.error("Failed to read configuration file", ex);
+        // Reject without any verification while backing off after failed attempts
+        if (userStore.isBackingOff(user)) {
+            userStore.failureLog().failed(username, "too many failed attempts");
+            metrics.recordAuthentication(mechanismName, Outcome.REJECTED, startNs);
             return false;
         }
-    }
 
-    /**
-     * Find a user by username in the configuration.
-     */
-    private UsernamePassword findUser(final String username) throws JsonReaderException {
-        final List<UsernamePassword> usernamePasswords = jsonReader.read();
-        for (final UsernamePassword usernamePassword : usernamePasswords) {
-            if (username.equals(usernamePassword.name())) {
-                return usernamePassword;
-            }
+        final boolean authenticated = authenticateUser(user, strPassword, username);
+        if (authenticated) {
+            user.failures().recordSuccess();
         }
-        return null;
+        metrics.recordAuthentication(mechanismName, authenticated ? Outcome.SUCCESS : Outcome.FAILURE, startNs);
+        return authenticated;
     }
 
     /**
      * Authenticate a user using either SCRAM credentials or plaintext password.
      */
-    private boolean authenticateUser(final UsernamePassword user, final String password, final String username) {
+    private boolean authenticateUser(final StoredUser user, final String password, final String username) {
         // Try SCRAM credentials first
-        if (user.scramCredentials() != null && !user.scramCredentials().isEmpty()) {
+        if (user.hasScramCredentials()) {
             return authenticateWithScramCredentials(user, password, username);
         }
 
@@ -134,33 +121,39 @@ public class AivenSaslPlainServerCallbackHandler implements AuthenticateCallback
 
     /**
      * Authenticate using pre-computed SCRAM credentials.
+     * The password is verified against the credential which is the cheapest to verify.
      */
-    private boolean authenticateWithScramCredentials(final UsernamePassword user,
+    private boolean authenticateWithScramCredentials(final StoredUser user,
                                                      final String password,
                                                      final String username) {
-        final Map.Entry<String, UsernamePassword.ScramCredentialEntry> entry =
-            user.scramCredentials().entrySet().iterator().next();
-        final String mechanism = entry.getKey();
-        final UsernamePassword.ScramCredentialEntry credEntry = entry.getValue();
+        final ScramMechanism mechanism = user.plainVerificationMechanism();
+        if (mechanism == null) {
+            userStore.failureLog().failed(username, "no usable scram_credentials set");
+            return false;
+        }
 
-        if (verifyPasswordAgainstScramCredential(password, mechanism, credEntry)) {
+        // A password which already failed is rejected without deriving the salted password again
+        final long passwordFingerprint = AuthenticationFailures.passwordFingerprint(password);
+        if (!user.failures().isKnownFailedPassword(passwordFingerprint)
+            && verifyPasswordAgainstScramCredential(user, password)) {
             LOGGER.debug("Authentication successful for {} using SCRAM credentials ({})", username, mechanism);
             return true;
         }
 
-        LOGGER.error("Authentication failed for {}, invalid password using SCRAM credentials", username);
+        userStore.recordFailure(user, passwordFingerprint);
+        userStore.failureLog().failed(username, "invalid password using SCRAM credentials");
         return false;
     }
 
     /**
      * Authenticate using plaintext password comparison.
      */
-    private boolean authenticateWithPlaintextPassword(final UsernamePassword user,
+    private boolean authenticateWithPlaintextPassword(final StoredUser user,
                                                       final String password,
                                                       final String username) {
-        final String storedPassword = user.password();
+        final String storedPassword = user.usernamePassword().password();
         if (storedPassword == null) {
-            LOGGER.error("Authentication failed for {}, no password or scram_credentials set", username);
+            userStore.failureLog().failed(username, "no password or scram_credentials set");
             return false;
         }
 
@@ -169,40 +162,17 @@ public class AivenSaslPlainServerCallbackHandler implements AuthenticateCallback
             return true;
         }
 
-        LOGGER.error("Authentication failed for {}, invalid password", username);
+        userStore.recordFailure(user);
+        userStore.failureLog().failed(username, "invalid password");
         return false;
     }
 
     /**
-     * Verify a plaintext password against a pre-computed SCRAM credential.
+     * Verify a plaintext password against the pre-computed SCRAM credential selected for PLAIN logins.
      */
-    private boolean verifyPasswordAgainstScramCredential(final String password,
-                                                         final String mechanismName,
-                                                         final UsernamePassword.ScramCredentialEntry credEntry) {
+    private boolean verifyPasswordAgainstScramCredential(final StoredUser user, final String password) {
         try {
-            // Get the SCRAM mechanism
-            final ScramMechanism mechanism = ScramMechanism.forMechanismName(mechanismName);
-            if (mechanism == null) {
-                LOGGER.warn("Unsupported SCRAM mechanism for PLAIN authentication: {}", mechanismName);
-                return false;
-            }
-
-            // Decode stored credential
-            final byte[] storedSalt = Base64.getDecoder().decode(credEntry.salt());
-            final byte[] storedServerKey = Base64.getDecoder().decode(credEntry.serverKey());
-            final int iterations = credEntry.iterations();
-
-            // Use ScramFormatter to generate credentials from the password
-            final ScramFormatter formatter = new ScramFormatter(mechanism);
-            final byte[] saltedPassword = formatter.saltedPassword(password, storedSalt, iterations);
-            final byte[] generatedServerKey = formatter.serverKey(saltedPassword);
-
-            // Compare the server key from the generated credential with the stored one
-            return Arrays.equals(generatedServerKey, storedServerKey);
-
-        } catch (final IllegalArgumentException e) {
-            LOGGER.error("Failed to decode SCRAM credentials", e);
-            return false;
+            return user.verifyPlainPassword(password);
         } catch (final NoSuchAlgorithmException e) {
             LOGGER.error("Failed to verify password against SCRAM credentials", e);
             return false;
@@ -214,5 +184,13 @@ public class AivenSaslPlainServerCallbackHandler implements AuthenticateCallback
 
     @Override
     public void close() throws KafkaException {
+        if (userStore != null) {
+            userStore.release();
+            userStore = null;
+        }
+        if (metrics != null) {
+            metrics.release();
+            metrics = null;
+        }
     }
 }
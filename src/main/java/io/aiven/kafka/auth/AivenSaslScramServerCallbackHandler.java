@@ -22,13 +22,11 @@ import javax.security.auth.callback.UnsupportedCallbackException;
 import javax.security.auth.login.AppConfigurationEntry;
 
 import java.io.IOException;
-import java.nio.file.Paths;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.kafka.common.KafkaException;
-import org.apache.kafka.common.security.JaasContext;
 import org.apache.kafka.common.security.auth.AuthenticateCallbackHandler;
 import org.apache.kafka.common.security.scram.ScramCredential;
 import org.apache.kafka.common.security.scram.ScramCredentialCallback;
@@ -36,10 +34,8 @@ import org.apache.kafka.common.security.scram.ScramLoginModule;
 import org.apache.kafka.common.security.scram.internals.ScramFormatter;
 import org.apache.kafka.common.security.scram.internals.ScramMechanism;
 
+import io.aiven.kafka.auth.AivenSaslCallbackHandlerMetrics.Outcome;
 import io.aiven.kafka.auth.json.UsernamePassword;
-import io.aiven.kafka.auth.json.reader.JsonReader;
-import io.aiven.kafka.auth.json.reader.JsonReaderException;
-import io.aiven.kafka.auth.json.reader.UsernamePasswordJsonReader;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -49,21 +45,19 @@ public class AivenSaslScramServerCallbackHandler implements AuthenticateCallback
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AivenSaslScramServerCallbackHandler.class);
 
-    private String configFileLocation;
     private String mechanismName;
+    private ScramMechanism scramMechanism;
     private int mechanismIterations;
     private ScramFormatter formatter;
-    private JsonReader<UsernamePassword> jsonReader;
+    private UserStore userStore;
+    private AivenSaslCallbackHandlerMetrics metrics;
 
     @Override
     public void configure(final Map<String, ?> configs,
                           final String mechanism,
                           final List<AppConfigurationEntry> jaasConfigEntries) {
-        configFileLocation = JaasContext.configEntryOption(
-            jaasConfigEntries, "users.config", ScramLoginModule.class.getName());
-        LOGGER.debug("Using configuration file {}", configFileLocation);
         mechanismName = mechanism;
-        final ScramMechanism scramMechanism = ScramMechanism.forMechanismName(mechanismName);
+        scramMechanism = ScramMechanism.forMechanismName(mechanismName);
         if (scramMechanism != null) {
             mechanismIterations = scramMechanism.minIterations();
             try {
@@ -80,7 +74,8 @@ public class AivenSaslScramServerCallbackHandler implements AuthenticateCallback
                 mechanismName
             );
         }
-        jsonReader = new UsernamePasswordJsonReader(Paths.get(configFileLocation));
+        userStore = UserStore.acquire(jaasConfigEntries, ScramLoginModule.class.getName());
+        metrics = AivenSaslCallbackHandlerMetrics.acquire();
     }
 
     @Override
@@ -116,49 +111,79 @@ public class AivenSaslScramServerCallbackHandler implements AuthenticateCallback
             return null;
         }
 
-        try {
-            final List<UsernamePassword> usernamePasswords = jsonReader.read();
-            for (final UsernamePassword usernamePassword : usernamePasswords) {
-                if (username.equals(usernamePassword.name())) {
-                    // Option 1: Check for pre-computed SCRAM credentials (preferred)
-                    if (usernamePassword.scramCredentials() != null) {
-                        final UsernamePassword.ScramCredentialEntry credEntry =
-                            usernamePassword.scramCredentials().get(mechanismName);
-                        if (credEntry != null) {
-                            try {
-                                final byte[] salt = java.util.Base64.getDecoder().decode(credEntry.salt());
-                                final byte[] storedKey = java.util.Base64.getDecoder().decode(credEntry.storedKey());
-                                final byte[] serverKey = java.util.Base64.getDecoder().decode(credEntry.serverKey());
-                                LOGGER.debug("Using pre-computed SCRAM credentials for {}", username);
-                                return new ScramCredential(salt, storedKey, serverKey, credEntry.iterations());
-                            } catch (final IllegalArgumentException e) {
-                                LOGGER.error("Failed to decode SCRAM credentials for {}", username, e);
-                                return null;
-                            }
-                        }
-                    }
-
-                    // Option 2: Fall back to plaintext password (legacy)
-                    final String storedPassword = usernamePassword.password();
-                    if (storedPassword != null) {
-                        LOGGER.debug("Generating SCRAM credentials from plaintext password for {}", username);
-                        return formatter.generateCredential(storedPassword, mechanismIterations);
-                    }
-
-                    LOGGER.error("Authentication failed for {}, no password or scram_credentials set", username);
+        final long startNs = metrics.nanoseconds();
+        final StoredUser user = userStore.find(username);
+        if (user == null) {
+            userStore.failureLog().failed(username, "unknown user");
+            metrics.recordAuthentication(mechanismName, Outcome.UNKNOWN_USER, startNs);
+            return null;
+        }
+
+        // The password is verified by Kafka, so only failures of PLAIN logins are known here
+        if (userStore.isBackingOff(user)) {
+            userStore.failureLog().failed(username, "too many failed attempts");
+            metrics.recordAuthentication(mechanismName, Outcome.REJECTED, startNs);
+            return null;
+        }
+
+        // Decoding or deriving the credential is done once per user and version of the users file
+        ScramCredential credential = user.cachedScramCredential(scramMechanism);
+        if (credential != null) {
+            metrics.recordCredentialCacheHit();
+        } else {
+            metrics.recordCredentialCacheMiss();
+            credential = scramCredential(user.usernamePassword());
+            if (credential != null) {
+                user.cacheScramCredential(scramMechanism, credential);
+            }
+        }
+        // Whether the password matches the credential is only known to Kafka
+        metrics.recordAuthentication(
+            mechanismName, credential != null ? Outcome.CREDENTIAL_FOUND : Outcome.FAILURE, startNs);
+        return credential;
+    }
+
+    private ScramCredential scramCredential(final UsernamePassword usernamePassword) {
+        final String username = usernamePassword.name();
+
+        // Option 1: Check for pre-computed SCRAM credentials (preferred)
+        if (usernamePassword.scramCredentials() != null) {
+            final UsernamePassword.ScramCredentialEntry credEntry =
+                usernamePassword.scramCredentials().get(mechanismName);
+            if (credEntry != null) {
+                try {
+                    final byte[] salt = java.util.Base64.getDecoder().decode(credEntry.salt());
+                    final byte[] storedKey = java.util.Base64.getDecoder().decode(credEntry.storedKey());
+                    final byte[] serverKey = java.util.Base64.getDecoder().decode(credEntry.serverKey());
+                    LOGGER.debug("Using pre-computed SCRAM credentials for {}", username);
+                    return new ScramCredential(salt, storedKey, serverKey, credEntry.iterations());
+                } catch (final IllegalArgumentException e) {
+                    LOGGER.error("Failed to decode SCRAM credentials for {}", username, e);
                     return null;
                 }
             }
-        } catch (final JsonReaderException ex) {
-            LOGGER.error("Failed to read configuration file", ex);
-            return null;
         }
 
-        LOGGER.error("Authentication failed for {}, unknown user", username);
+        // Option 2: Fall back to plaintext password (legacy)
+        final String storedPassword = usernamePassword.password();
+        if (storedPassword != null) {
+            LOGGER.debug("Generating SCRAM credentials from plaintext password for {}", username);
+            return formatter.generateCredential(storedPassword, mechanismIterations);
+        }
+
+        userStore.failureLog().failed(username, "no password or scram_credentials set");
         return null;
     }
 
     @Override
     public void close() throws KafkaException {
+        if (userStore != null) {
+            userStore.release();
+            userStore = null;
+        }
+        if (metrics != null) {
+            metrics.release();
+            metrics = null;
+        }
     }
 }
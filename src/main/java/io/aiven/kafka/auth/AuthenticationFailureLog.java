@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregated logging of authentication failures.
+ *
+ * <p>The first failure of a user for a reason is logged right away, the following ones are only
+ * counted and logged as a summary line when {@link #flush()} is called, once per interval.
+ * The number of users tracked in an interval is bounded; failures of further users are
+ * summarized in a single line.
+ */
+final class AuthenticationFailureLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthenticationFailureLog.class);
+
+    private final int maxEntries;
+    private final long intervalMs;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong overflow = new AtomicLong();
+
+    AuthenticationFailureLog(final int maxEntries, final long intervalMs) {
+        this.maxEntries = maxEntries;
+        this.intervalMs = intervalMs;
+    }
+
+    void failed(final String username, final String reason) {
+        final String key = username + '\n' + reason;
+        final Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.suppressed.incrementAndGet();
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            overflow.incrementAndGet();
+            return;
+        }
+        final Entry previous = entries.putIfAbsent(key, new Entry(username, reason));
+        if (previous != null) {
+            previous.suppressed.incrementAndGet();
+        } else {
+            LOGGER.error("Authentication failed for {}, {}", username, reason);
+        }
+    }
+
+    /**
+     * Log the failures counted since the last flush and start a new interval.
+     */
+    void flush() {
+        for (final String key : entries.keySet()) {
+            final Entry entry = entries.remove(key);
+            final long suppressed = entry != null ? entry.suppressed.get() : 0;
+            if (suppressed > 0) {
+                LOGGER.error("Authentication failed for {}, {} ({} more times in the last {} ms)",
+                    entry.username, entry.reason, suppressed, intervalMs);
+            }
+        }
+        final long overflowed = overflow.getAndSet(0);
+        if (overflowed > 0) {
+            LOGGER.error("{} more authentication failures of other users in the last {} ms", overflowed, intervalMs);
+        }
+    }
+
+    private static final class Entry {
+        private final String username;
+        private final String reason;
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Entry(final String username, final String reason) {
+            this.username = username;
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * The recent authentication failures of one user.
+ *
+ * <p>It remembers the fingerprints of the last few wrong passwords, so that repeating one of them
+ * is rejected without deriving the salted password, and the number of consecutive failures, from
+ * which an exponential backoff is computed. During the backoff attempts are rejected without
+ * any verification at all, which bounds the CPU an attacker can spend on a single user.
+ */
+final class AuthenticationFailures {
+    static final int REMEMBERED_FAILED_PASSWORDS = 8;
+
+    private static final int MAX_BACKOFF_SHIFT = 30;
+
+    private static final String FINGERPRINT_ALGORITHM = "HmacSHA256";
+    private static final byte[] FINGERPRINT_KEY = randomKey();
+    // Initialized with the key once per thread, as looking up and keying a Mac on every login is costly
+    private static final ThreadLocal<Mac> FINGERPRINT_MAC = ThreadLocal.withInitial(AuthenticationFailures::newMac);
+
+    private final long[] failedPasswords = new long[REMEMBERED_FAILED_PASSWORDS];
+    private int failedPasswordsCount;
+    private int nextFailedPassword;
+    private int consecutiveFailures;
+    private long lastFailureMs;
+
+    /**
+     * A keyed hash of the password, used to recognize passwords which have already failed
+     * without keeping them in memory. The key is random per process.
+     */
+    static long passwordFingerprint(final String password) {
+        // doFinal resets the Mac, which keeps its key
+        final byte[] hash = FINGERPRINT_MAC.get().doFinal(password.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(hash).getLong();
+    }
+
+    private static Mac newMac() {
+        try {
+            final Mac mac = Mac.getInstance(FINGERPRINT_ALGORITHM);
+            mac.init(new SecretKeySpec(FINGERPRINT_KEY, FINGERPRINT_ALGORITHM));
+            return mac;
+        } catch (final NoSuchAlgorithmException | InvalidKeyException e) {
+            // Every Java platform is required to support HmacSHA256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] randomKey() {
+        final byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    synchronized boolean isKnownFailedPassword(final long fingerprint) {
+        for (int i = 0; i < failedPasswordsCount; i++) {
+            if (failedPasswords[i] == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized void recordFailure(final long nowMs) {
+        consecutiveFailures++;
+        lastFailureMs = nowMs;
+    }
+
+    synchronized void recordFailure(final long nowMs, final long passwordFingerprint) {
+        recordFailure(nowMs);
+        if (isKnownFailedPassword(passwordFingerprint)) {
+            return;
+        }
+        failedPasswords[nextFailedPassword] = passwordFingerprint;
+        nextFailedPassword = (nextFailedPassword + 1) % REMEMBERED_FAILED_PASSWORDS;
+        if (failedPasswordsCount < REMEMBERED_FAILED_PASSWORDS) {
+            failedPasswordsCount++;
+        }
+    }
+
+    synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * Whether attempts must be rejected at {@code nowMs}: the backoff starts at {@code initialBackoffMs}
+     * after the first failure and doubles with every consecutive one, up to {@code maxBackoffMs}.
+     */
+    synchronized boolean isBackingOff(final long nowMs, final long initialBackoffMs, final long maxBackoffMs) {
+        if (consecutiveFailures == 0 || initialBackoffMs <= 0) {
+            return false;
+        }
+        final int shift = Math.min(consecutiveFailures - 1, MAX_BACKOFF_SHIFT);
+        final long backoffMs = initialBackoffMs > (maxBackoffMs >> shift)
+            ? maxBackoffMs
+            : Math.min(initialBackoffMs << shift, maxBackoffMs);
+        return nowMs - lastFailureMs < backoffMs;
+    }
+}
@@ -16,10 +16,18 @@
 
 package io.aiven.kafka.auth;
 
-import java.io.File;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
 
@@ -27,93 +35,215 @@ import io.aiven.kafka.auth.json.AivenKafkaPrincipalMapping;
 import io.aiven.kafka.auth.json.reader.JsonReader;
 import io.aiven.kafka.auth.json.reader.JsonReaderException;
 import io.aiven.kafka.auth.json.reader.KafkaPrincipalJsonReader;
-import io.aiven.kafka.auth.utils.TimeWithTimer;
-import io.aiven.kafka.auth.utils.Timer;
+import io.aiven.kafka.auth.utils.CertificateFingerprints;
+import io.aiven.kafka.auth.utils.ReferenceCountedRegistry;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-class PrincipalMappers {
+/**
+ * The principal mappings of a config file, shared by all principal builders.
+ *
+ * <p>Kafka creates a principal builder per connection, so there is a single instance
+ * per canonical file path, with the first builder's options. The file is reloaded
+ * by a background thread, which publishes a new immutable {@link PrincipalMappersState}
+ * when the file has been modified; matching only reads the current state. When the file fails to be read,
+ * the current state is kept, and reading it is retried shortly.
+ *
+ * <p>The mappers are kept for a grace period after the last builder released them,
+ * so that a connection following the close of the last one doesn't load the file again.
+ */
+class PrincipalMappers implements AutoCloseable {
     private static final Logger LOGGER = LoggerFactory.getLogger(PrincipalMappers.class);
 
-    private final File configFile;
-    private final long refreshTimeoutMs;
-    private final Timer refreshTimer;
+    private static final long RELEASE_GRACE_PERIOD_MS = TimeUnit.MINUTES.toMillis(1);
+    // How soon a file which failed to be read, for example caught half written, is read again
+    private static final long RETRY_DELAY_MS = TimeUnit.SECONDS.toMillis(1);
+    private static final ReferenceCountedRegistry<Path, PrincipalMappers> REGISTRY =
+        new ReferenceCountedRegistry<>(RELEASE_GRACE_PERIOD_MS);
+
+    private final Path configFile;
     private final long cacheCapacity;
+    private final boolean compiledMatcher;
+    private final long certificateCacheCapacity;
+    private final long cacheExpireAfterAccessMs;
+    private final ScheduledExecutorService reloadExecutor;
+    private final AivenKafkaPrincipalBuilderMetrics metrics;
 
     private final JsonReader<AivenKafkaPrincipalMapping> jsonReader;
 
     // must be volatile to be safely readable without explicit synchronization
     private volatile PrincipalMappersState state = PrincipalMappersState.empty();
-
-    PrincipalMappers(final String configFileLocation,
-                     final long refreshTimeoutMs,
-                     final TimeWithTimer time,
-                     final long cacheCapacity) {
-        this.configFile = new File(configFileLocation);
-        this.refreshTimeoutMs = refreshTimeoutMs;
-        this.refreshTimer = time.timer(0); // first update without a delay
+    // The evictions from the caches of the states replaced by reloads
+    private volatile long previousStatesEvictions;
+    // Whether a reload is scheduled after the file failed to be read, guarded by this
+    private boolean retryScheduled;
+
+    private PrincipalMappers(final Path configFile,
+                             final long refreshTimeoutMs,
+                             final long cacheCapacity,
+                             final boolean compiledMatcher,
+                             final long certificateCacheCapacity,
+                             final long cacheExpireAfterAccessMs) {
+        this.configFile = configFile;
         this.cacheCapacity = cacheCapacity;
-        this.jsonReader = new KafkaPrincipalJsonReader(this.configFile.toPath());
+        this.compiledMatcher = compiledMatcher;
+        this.certificateCacheCapacity = certificateCacheCapacity;
+        this.cacheExpireAfterAccessMs = cacheExpireAfterAccessMs;
+        this.jsonReader = new KafkaPrincipalJsonReader(configFile);
+        this.metrics = AivenKafkaPrincipalBuilderMetrics.acquire();
+        this.reloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "aiven-principal-mappers-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reload();
+        metrics.register(this);
+        reloadExecutor.scheduleWithFixedDelay(this::reload, refreshTimeoutMs, refreshTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the mappers of the given file.
+     *
+     * <p>Every call must be paired with a {@link #release()}.
+     */
+    static PrincipalMappers acquire(final String configFileLocation,
+                                    final long refreshTimeoutMs,
+                                    final long cacheCapacity,
+                                    final boolean compiledMatcher,
+                                    final long certificateCacheCapacity,
+                                    final long cacheExpireAfterAccessMs) {
+        return REGISTRY.acquire(
+            canonicalPath(Paths.get(configFileLocation)),
+            path -> new PrincipalMappers(path, refreshTimeoutMs, cacheCapacity, compiledMatcher,
+                certificateCacheCapacity, cacheExpireAfterAccessMs));
+    }
+
+    void release() {
+        REGISTRY.release(configFile);
     }
 
     KafkaPrincipal match(final String sslPrincipal) {
-        final PrincipalMappersState state = getState();
+        return match(state, sslPrincipal, metrics.nanoseconds()).principal();
+    }
 
-        final AivenKafkaPrincipalMapping mapping = state.getMappersCache().getIfPresent(sslPrincipal);
-        if (mapping != null) {
-            return mapping.buildKafkaPrincipal(sslPrincipal);
+    /**
+     * Map the peer of {@code sslSession}, looking it up by the fingerprint of its certificate first,
+     * if enabled, which avoids rendering the subject of the certificate.
+     */
+    KafkaPrincipal match(final SSLSession sslSession) throws SSLPeerUnverifiedException {
+        final long startNs = metrics.nanoseconds();
+        final PrincipalMappersState state = this.state;
+        final Cache<ByteBuffer, PrincipalMappersState.MappedPrincipal> certificateCache = state.getCertificateCache();
+        // Peers whose certificate can't be fingerprinted aren't cached, their subject is mapped every time
+        final ByteBuffer fingerprint = certificateCache != null
+            ? CertificateFingerprints.sha256OfPeer(sslSession)
+            : null;
+        if (fingerprint == null) {
+            return match(state, sslSession.getPeerPrincipal().getName(), startNs).principal();
         }
+        PrincipalMappersState.MappedPrincipal mappedPrincipal = certificateCache.getIfPresent(fingerprint);
+        if (mappedPrincipal == null) {
+            mappedPrincipal = match(state, sslSession.getPeerPrincipal().getName(), startNs);
+            certificateCache.put(fingerprint, mappedPrincipal);
+        } else {
+            metrics.recordCertificateCacheMapping(startNs);
+            recordUnknownPrincipal(mappedPrincipal);
+        }
+        return mappedPrincipal.principal();
+    }
 
-        for (final AivenKafkaPrincipalMapping mapper : state.getPrincipalMappers()) {
-            if (mapper.matches(sslPrincipal)) {
-                state.getMappersCache().put(sslPrincipal, mapper);
-                return mapper.buildKafkaPrincipal(sslPrincipal);
-            }
+    private PrincipalMappersState.MappedPrincipal match(final PrincipalMappersState state,
+                                                        final String sslPrincipal,
+                                                        final long startNs) {
+        PrincipalMappersState.MappedPrincipal mappedPrincipal = state.getMappersCache().getIfPresent(sslPrincipal);
+        if (mappedPrincipal != null) {
+            metrics.recordCacheMapping(startNs);
+            recordUnknownPrincipal(mappedPrincipal);
+            return mappedPrincipal;
         }
+        mappedPrincipal = state.resolve(sslPrincipal);
+        state.getMappersCache().put(sslPrincipal, mappedPrincipal);
+        metrics.recordScanMapping(startNs);
+        recordUnknownPrincipal(mappedPrincipal);
+        return mappedPrincipal;
+    }
+
+    private void recordUnknownPrincipal(final PrincipalMappersState.MappedPrincipal mappedPrincipal) {
+        if (mappedPrincipal.mapping() == AivenKafkaPrincipalMapping.forUnknownSslPrincipal()) {
+            metrics.recordUnknownPrincipal();
+        }
+    }
 
-        final AivenKafkaPrincipalMapping forUnknownPrincipal =
-            AivenKafkaPrincipalMapping.forUnknownSslPrincipal();
-        state.getMappersCache().put(sslPrincipal, forUnknownPrincipal);
-        return forUnknownPrincipal.buildKafkaPrincipal(sslPrincipal);
+    int mappingsCount() {
+        return state.getPrincipalMappers().size();
+    }
+
+    long mappersCacheEvictions() {
+        return previousStatesEvictions + state.getMappersCacheEvictions();
     }
 
     /**
-     * Get a valid state of principal mappers.
+     * Reload the file if it has been modified since the last load.
      *
-     * <p>If the refresh timer has expired and there is a new config file, the new state will be
-     * built, containing the principal matched loaded from the file and an empty cache.
-     *
-     * <p>The timer will be reset despite if the load happened or not.
+     * <p>The new state contains the principal mappers loaded from the file and the cached mappings
+     * of the previous state which are still valid.
+     * If the file can't be read, the previous state is kept, and the file is read again shortly.
      */
-    private PrincipalMappersState getState() {
-        refreshTimer.update();
-        if (!refreshTimer.isExpired()) {
-            return state;
+    // visible for testing
+    synchronized void reload() {
+        final PrincipalMappersState previousState = state;
+        try {
+            final FileTime currentConfigLastModified = Files.getLastModifiedTime(configFile);
+            if (currentConfigLastModified.equals(previousState.getConfigLastModified())) {
+                return;
+            }
+            LOGGER.debug("Reloading principal mappings file {}", configFile);
+            final long startNs = metrics.nanoseconds();
+            final PrincipalMappersState newState = PrincipalMappersState.build(
+                jsonReader.read(),
+                currentConfigLastModified,
+                cacheCapacity,
+                compiledMatcher,
+                certificateCacheCapacity,
+                cacheExpireAfterAccessMs);
+            newState.copyCache(previousState);
+            state = newState;
+            previousStatesEvictions += previousState.getMappersCacheEvictions();
+            metrics.recordMappingsReload(startNs);
+        } catch (final IOException | JsonReaderException ex) {
+            LOGGER.error("Failed to read configuration file {}, keeping the previous mappings", configFile, ex);
+            scheduleRetry();
         }
+    }
 
-        // This block, the loading of the file and construction of a new state, is made synchronized
-        // in the assumption that it might be called concurrently.
-        synchronized (this) {
-            try {
-                final FileTime currentConfigLastModified = Files.getLastModifiedTime(configFile.toPath());
-                final boolean reloadNeeded = !currentConfigLastModified.equals(state.getConfigLastModified());
-                if (reloadNeeded) {
-                    state = PrincipalMappersState.build(
-                        jsonReader.read(),
-                        currentConfigLastModified,
-                        cacheCapacity);
-                }
-                // The timer must be reset despite if reload happened.
-                refreshTimer.updateAndReset(refreshTimeoutMs);
-                return state;
-            } catch (final IOException | JsonReaderException ex) {
-                LOGGER.error("Failed to read configuration file", ex);
-                state = PrincipalMappersState.empty();
-                refreshTimer.updateAndReset(0);
-            }
-            return state;
+    private synchronized void scheduleRetry() {
+        if (retryScheduled || reloadExecutor.isShutdown()) {
+            return;
         }
+        retryScheduled = true;
+        reloadExecutor.schedule(this::retryReload, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void retryReload() {
+        retryScheduled = false;
+        reload();
     }
 
+    @Override
+    public void close() {
+        reloadExecutor.shutdownNow();
+        metrics.unregister(this);
+        metrics.release();
+    }
+
+    private static Path canonicalPath(final Path path) {
+        try {
+            return path.toRealPath();
+        } catch (final IOException e) {
+            // The file may not exist yet, it will be picked up by the reload.
+            return path.toAbsolutePath().normalize();
+        }
+    }
 }
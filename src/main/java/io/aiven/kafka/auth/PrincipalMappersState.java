@@ -16,16 +16,25 @@
 
 package io.aiven.kafka.auth;
 
+import java.nio.ByteBuffer;
 import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
 
 import io.aiven.kafka.auth.json.AivenKafkaPrincipalMapping;
+import io.aiven.kafka.auth.utils.CombinedRegexMatcher;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 /**
  * The state for {@code PrincipalMappers}.
@@ -40,37 +49,234 @@ class PrincipalMappersState {
     private static final FileTime LAST_MODIFIED_MIN = FileTime.fromMillis(-1);
 
     private final List<AivenKafkaPrincipalMapping> principalMappers;
+    // The mappings whose regex is a literal, by the subject they match
+    private final Map<String, PositionedMapping> literalMappers;
+    // The other mappings, in the order of the file
+    private final List<PositionedMapping> regexMappers;
+    // All the regexes of the regex mappings in one matcher, if the compiled matcher is enabled
+    private final CombinedRegexMatcher combinedRegexMatcher;
     private final FileTime configLastModified;
-    private final Cache<String, AivenKafkaPrincipalMapping> mappersCache;
+    // The principals built for subjects, with the mapping they were built with
+    private final Cache<String, MappedPrincipal> mappersCache;
+    // The principals by the fingerprint of the peer certificate, if enabled
+    private final Cache<ByteBuffer, MappedPrincipal> certificateCache;
 
     private PrincipalMappersState(final Collection<AivenKafkaPrincipalMapping> principalMappers,
                                   final FileTime configLastModified,
-                                  final long cacheCapacity) {
+                                  final long cacheCapacity,
+                                  final boolean compiledMatcher,
+                                  final long certificateCacheCapacity,
+                                  final long cacheExpireAfterAccessMs) {
         this.principalMappers = Collections.unmodifiableList(new ArrayList<>(principalMappers));
+        this.literalMappers = new HashMap<>();
+        this.regexMappers = new ArrayList<>();
+        for (int position = 0; position < this.principalMappers.size(); position++) {
+            final AivenKafkaPrincipalMapping mapping = this.principalMappers.get(position);
+            final String literalSubject = mapping.literalSubject();
+            if (literalSubject != null) {
+                // The first of several entries for the same subject wins
+                literalMappers.putIfAbsent(literalSubject, new PositionedMapping(position, mapping));
+            } else {
+                regexMappers.add(new PositionedMapping(position, mapping));
+            }
+        }
+        this.combinedRegexMatcher = compiledMatcher ? combineRegexes(regexMappers) : null;
         this.configLastModified = configLastModified;
-        this.mappersCache = CacheBuilder.newBuilder().maximumSize(cacheCapacity).build();
+        final Caffeine<Object, Object> mappersCacheBuilder = Caffeine.newBuilder()
+            .maximumSize(cacheCapacity)
+            .recordStats();
+        if (cacheExpireAfterAccessMs > 0) {
+            mappersCacheBuilder.expireAfterAccess(cacheExpireAfterAccessMs, TimeUnit.MILLISECONDS);
+        }
+        this.mappersCache = mappersCacheBuilder.build();
+        this.certificateCache = certificateCacheCapacity > 0
+            ? Caffeine.newBuilder().maximumSize(certificateCacheCapacity).build()
+            : null;
     }
 
     static PrincipalMappersState build(final Collection<AivenKafkaPrincipalMapping> principalMappers,
                                        final FileTime configLastModified,
                                        final long cacheCapacity) {
-        return new PrincipalMappersState(principalMappers, configLastModified, cacheCapacity);
+        return build(principalMappers, configLastModified, cacheCapacity, false);
+    }
+
+    /**
+     * Build a state, where with {@code compiledMatcher} the regex mappings are matched all at once
+     * by a {@link CombinedRegexMatcher} rather than one by one.
+     */
+    static PrincipalMappersState build(final Collection<AivenKafkaPrincipalMapping> principalMappers,
+                                       final FileTime configLastModified,
+                                       final long cacheCapacity,
+                                       final boolean compiledMatcher) {
+        return build(principalMappers, configLastModified, cacheCapacity, compiledMatcher, 0);
+    }
+
+    /**
+     * Build a state, where with a positive {@code certificateCacheCapacity} the principals are also cached
+     * by the fingerprint of the peer certificate. That cache starts empty with every state.
+     */
+    static PrincipalMappersState build(final Collection<AivenKafkaPrincipalMapping> principalMappers,
+                                       final FileTime configLastModified,
+                                       final long cacheCapacity,
+                                       final boolean compiledMatcher,
+                                       final long certificateCacheCapacity) {
+        return build(principalMappers, configLastModified, cacheCapacity, compiledMatcher, certificateCacheCapacity, 0);
+    }
+
+    /**
+     * Build a state, where with a positive {@code cacheExpireAfterAccessMs} the subjects which haven't been
+     * looked up for that long are dropped from the mappers cache, even if it isn't full.
+     */
+    static PrincipalMappersState build(final Collection<AivenKafkaPrincipalMapping> principalMappers,
+                                       final FileTime configLastModified,
+                                       final long cacheCapacity,
+                                       final boolean compiledMatcher,
+                                       final long certificateCacheCapacity,
+                                       final long cacheExpireAfterAccessMs) {
+        return new PrincipalMappersState(principalMappers, configLastModified, cacheCapacity, compiledMatcher,
+            certificateCacheCapacity, cacheExpireAfterAccessMs);
     }
 
     static PrincipalMappersState empty() {
         // This should always create a new empty state to keep its cache clean.
-        return new PrincipalMappersState(Collections.emptyList(), LAST_MODIFIED_MIN, 0);
+        return new PrincipalMappersState(Collections.emptyList(), LAST_MODIFIED_MIN, 0, false, 0, 0);
     }
 
     final List<AivenKafkaPrincipalMapping> getPrincipalMappers() {
         return principalMappers;
     }
 
+    /**
+     * Map {@code sslPrincipal} with the first matching mapping, or as an unknown principal if none matches.
+     */
+    final MappedPrincipal resolve(final String sslPrincipal) {
+        AivenKafkaPrincipalMapping mapping = findMapping(sslPrincipal);
+        if (mapping == null) {
+            mapping = AivenKafkaPrincipalMapping.forUnknownSslPrincipal();
+        }
+        return new MappedPrincipal(mapping, mapping.buildKafkaPrincipal(sslPrincipal));
+    }
+
+    /**
+     * Find the first mapping, in the order of the file, that matches {@code sslPrincipal},
+     * or {@code null} if none does.
+     *
+     * <p>Literal mappings are looked up by the subject, so only the regex mappings
+     * positioned before the found literal one, if any, need to be tried.
+     */
+    final AivenKafkaPrincipalMapping findMapping(final String sslPrincipal) {
+        final PositionedMapping literalMapping = literalMappers.get(sslPrincipal);
+        final int limit = literalMapping != null ? literalMapping.position : Integer.MAX_VALUE;
+        if (combinedRegexMatcher != null) {
+            final int index = combinedRegexMatcher.firstMatch(sslPrincipal);
+            if (index >= 0 && regexMappers.get(index).position < limit) {
+                return regexMappers.get(index).mapping;
+            }
+            return literalMapping != null ? literalMapping.mapping : null;
+        }
+        for (final PositionedMapping regexMapping : regexMappers) {
+            if (regexMapping.position > limit) {
+                break;
+            }
+            if (regexMapping.mapping.matches(sslPrincipal)) {
+                return regexMapping.mapping;
+            }
+        }
+        return literalMapping != null ? literalMapping.mapping : null;
+    }
+
+    /**
+     * Copy the cached mappings of {@code previous} which are still valid for this state.
+     *
+     * <p>A cached mapping is still valid when it and all the mappings before it are the same
+     * in this state, which is the case for all of them when the file was rewritten without changes
+     * or entries were only appended. The other subjects, including those which matched no mapping,
+     * are matched again against this state.
+     */
+    final void copyCache(final PrincipalMappersState previous) {
+        final List<AivenKafkaPrincipalMapping> previousMappers = previous.principalMappers;
+        int commonPrefix = 0;
+        while (commonPrefix < previousMappers.size()
+            && commonPrefix < principalMappers.size()
+            && previousMappers.get(commonPrefix).equals(principalMappers.get(commonPrefix))) {
+            commonPrefix++;
+        }
+        final Map<AivenKafkaPrincipalMapping, Integer> unchanged = new IdentityHashMap<>();
+        for (int position = 0; position < commonPrefix; position++) {
+            unchanged.put(previousMappers.get(position), position);
+        }
+
+        final Map<String, MappedPrincipal> previousCache = previous.mappersCache.asMap();
+        for (final Map.Entry<String, MappedPrincipal> cached : previousCache.entrySet()) {
+            final Integer position = unchanged.get(cached.getValue().mapping);
+            if (position != null) {
+                // The principal instance is kept as well, as it's still the same
+                mappersCache.put(cached.getKey(),
+                    new MappedPrincipal(principalMappers.get(position), cached.getValue().principal));
+            } else {
+                mappersCache.put(cached.getKey(), resolve(cached.getKey()));
+            }
+        }
+    }
+
     final FileTime getConfigLastModified() {
         return configLastModified;
     }
 
-    final Cache<String, AivenKafkaPrincipalMapping> getMappersCache() {
+    final Cache<String, MappedPrincipal> getMappersCache() {
         return mappersCache;
     }
+
+    /**
+     * The subjects evicted from the mappers cache because it was full or they expired.
+     */
+    final long getMappersCacheEvictions() {
+        return mappersCache.stats().evictionCount();
+    }
+
+    /**
+     * The principals by certificate fingerprint, or {@code null} if they aren't cached.
+     */
+    final Cache<ByteBuffer, MappedPrincipal> getCertificateCache() {
+        return certificateCache;
+    }
+
+    /**
+     * The principal built for a subject, which is shared by all the connections with that subject.
+     */
+    static final class MappedPrincipal {
+        private final AivenKafkaPrincipalMapping mapping;
+        private final KafkaPrincipal principal;
+
+        MappedPrincipal(final AivenKafkaPrincipalMapping mapping, final KafkaPrincipal principal) {
+            this.mapping = mapping;
+            this.principal = principal;
+        }
+
+        AivenKafkaPrincipalMapping mapping() {
+            return mapping;
+        }
+
+        KafkaPrincipal principal() {
+            return principal;
+        }
+    }
+
+    private static CombinedRegexMatcher combineRegexes(final List<PositionedMapping> regexMappers) {
+        final List<Pattern> patterns = new ArrayList<>(regexMappers.size());
+        for (final PositionedMapping regexMapping : regexMappers) {
+            patterns.add(regexMapping.mapping.subjectRegex());
+        }
+        return new CombinedRegexMatcher(patterns);
+    }
+
+    private static final class PositionedMapping {
+        private final int position;
+        private final AivenKafkaPrincipalMapping mapping;
+
+        private PositionedMapping(final int position, final AivenKafkaPrincipalMapping mapping) {
+            this.position = position;
+            this.mapping = mapping;
+        }
+    }
 }
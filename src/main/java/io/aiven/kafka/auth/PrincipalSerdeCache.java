@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aiven.kafka.auth;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * A bounded two-way cache between principals and their serialized form.
+ *
+ * <p>Principals are serialized for every request a broker forwards to the controller,
+ * and deserialized by the controller, while there are only a few distinct principals.
+ * Token authenticated principals are not cached when serialized, because
+ * {@link KafkaPrincipal#equals} doesn't tell them apart from the others.
+ *
+ * <p>The cached byte arrays are never handed out, callers get copies of them.
+ */
+final class PrincipalSerdeCache {
+    // Shared by all the principal builders
+    static final PrincipalSerdeCache INSTANCE = new PrincipalSerdeCache(10_000);
+
+    private final Cache<KafkaPrincipal, byte[]> serialized;
+    private final Cache<ByteBuffer, KafkaPrincipal> deserialized;
+
+    PrincipalSerdeCache(final long capacity) {
+        this.serialized = Caffeine.newBuilder().maximumSize(capacity).recordStats().build();
+        this.deserialized = Caffeine.newBuilder().maximumSize(capacity).recordStats().build();
+    }
+
+    byte[] serialize(final KafkaPrincipal principal, final Function<KafkaPrincipal, byte[]> serializer) {
+        if (principal.tokenAuthenticated()) {
+            return serializer.apply(principal);
+        }
+        return serialized.get(principal, serializer).clone();
+    }
+
+    KafkaPrincipal deserialize(final byte[] bytes, final Function<byte[], KafkaPrincipal> deserializer) {
+        KafkaPrincipal principal = deserialized.getIfPresent(ByteBuffer.wrap(bytes));
+        if (principal == null) {
+            principal = deserializer.apply(bytes);
+            // The key is a copy, as the caller may reuse its array
+            deserialized.put(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length)), principal);
+        }
+        return principal;
+    }
+
+    CacheStats serializeStats() {
+        return serialized.stats();
+    }
+
+    CacheStats deserializeStats() {
+        return deserialized.stats();
+    }
+}
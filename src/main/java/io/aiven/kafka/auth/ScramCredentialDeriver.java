@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.security.scram.ScramCredential;
+import org.apache.kafka.common.security.scram.internals.ScramFormatter;
+import org.apache.kafka.common.security.scram.internals.ScramMechanism;
+
+import io.aiven.kafka.auth.json.UsernamePassword;
+
+/**
+ * Derives the SCRAM credentials of passwords for the {@link ScramCredentialGenerator}.
+ *
+ * <p>It's safe to use from several threads: {@link ScramFormatter} isn't, so there is one per thread.
+ */
+final class ScramCredentialDeriver {
+    private static final ThreadLocal<Map<ScramMechanism, ScramFormatter>> FORMATTERS =
+        ThreadLocal.withInitial(() -> new EnumMap<>(ScramMechanism.class));
+
+    private final List<ScramMechanism> mechanisms;
+    private final int iterations;
+
+    ScramCredentialDeriver(final List<ScramMechanism> mechanisms, final int iterations) {
+        this.mechanisms = List.copyOf(mechanisms);
+        this.iterations = iterations;
+    }
+
+    /**
+     * Derive the credentials of all the mechanisms with new random salts.
+     */
+    Map<String, UsernamePassword.ScramCredentialEntry> derive(final String password)
+        throws NoSuchAlgorithmException {
+        final Base64.Encoder encoder = Base64.getEncoder();
+        final Map<String, UsernamePassword.ScramCredentialEntry> credentials = new LinkedHashMap<>();
+        for (final ScramMechanism mechanism : mechanisms) {
+            final ScramCredential credential = formatter(mechanism).generateCredential(password, iterations);
+            credentials.put(mechanism.mechanismName(), new UsernamePassword.ScramCredentialEntry(
+                encoder.encodeToString(credential.salt()),
+                encoder.encodeToString(credential.storedKey()),
+                encoder.encodeToString(credential.serverKey()),
+                credential.iterations()));
+        }
+        return credentials;
+    }
+
+    /**
+     * Whether the existing user has credentials for exactly the configured mechanisms and iterations
+     * and they are for {@code password}.
+     *
+     * <p>Only the cheapest credential is verified, like PLAIN logins do, which is a fraction
+     * of the cost of deriving all of them again.
+     */
+    boolean isUpToDate(final UsernamePassword existingUser, final String password)
+        throws NoSuchAlgorithmException, InvalidKeyException {
+        final Map<String, UsernamePassword.ScramCredentialEntry> existing = existingUser.scramCredentials();
+        if (existing == null || existing.size() != mechanisms.size()) {
+            return false;
+        }
+        for (final ScramMechanism mechanism : mechanisms) {
+            final UsernamePassword.ScramCredentialEntry entry = existing.get(mechanism.mechanismName());
+            if (entry == null || entry.iterations() != iterations) {
+                return false;
+            }
+        }
+        final StoredUser storedUser = StoredUser.of(existingUser);
+        return storedUser.plainVerificationMechanism() != null && storedUser.verifyPlainPassword(password);
+    }
+
+    private static ScramFormatter formatter(final ScramMechanism mechanism) throws NoSuchAlgorithmException {
+        final Map<ScramMechanism, ScramFormatter> formatters = FORMATTERS.get();
+        ScramFormatter formatter = formatters.get(mechanism);
+        if (formatter == null) {
+            formatter = new ScramFormatter(mechanism);
+            formatters.put(mechanism, formatter);
+        }
+        return formatter;
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.common.security.scram.internals.ScramMechanism;
+
+import io.aiven.kafka.auth.json.UsernamePassword;
+import io.aiven.kafka.auth.json.reader.UsernamePasswordJsonReader;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * A command line tool which replaces the plaintext passwords of a users file with SCRAM credentials.
+ *
+ * <p>The users are read and written as a stream, and the credentials are derived in parallel on
+ * all the cores, keeping the order of the input. Given the previously generated file, the credentials
+ * of users whose password and parameters haven't changed are copied instead of derived again, so that
+ * they stay the same.
+ *
+ * <p>Usage: {@code ScramCredentialGenerator [--iterations N] [--mechanisms M1,M2] [--threads N]
+ * [--existing FILE] [INPUT [OUTPUT]]}, where the input and output default to the standard streams.
+ */
+public final class ScramCredentialGenerator {
+    static final int DEFAULT_ITERATIONS = 4096;
+
+    private static final String USAGE = "Usage: ScramCredentialGenerator [--iterations N] [--mechanisms M1,M2] "
+        + "[--threads N] [--existing FILE] [INPUT [OUTPUT]]";
+
+    // How many users may be in flight per thread, which bounds the memory used for ordering the output
+    private static final int PENDING_USERS_PER_THREAD = 64;
+
+    private final ScramCredentialDeriver deriver;
+    private final int threads;
+    private final Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+    ScramCredentialGenerator(final List<ScramMechanism> mechanisms, final int iterations, final int threads) {
+        this.deriver = new ScramCredentialDeriver(mechanisms, iterations);
+        this.threads = threads;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final Options options;
+        try {
+            options = Options.parse(args);
+        } catch (final IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        final ScramCredentialGenerator generator =
+            new ScramCredentialGenerator(options.mechanisms, options.iterations, options.threads);
+        final Map<String, UsernamePassword> existing = options.existingFile != null
+            ? readExisting(options.existingFile)
+            : Collections.emptyMap();
+        final Summary summary = generator.generate(openInput(options.files), openOutput(options.files), existing);
+        System.err.printf("Derived credentials for %d users, kept %d unchanged, copied %d without password%n",
+            summary.derived(), summary.kept(), summary.copied());
+    }
+
+    /**
+     * Read the users from {@code input} and write them with SCRAM credentials to {@code output}.
+     * Both are closed when done. A malformed user fails the generation, reporting its index in the input.
+     *
+     * @param existing the users of the previously generated file by name, whose credentials are kept
+     *                 if they are still valid for the password.
+     */
+    Summary generate(final Reader input,
+                     final Writer output,
+                     final Map<String, UsernamePassword> existing) throws IOException {
+        final Summary summary = new Summary();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (JsonReader reader = new JsonReader(input); JsonWriter writer = new JsonWriter(output)) {
+            writer.setIndent("  ");
+            writer.beginArray();
+            reader.beginArray();
+            final Deque<Future<UsernamePassword>> pending = new ArrayDeque<>();
+            for (int index = 0; reader.hasNext(); index++) {
+                final UsernamePassword user = readUser(reader, index);
+                pending.addLast(executor.submit(() -> process(user, existing.get(user.name()), summary)));
+                if (pending.size() >= threads * PENDING_USERS_PER_THREAD) {
+                    write(writer, pending.removeFirst());
+                }
+            }
+            reader.endArray();
+            while (!pending.isEmpty()) {
+                write(writer, pending.removeFirst());
+            }
+            writer.endArray();
+        } finally {
+            executor.shutdownNow();
+        }
+        return summary;
+    }
+
+    private UsernamePassword readUser(final JsonReader reader, final int index) throws IOException {
+        final UsernamePassword user;
+        try {
+            user = gson.fromJson(reader, UsernamePassword.class);
+        } catch (final JsonParseException e) {
+            throw new IOException("Malformed user at index " + index + ": " + e.getMessage(), e);
+        }
+        if (user == null || user.name() == null) {
+            throw new IOException("Malformed user at index " + index + ": no username");
+        }
+        return user;
+    }
+
+    private UsernamePassword process(final UsernamePassword user,
+                                     final UsernamePassword existingUser,
+                                     final Summary summary) throws Exception {
+        if (user.password() == null) {
+            summary.recordCopied();
+            return user;
+        }
+        if (existingUser != null && deriver.isUpToDate(existingUser, user.password())) {
+            summary.recordKept();
+            return new UsernamePassword(user.name(), null, existingUser.scramCredentials());
+        }
+        summary.recordDerived();
+        return new UsernamePassword(user.name(), null, deriver.derive(user.password()));
+    }
+
+    private void write(final JsonWriter writer, final Future<UsernamePassword> future) throws IOException {
+        try {
+            gson.toJson(future.get(), UsernamePassword.class, writer);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while deriving credentials", e);
+        } catch (final ExecutionException e) {
+            throw new IOException("Failed to derive credentials", e.getCause());
+        }
+    }
+
+    private static List<ScramMechanism> parseMechanisms(final String value) {
+        final List<ScramMechanism> mechanisms = new ArrayList<>();
+        for (final String name : value.split(",")) {
+            final ScramMechanism mechanism = ScramMechanism.forMechanismName(name.trim());
+            if (mechanism == null) {
+                throw new IllegalArgumentException("Unsupported SCRAM mechanism: " + name);
+            }
+            mechanisms.add(mechanism);
+        }
+        return mechanisms;
+    }
+
+    private static Map<String, UsernamePassword> readExisting(final String file) {
+        final Map<String, UsernamePassword> existing = new HashMap<>();
+        for (final UsernamePassword user : new UsernamePasswordJsonReader(Paths.get(file)).read()) {
+            existing.putIfAbsent(user.name(), user);
+        }
+        return existing;
+    }
+
+    private static Reader openInput(final List<String> files) throws IOException {
+        return files.isEmpty() || "-".equals(files.get(0))
+            ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+            : Files.newBufferedReader(Paths.get(files.get(0)));
+    }
+
+    private static Writer openOutput(final List<String> files) throws IOException {
+        return files.size() < 2 || "-".equals(files.get(1))
+            ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+            : Files.newBufferedWriter(Paths.get(files.get(1)));
+    }
+
+    /**
+     * The command line options.
+     */
+    static final class Options {
+        private List<ScramMechanism> mechanisms = List.of(ScramMechanism.SCRAM_SHA_256, ScramMechanism.SCRAM_SHA_512);
+        private int iterations = DEFAULT_ITERATIONS;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private String existingFile;
+        private final List<String> files = new ArrayList<>();
+
+        /**
+         * @throws IllegalArgumentException if an option is unknown or has no valid value.
+         */
+        static Options parse(final String[] args) {
+            final Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                final String arg = args[i];
+                switch (arg) {
+                    case "--iterations":
+                        options.iterations = positiveInt(arg, value(args, ++i));
+                        break;
+                    case "--mechanisms":
+                        options.mechanisms = parseMechanisms(value(args, ++i));
+                        break;
+                    case "--threads":
+                        options.threads = positiveInt(arg, value(args, ++i));
+                        break;
+                    case "--existing":
+                        options.existingFile = value(args, ++i);
+                        break;
+                    default:
+                        // A lone dash is for the standard streams
+                        if (arg.startsWith("-") && !"-".equals(arg)) {
+                            throw new IllegalArgumentException("Unknown option " + arg);
+                        }
+                        options.files.add(arg);
+                }
+            }
+            if (options.files.size() > 2) {
+                throw new IllegalArgumentException("Unexpected argument " + options.files.get(2));
+            }
+            options.checkIterations();
+            return options;
+        }
+
+        List<ScramMechanism> mechanisms() {
+            return mechanisms;
+        }
+
+        int iterations() {
+            return iterations;
+        }
+
+        List<String> files() {
+            return files;
+        }
+
+        // Kafka rejects the credentials with iterations out of the range of their mechanism
+        private void checkIterations() {
+            for (final ScramMechanism mechanism : mechanisms) {
+                if (iterations < mechanism.minIterations() || iterations > mechanism.maxIterations()) {
+                    throw new IllegalArgumentException("Invalid value " + iterations + " for --iterations: must be "
+                        + "between " + mechanism.minIterations() + " and " + mechanism.maxIterations()
+                        + " for " + mechanism.mechanismName());
+                }
+            }
+        }
+
+        private static String value(final String[] args, final int index) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+            }
+            return args[index];
+        }
+
+        private static int positiveInt(final String option, final String value) {
+            final int parsed;
+            try {
+                parsed = Integer.parseInt(value);
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid value " + value + " for " + option + ": not a number");
+            }
+            if (parsed < 1) {
+                throw new IllegalArgumentException("Invalid value " + value + " for " + option + ": must be positive");
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * How many users got new credentials, kept the existing ones, or were copied as they are.
+     */
+    static final class Summary {
+        private int derived;
+        private int kept;
+        private int copied;
+
+        synchronized void recordDerived() {
+            derived++;
+        }
+
+        synchronized void recordKept() {
+            kept++;
+        }
+
+        synchronized void recordCopied() {
+            copied++;
+        }
+
+        synchronized int derived() {
+            return derived;
+        }
+
+        synchronized int kept() {
+            return kept;
+        }
+
+        synchronized int copied() {
+            return copied;
+        }
+    }
+}
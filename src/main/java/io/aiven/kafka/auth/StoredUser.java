@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.kafka.common.security.scram.ScramCredential;
+import org.apache.kafka.common.security.scram.internals.ScramFormatter;
+import org.apache.kafka.common.security.scram.internals.ScramMechanism;
+
+import io.aiven.kafka.auth.json.UsernamePassword;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A user of the {@link UserStore} together with what is precomputed for it when the file is loaded.
+ *
+ * <p>A PLAIN login of a user with SCRAM credentials is verified by deriving the salted password,
+ * which is as expensive as the iteration count of the credential. When a user has credentials
+ * for several mechanisms, the cheapest one to verify is selected here once.
+ */
+final class StoredUser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoredUser.class);
+
+    private final UsernamePassword usernamePassword;
+    private final ScramMechanism plainVerificationMechanism;
+    private final ScramCredential plainVerificationCredential;
+    private final ConcurrentMap<ScramMechanism, ScramCredential> scramCredentialCache = new ConcurrentHashMap<>(2);
+    private final AuthenticationFailures failures = new AuthenticationFailures();
+
+    private StoredUser(final UsernamePassword usernamePassword,
+                       final ScramMechanism plainVerificationMechanism,
+                       final ScramCredential plainVerificationCredential) {
+        this.usernamePassword = usernamePassword;
+        this.plainVerificationMechanism = plainVerificationMechanism;
+        this.plainVerificationCredential = plainVerificationCredential;
+    }
+
+    static StoredUser of(final UsernamePassword usernamePassword) {
+        final Map<String, UsernamePassword.ScramCredentialEntry> scramCredentials =
+            usernamePassword.scramCredentials();
+        if (scramCredentials == null) {
+            return new StoredUser(usernamePassword, null, null);
+        }
+
+        ScramMechanism cheapestMechanism = null;
+        ScramCredential cheapestCredential = null;
+        for (final Map.Entry<String, UsernamePassword.ScramCredentialEntry> entry : scramCredentials.entrySet()) {
+            final ScramMechanism mechanism = ScramMechanism.forMechanismName(entry.getKey());
+            if (mechanism == null || entry.getValue() == null) {
+                LOGGER.warn("Unsupported SCRAM mechanism for PLAIN authentication of {}: {}",
+                    usernamePassword.name(), entry.getKey());
+                continue;
+            }
+            final ScramCredential credential = decode(usernamePassword.name(), entry.getValue());
+            if (credential != null && isCheaper(mechanism, credential, cheapestMechanism, cheapestCredential)) {
+                cheapestMechanism = mechanism;
+                cheapestCredential = credential;
+            }
+        }
+        return new StoredUser(usernamePassword, cheapestMechanism, cheapestCredential);
+    }
+
+    UsernamePassword usernamePassword() {
+        return usernamePassword;
+    }
+
+    boolean hasScramCredentials() {
+        return usernamePassword.scramCredentials() != null && !usernamePassword.scramCredentials().isEmpty();
+    }
+
+    /**
+     * The mechanism of the credential PLAIN logins are verified against,
+     * {@code null} if the user has no usable SCRAM credentials.
+     */
+    ScramMechanism plainVerificationMechanism() {
+        return plainVerificationMechanism;
+    }
+
+    ScramCredential plainVerificationCredential() {
+        return plainVerificationCredential;
+    }
+
+    AuthenticationFailures failures() {
+        return failures;
+    }
+
+    /**
+     * Verify a password against the {@link #plainVerificationCredential()}, which must be set.
+     */
+    boolean verifyPlainPassword(final String password) throws NoSuchAlgorithmException, InvalidKeyException {
+        // Use ScramFormatter to generate credentials from the password
+        final ScramFormatter formatter = new ScramFormatter(plainVerificationMechanism);
+        final byte[] saltedPassword = formatter.saltedPassword(
+            password, plainVerificationCredential.salt(), plainVerificationCredential.iterations());
+        final byte[] generatedServerKey = formatter.serverKey(saltedPassword);
+
+        // Compare the server key from the generated credential with the stored one
+        return Arrays.equals(generatedServerKey, plainVerificationCredential.serverKey());
+    }
+
+    /**
+     * The credential previously {@link #cacheScramCredential cached} for the mechanism, {@code null} if none.
+     */
+    ScramCredential cachedScramCredential(final ScramMechanism mechanism) {
+        return scramCredentialCache.get(mechanism);
+    }
+
+    void cacheScramCredential(final ScramMechanism mechanism, final ScramCredential credential) {
+        scramCredentialCache.putIfAbsent(mechanism, credential);
+    }
+
+    /**
+     * The relative cost of deriving the salted password, i.e. of verifying a password against a credential.
+     *
+     * <p>The weights reflect that an HMAC-SHA-512 iteration is about one and a half times as slow as
+     * an HMAC-SHA-256 one.
+     */
+    static long verificationCost(final ScramMechanism mechanism, final int iterations) {
+        final long weight = mechanism == ScramMechanism.SCRAM_SHA_512 ? 3 : 2;
+        return weight * iterations;
+    }
+
+    private static boolean isCheaper(final ScramMechanism mechanism,
+                                     final ScramCredential credential,
+                                     final ScramMechanism otherMechanism,
+                                     final ScramCredential otherCredential) {
+        if (otherCredential == null) {
+            return true;
+        }
+        final long cost = verificationCost(mechanism, credential.iterations());
+        final long otherCost = verificationCost(otherMechanism, otherCredential.iterations());
+        if (cost != otherCost) {
+            return cost < otherCost;
+        }
+        // Break ties by mechanism so the choice doesn't depend on the order in the file.
+        return mechanism.compareTo(otherMechanism) < 0;
+    }
+
+    private static ScramCredential decode(final String username,
+                                          final UsernamePassword.ScramCredentialEntry credEntry) {
+        try {
+            final Base64.Decoder decoder = Base64.getDecoder();
+            return new ScramCredential(
+                decoder.decode(credEntry.salt()),
+                decoder.decode(credEntry.storedKey()),
+                decoder.decode(credEntry.serverKey()),
+                credEntry.iterations());
+        } catch (final IllegalArgumentException | NullPointerException e) {
+            LOGGER.error("Failed to decode SCRAM credentials for {}", username, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import javax.security.auth.login.AppConfigurationEntry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.security.JaasContext;
+import org.apache.kafka.common.utils.Time;
+
+import io.aiven.kafka.auth.json.UsernamePassword;
+import io.aiven.kafka.auth.json.reader.JsonReader;
+import io.aiven.kafka.auth.json.reader.JsonReaderException;
+import io.aiven.kafka.auth.json.reader.UsernamePasswordJsonReader;
+import io.aiven.kafka.auth.utils.ReferenceCountedRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The users of a {@code users.config} file, shared by all SASL callback handlers.
+ *
+ * <p>Kafka creates a callback handler per listener and per mechanism, but all of them
+ * usually point to the same file. There is a single store per canonical file path,
+ * which holds the parsed users indexed by name and a single thread watching the file
+ * for modifications. The store is reference-counted: it's created by the first
+ * {@link #acquire} and stopped when the last handler {@link #release releases} it.
+ */
+class UserStore implements AutoCloseable {
+    static final String USERS_CONFIG_OPTION = "users.config";
+    static final String REFRESH_INTERVAL_OPTION = "users.config.refresh.interval.ms";
+    static final long DEFAULT_REFRESH_INTERVAL_MS = 1000;
+    static final String FAILURE_BACKOFF_INITIAL_OPTION = "users.failure.backoff.initial.ms";
+    // Disabled by default: during the backoff even the right password is rejected, so anyone knowing
+    // a username could keep that user locked out
+    static final long DEFAULT_FAILURE_BACKOFF_INITIAL_MS = 0;
+    static final String FAILURE_BACKOFF_MAX_OPTION = "users.failure.backoff.max.ms";
+    static final long DEFAULT_FAILURE_BACKOFF_MAX_MS = 10_000;
+    static final String FAILURE_LOG_INTERVAL_OPTION = "users.failure.log.interval.ms";
+    static final long DEFAULT_FAILURE_LOG_INTERVAL_MS = 60_000;
+    static final int FAILURE_LOG_MAX_USERS = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserStore.class);
+
+    private static final ReferenceCountedRegistry<Path, UserStore> REGISTRY = new ReferenceCountedRegistry<>();
+
+    private final Path configFile;
+    private final JsonReader<UsernamePassword> jsonReader;
+    private final Options options;
+    private final ScheduledExecutorService reloadExecutor;
+    private final AivenSaslCallbackHandlerMetrics metrics;
+    private final AuthenticationFailureLog failureLog;
+    private final Time time = Time.SYSTEM;
+
+    // must be volatile to be safely readable without explicit synchronization
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private UserStore(final Path configFile, final Options options) {
+        this.configFile = configFile;
+        this.options = options;
+        this.jsonReader = new UsernamePasswordJsonReader(configFile);
+        this.metrics = AivenSaslCallbackHandlerMetrics.acquire();
+        this.failureLog = new AuthenticationFailureLog(FAILURE_LOG_MAX_USERS, options.failureLogIntervalMs);
+        reload();
+        this.reloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "aiven-user-store-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloadExecutor.scheduleWithFixedDelay(
+            this::reload, options.refreshIntervalMs, options.refreshIntervalMs, TimeUnit.MILLISECONDS);
+        reloadExecutor.scheduleAtFixedRate(
+            failureLog::flush, options.failureLogIntervalMs, options.failureLogIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the store for the file configured in the JAAS entries of the given login module.
+     *
+     * <p>Every call must be paired with a {@link #release()}.
+     */
+    static UserStore acquire(final List<AppConfigurationEntry> jaasConfigEntries,
+                             final String loginModuleName) {
+        final String configFileLocation = JaasContext.configEntryOption(
+            jaasConfigEntries, USERS_CONFIG_OPTION, loginModuleName);
+        return acquire(configFileLocation, Options.fromJaasConfig(jaasConfigEntries, loginModuleName));
+    }
+
+    static UserStore acquire(final String configFileLocation, final Options options) {
+        LOGGER.debug("Using configuration file {}", configFileLocation);
+        return REGISTRY.acquire(
+            canonicalPath(Paths.get(configFileLocation)),
+            path -> new UserStore(path, options));
+    }
+
+    void release() {
+        REGISTRY.release(configFile);
+    }
+
+    /**
+     * Find a user by username, {@code null} if there is no such user.
+     */
+    StoredUser find(final String username) {
+        return snapshot.users.get(username);
+    }
+
+    int size() {
+        return snapshot.users.size();
+    }
+
+    AuthenticationFailureLog failureLog() {
+        return failureLog;
+    }
+
+    /**
+     * Whether the attempts of the user must be rejected without verification after recent failures.
+     */
+    boolean isBackingOff(final StoredUser user) {
+        return user.failures().isBackingOff(
+            time.milliseconds(), options.failureBackoffInitialMs, options.failureBackoffMaxMs);
+    }
+
+    void recordFailure(final StoredUser user) {
+        user.failures().recordFailure(time.milliseconds());
+    }
+
+    void recordFailure(final StoredUser user, final long passwordFingerprint) {
+        user.failures().recordFailure(time.milliseconds(), passwordFingerprint);
+    }
+
+    /**
+     * Reload the file if it has been modified since the last load.
+     */
+    // visible for testing
+    void reload() {
+        try {
+            final FileTime lastModified = Files.getLastModifiedTime(configFile);
+            if (lastModified.equals(snapshot.lastModified)) {
+                return;
+            }
+            LOGGER.debug("Reloading user configuration file {}", configFile);
+            final long startNs = metrics.nanoseconds();
+            snapshot = Snapshot.build(jsonReader.read(), lastModified);
+            metrics.recordUsersReload(startNs, snapshot.users.size());
+        } catch (final IOException | JsonReaderException ex) {
+            LOGGER.error("Failed to read configuration file", ex);
+            snapshot = Snapshot.EMPTY;
+        }
+    }
+
+    @Override
+    public void close() {
+        reloadExecutor.shutdownNow();
+        metrics.release();
+    }
+
+    private static Path canonicalPath(final Path path) {
+        try {
+            return path.toRealPath();
+        } catch (final IOException e) {
+            // The file may not exist yet, it will be picked up by the reload.
+            return path.toAbsolutePath().normalize();
+        }
+    }
+
+    /**
+     * The options of a store, set by the JAAS configuration of the handler which creates it.
+     */
+    static final class Options {
+        static final Options DEFAULT = new Options(DEFAULT_REFRESH_INTERVAL_MS,
+            DEFAULT_FAILURE_BACKOFF_INITIAL_MS, DEFAULT_FAILURE_BACKOFF_MAX_MS, DEFAULT_FAILURE_LOG_INTERVAL_MS);
+
+        private final long refreshIntervalMs;
+        private final long failureBackoffInitialMs;
+        private final long failureBackoffMaxMs;
+        private final long failureLogIntervalMs;
+
+        Options(final long refreshIntervalMs,
+                final long failureBackoffInitialMs,
+                final long failureBackoffMaxMs,
+                final long failureLogIntervalMs) {
+            this.refreshIntervalMs = refreshIntervalMs;
+            this.failureBackoffInitialMs = failureBackoffInitialMs;
+            this.failureBackoffMaxMs = failureBackoffMaxMs;
+            this.failureLogIntervalMs = failureLogIntervalMs;
+        }
+
+        static Options fromJaasConfig(final List<AppConfigurationEntry> jaasConfigEntries,
+                                      final String loginModuleName) {
+            // The intervals are those of scheduled tasks, which must be positive
+            return new Options(
+                longOption(jaasConfigEntries, loginModuleName,
+                    REFRESH_INTERVAL_OPTION, DEFAULT_REFRESH_INTERVAL_MS, 1),
+                longOption(jaasConfigEntries, loginModuleName,
+                    FAILURE_BACKOFF_INITIAL_OPTION, DEFAULT_FAILURE_BACKOFF_INITIAL_MS, 0),
+                longOption(jaasConfigEntries, loginModuleName,
+                    FAILURE_BACKOFF_MAX_OPTION, DEFAULT_FAILURE_BACKOFF_MAX_MS, 0),
+                longOption(jaasConfigEntries, loginModuleName,
+                    FAILURE_LOG_INTERVAL_OPTION, DEFAULT_FAILURE_LOG_INTERVAL_MS, 1));
+        }
+
+        private static long longOption(final List<AppConfigurationEntry> jaasConfigEntries,
+                                       final String loginModuleName,
+                                       final String option,
+                                       final long defaultValue,
+                                       final long minValue) {
+            final String value = JaasContext.configEntryOption(jaasConfigEntries, option, loginModuleName);
+            if (value == null) {
+                return defaultValue;
+            }
+            final long parsed;
+            try {
+                parsed = Long.parseLong(value.trim());
+            } catch (final NumberFormatException e) {
+                throw new ConfigException(option, value, "Must be a number");
+            }
+            if (parsed < minValue) {
+                throw new ConfigException(option, value, "Must be at least " + minValue);
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * The users loaded from one version of the file.
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), FileTime.fromMillis(-1));
+
+        private final Map<String, StoredUser> users;
+        private final FileTime lastModified;
+
+        private Snapshot(final Map<String, StoredUser> users, final FileTime lastModified) {
+            this.users = users;
+            this.lastModified = lastModified;
+        }
+
+        private static Snapshot build(final Collection<UsernamePassword> usernamePasswords,
+                                      final FileTime lastModified) {
+            if (usernamePasswords == null) {
+                return new Snapshot(Collections.emptyMap(), lastModified);
+            }
+            final Map<String, StoredUser> users = new HashMap<>(usernamePasswords.size() * 2);
+            for (final UsernamePassword usernamePassword : usernamePasswords) {
+                // The first entry wins, as it did with the linear search.
+                if (usernamePassword != null && usernamePassword.name() != null) {
+                    users.computeIfAbsent(usernamePassword.name(), name -> StoredUser.of(usernamePassword));
+                }
+            }
+            return new Snapshot(Collections.unmodifiableMap(users), lastModified);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourcePattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Passes activities from the authorizing threads to a single auditor thread through an {@link AuditEventRingBuffer},
+ * so that the authorizing threads only publish them.
+ *
+ * <p>When the buffer is full, activities are dropped and counted, or the authorizing thread waits
+ * for room, depending on the {@link AuditorConfig.OverflowPolicy}.
+ */
+final class AsyncAuditIngestion {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncAuditIngestion.class);
+
+    // How long the auditor thread sleeps at most when the buffer is empty, publishing wakes it up earlier.
+    // Activities are only dumped at the end of the aggregation period, so there is no hurry
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // How long an authorizing thread waits for room in a full buffer before retrying
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AuditEventRingBuffer buffer;
+    private final AuditorConfig.OverflowPolicy overflowPolicy;
+    // Drains a batch of events from the buffer, returning how many
+    private final ToIntFunction<AuditEventRingBuffer> drainer;
+    private final LongAdder droppedEvents = new LongAdder();
+    private final Thread thread;
+    private volatile boolean stopping;
+    // Whether the auditor thread is about to sleep, and must be woken up by the publishers
+    private volatile boolean idle;
+
+    AsyncAuditIngestion(final int bufferSize,
+                        final AuditorConfig.OverflowPolicy overflowPolicy,
+                        final ToIntFunction<AuditEventRingBuffer> drainer) {
+        this.buffer = new AuditEventRingBuffer(bufferSize);
+        this.overflowPolicy = overflowPolicy;
+        this.drainer = drainer;
+        this.thread = new Thread(this::run, "aiven-auditor-ingestion");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void publish(final Session session,
+                 final AclOperation operation,
+                 final ResourcePattern resource,
+                 final boolean hasAccess,
+                 final double weight) {
+        if (buffer.offer(session, operation, resource, hasAccess, weight)) {
+            wakeUp();
+            return;
+        }
+        if (overflowPolicy == AuditorConfig.OverflowPolicy.BLOCK) {
+            while (!stopping) {
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+                if (buffer.offer(session, operation, resource, hasAccess, weight)) {
+                    wakeUp();
+                    return;
+                }
+            }
+        }
+        droppedEvents.increment();
+    }
+
+    /**
+     * The number of activities dropped since the previous call.
+     */
+    long takeDroppedEvents() {
+        return droppedEvents.sumThenReset();
+    }
+
+    /**
+     * Stop the auditor thread once it has drained the activities published so far.
+     */
+    void stop() {
+        stopping = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            // Read before draining, so that the activities published before stopping are drained
+            final boolean stopped = stopping;
+            if (drain() == 0) {
+                if (stopped) {
+                    return;
+                }
+                sleep();
+            }
+        }
+    }
+
+    private void sleep() {
+        idle = true;
+        // Drained again once the publishers wake the thread up, so that an activity published
+        // in between doesn't wait for the end of the sleep
+        if (drain() == 0 && !stopping) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        idle = false;
+    }
+
+    private void wakeUp() {
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private int drain() {
+        try {
+            return drainer.applyAsInt(buffer);
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Failed to add activities", e);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+
+/**
+ * Writes the dumps of an auditor to its sink in its format, and records how long they take
+ * and how much they write.
+ */
+final class AuditDumpWriter {
+    private final Logger logger;
+    private final AuditorConfig.DumpFormat format;
+    private final AuditorMetrics metrics;
+
+    // null when the dumps are logged
+    private final AuditFileSink fileSink;
+
+    AuditDumpWriter(final AuditorConfig config, final Logger logger, final AuditorMetrics metrics) {
+        this.logger = logger;
+        this.format = config.getDumpFormat();
+        this.metrics = metrics;
+        this.fileSink = config.getSink() == AuditorConfig.Sink.FILE ? new AuditFileSink(config) : null;
+    }
+
+    /**
+     * Write {@code dump}, formatted by the formatter of the auditor unless the format is JSON.
+     * Failures are logged rather than thrown, so that the next dumps are still written.
+     */
+    void write(final Map<Auditor.AuditKey, UserActivity> dump, final Supplier<AuditorDumpFormatter> formatter) {
+        final long startNanos = System.nanoTime();
+        try {
+            final AuditorDumpFormatter dumpFormatter = format == AuditorConfig.DumpFormat.JSON
+                ? new JsonLinesFormatter()
+                : formatter.get();
+            final CountingSink sink = new CountingSink(fileSink != null ? fileSink : logger::info);
+            dumpFormatter.format(dump, sink);
+            if (fileSink != null) {
+                fileSink.flush();
+            }
+            final long elapsedNanos = System.nanoTime() - startNanos;
+            metrics.recordDump((double) elapsedNanos / TimeUnit.MILLISECONDS.toNanos(1), sink.chars);
+        } catch (final Exception e) {
+            metrics.recordDumpError();
+            logger.warn("Couldn't dump messages", e);
+        }
+    }
+
+    void close() {
+        if (fileSink != null) {
+            fileSink.close();
+        }
+    }
+
+    /**
+     * Counts the characters of the entries passed on, and the line separator after each of them.
+     */
+    private static final class CountingSink implements Consumer<String> {
+        private final Consumer<String> sink;
+        private long chars;
+
+        private CountingSink(final Consumer<String> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void accept(final String entry) {
+            sink.accept(entry);
+            chars += entry.length() + 1;
+        }
+    }
+}
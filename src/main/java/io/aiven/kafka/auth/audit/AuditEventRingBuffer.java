@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourcePattern;
+
+/**
+ * A bounded ring buffer of audit events, published by many threads and drained by a single one.
+ *
+ * <p>The events are preallocated slots which are reused, so publishing doesn't allocate. Each slot
+ * has a sequence telling whether it's free for the producer of a position or holds the event
+ * of that position for the consumer, as in Dmitry Vyukov's bounded queue. Producers claim
+ * positions with a compare-and-set, and never wait for each other.
+ */
+final class AuditEventRingBuffer {
+    private final Event[] events;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    // The next position to publish to
+    private final AtomicLong tail = new AtomicLong();
+    // The next position to drain, only used by the consumer
+    private long head;
+
+    /**
+     * @param capacity the number of events the buffer holds, rounded up to a power of two.
+     */
+    AuditEventRingBuffer(final int capacity) {
+        final int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.events = new Event[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int index = 0; index < size; index++) {
+            events[index] = new Event();
+            sequences.set(index, index);
+        }
+    }
+
+    int capacity() {
+        return events.length;
+    }
+
+    /**
+     * Publish an event.
+     *
+     * @return {@code false} if the buffer is full.
+     */
+    boolean offer(final Session session,
+                  final AclOperation operation,
+                  final ResourcePattern resource,
+                  final boolean hasAccess,
+                  final double weight) {
+        while (true) {
+            final long position = tail.get();
+            final int index = (int) position & mask;
+            final long lag = sequences.get(index) - position;
+            if (lag < 0) {
+                // The slot still holds the event of the previous lap
+                return false;
+            }
+            if (lag == 0 && tail.compareAndSet(position, position + 1)) {
+                events[index].set(session, operation, resource, hasAccess, weight);
+                sequences.set(index, position + 1);
+                return true;
+            }
+            // Another producer claimed the position first
+        }
+    }
+
+    /**
+     * Pass up to {@code maxEvents} published events to {@code handler}, in the order they were published.
+     * Must only be called by one thread.
+     *
+     * @return the number of events drained.
+     */
+    int drain(final Handler handler, final int maxEvents) {
+        int drained = 0;
+        while (drained < maxEvents) {
+            final int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                // Empty, or the producer of the position hasn't written it yet
+                break;
+            }
+            final Event event = events[index];
+            final Session session = event.session;
+            final AclOperation operation = event.operation;
+            final ResourcePattern resource = event.resource;
+            final boolean hasAccess = event.hasAccess;
+            final double weight = event.weight;
+            // The slot is freed before handling, so that an event failing to be handled isn't retried
+            event.set(null, null, null, false, 0);
+            sequences.set(index, head + events.length);
+            head++;
+            drained++;
+            handler.handle(session, operation, resource, hasAccess, weight);
+        }
+        return drained;
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        void handle(Session session, AclOperation operation, ResourcePattern resource, boolean hasAccess,
+                    double weight);
+    }
+
+    /**
+     * A slot of the buffer. Its fields are published by the volatile write of the sequence of the slot.
+     */
+    private static final class Event {
+        private Session session;
+        private AclOperation operation;
+        private ResourcePattern resource;
+        private boolean hasAccess;
+        // How many activities the event stands for, decided when it's sampled
+        private double weight;
+
+        private void set(final Session session,
+                         final AclOperation operation,
+                         final ResourcePattern resource,
+                         final boolean hasAccess,
+                         final double weight) {
+            this.session = session;
+            this.operation = operation;
+            this.resource = resource;
+            this.hasAccess = hasAccess;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.kafka.common.utils.Time;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the dump entries as lines to a file of their own, rather than through the logging of the broker.
+ *
+ * <p>The entries are encoded into a buffer, which is written to the file when full and at the end of each dump,
+ * so that a dump takes a few large writes. Once the file reaches the maximum size or age, it's renamed
+ * with the time of the rotation as suffix, and gzipped if configured, and a new file is started.
+ * Entries aren't split between files. The rotated files are gzipped by a thread of the sink,
+ * so that the dump doesn't wait for it.
+ *
+ * <p>The file is opened on the first write, and is appended to if it exists. It's reopened after
+ * a failure closed it, and what failed to be written is written along with the next entries.
+ */
+final class AuditFileSink implements Consumer<String> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditFileSink.class);
+
+    private static final DateTimeFormatter ROTATION_SUFFIX =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final Path path;
+    private final long rotationBytes;
+    private final long rotationMs;
+    private final boolean gzip;
+    private final Time time;
+    // null when the rotated files aren't gzipped
+    private final ExecutorService compressor;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    // null until the first write, and after closing
+    private FileChannel channel;
+    // The bytes written to the current file, not counting the buffered ones
+    private long fileBytes;
+    private long fileOpenedMs;
+
+    AuditFileSink(final AuditorConfig config) {
+        this(Path.of(config.getFilePath()),
+            config.getFileBufferSize(),
+            config.getFileRotationBytes(),
+            config.getFileRotationMs(),
+            config.isFileRotationGzip(),
+            Time.SYSTEM);
+    }
+
+    // visible for test
+    AuditFileSink(final Path path,
+                  final int bufferSize,
+                  final long rotationBytes,
+                  final long rotationMs,
+                  final boolean gzip,
+                  final Time time) {
+        this.path = path;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.rotationBytes = rotationBytes;
+        this.rotationMs = rotationMs;
+        this.gzip = gzip;
+        this.time = time;
+        this.compressor = gzip ? Executors.newSingleThreadExecutor() : null;
+    }
+
+    /**
+     * Buffer the entry as a line, writing the buffer out if it gets full.
+     */
+    @Override
+    public synchronized void accept(final String entry) {
+        try {
+            if (channel == null || !channel.isOpen()) {
+                open();
+            } else if (shouldRotate(fileBytes + buffer.position())) {
+                rotate();
+            }
+            encode(entry);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the buffered entries to the file, and rotate it if it's due.
+     */
+    synchronized void flush() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        if (!channel.isOpen()) {
+            open();
+        }
+        writeBuffer();
+        if (fileBytes > 0 && shouldRotate(fileBytes)) {
+            rotate();
+        }
+    }
+
+    /**
+     * Write the buffered entries, and close the file once the rotated files are gzipped. Errors are logged.
+     */
+    synchronized void close() {
+        if (channel != null) {
+            try {
+                if (!channel.isOpen()) {
+                    open();
+                }
+                writeBuffer();
+                channel.close();
+            } catch (final IOException e) {
+                LOGGER.warn("Failed to close the audit file {}", path, e);
+            }
+            channel = null;
+        }
+        if (compressor != null) {
+            compressor.shutdown();
+            try {
+                compressor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean shouldRotate(final long bytes) {
+        return bytes >= rotationBytes || time.milliseconds() - fileOpenedMs >= rotationMs;
+    }
+
+    private void encode(final String entry) throws IOException {
+        final CharBuffer chars = CharBuffer.wrap(entry);
+        encoder.reset();
+        while (true) {
+            final CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isUnderflow()) {
+                break;
+            }
+            // The buffer is full
+            writeBuffer();
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            writeBuffer();
+        }
+        if (!buffer.hasRemaining()) {
+            writeBuffer();
+        }
+        buffer.put((byte) '\n');
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                fileBytes += channel.write(buffer);
+            }
+        } finally {
+            // Keeps what failed to be written, rather than leaving the buffer flipped
+            buffer.compact();
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+        fileBytes = channel.size();
+        fileOpenedMs = time.milliseconds();
+    }
+
+    private void rotate() throws IOException {
+        writeBuffer();
+        channel.close();
+        final Path rotated = rotatedPath();
+        try {
+            Files.move(path, rotated);
+        } finally {
+            // Appending to the file again when it failed to be moved, the closed channel is reopened
+            // by the next write if this fails too
+            open();
+        }
+        if (gzip) {
+            compressor.execute(() -> gzip(rotated));
+        }
+    }
+
+    private Path rotatedPath() {
+        final String name =
+            path.getFileName() + "." + ROTATION_SUFFIX.format(Instant.ofEpochMilli(time.milliseconds()));
+        Path rotated = path.resolveSibling(name);
+        int sequence = 0;
+        // Rotated more than once in the same millisecond
+        while (Files.exists(rotated) || Files.exists(rotated.resolveSibling(rotated.getFileName() + ".gz"))) {
+            sequence++;
+            rotated = path.resolveSibling(name + "-" + sequence);
+        }
+        return rotated;
+    }
+
+    private static void gzip(final Path file) {
+        final Path gzipped = file.resolveSibling(file.getFileName() + ".gz");
+        try {
+            try (final InputStream in = Files.newInputStream(file);
+                 final OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzipped))) {
+                in.transferTo(out);
+            }
+            Files.delete(file);
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to gzip the audit file {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which allowed activities are recorded when auditing is sampled.
+ *
+ * <p>Each allowed activity is recorded with a probability, either the configured one, or with rate limited
+ * sampling, one adjusted every second so that about the configured number of activities are recorded
+ * per second. An activity recorded stands for 1 / probability activities, which is how the counts
+ * are scaled.
+ */
+final class AuditSampler {
+    private final int rateLimit;
+    // The allowed activities since the last adjustment, only counted with rate limited sampling
+    private final LongAdder allowedActivities;
+    private volatile double probability;
+
+    private AuditSampler(final double probability, final int rateLimit, final boolean rateLimited) {
+        this.probability = probability;
+        this.rateLimit = rateLimit;
+        this.allowedActivities = rateLimited ? new LongAdder() : null;
+    }
+
+    static AuditSampler probabilistic(final double probability) {
+        return new AuditSampler(probability, 0, false);
+    }
+
+    /**
+     * A sampler recording all the activities until it's first {@link #adjust() adjusted}.
+     */
+    static AuditSampler rateLimited(final int rateLimit) {
+        return new AuditSampler(1.0, rateLimit, true);
+    }
+
+    /**
+     * Whether to record an allowed activity.
+     */
+    boolean sample() {
+        return sampleWeight() != 0;
+    }
+
+    /**
+     * Decide whether to record an allowed activity.
+     *
+     * @return {@code 0} if it's not recorded, otherwise how many allowed activities it stands for, which
+     *     is decided along with recording it as the probability may be adjusted before it's recorded.
+     */
+    double sampleWeight() {
+        if (allowedActivities != null) {
+            allowedActivities.increment();
+        }
+        final double probability = this.probability;
+        if (probability >= 1.0) {
+            return 1.0;
+        }
+        return ThreadLocalRandom.current().nextDouble() < probability ? 1.0 / probability : 0;
+    }
+
+    /**
+     * How many allowed activities an allowed activity sampled now stands for.
+     */
+    double weight() {
+        return 1.0 / probability;
+    }
+
+    /**
+     * Adjust the probability to the allowed activities since the previous adjustment,
+     * which is expected to be a second ago.
+     */
+    void adjust() {
+        if (allowedActivities == null) {
+            return;
+        }
+        final long count = allowedActivities.sumThenReset();
+        probability = count <= rateLimit ? 1.0 : (double) rateLimit / count;
+    }
+
+    // visible for test
+    double probability() {
+        return probability;
+    }
+}
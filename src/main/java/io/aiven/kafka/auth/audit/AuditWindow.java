@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The activities recorded during one aggregation period.
+ *
+ * <p>Writers don't lock: they register in one of several striped counters while they add to the window,
+ * so that the dump can wait for the writers which were still adding to the window when it was replaced.
+ * The counters are striped by thread to keep concurrent writers off the same cache line.
+ */
+final class AuditWindow {
+    private static final int STRIPES =
+        Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1);
+    // The counters are 64 bytes apart
+    private static final int PADDING = 16;
+    // How many distinct activities are skipped without looking them up, 256 KiB of fingerprints
+    private static final int SEEN_CAPACITY = 1 << 15;
+
+    final ConcurrentMap<Auditor.AuditKey, UserActivity> activities = new ConcurrentHashMap<>();
+    // The fingerprints of the activities recorded in this window
+    final FingerprintSet seen = new FingerprintSet(SEEN_CAPACITY);
+
+    private final AtomicIntegerArray writers = new AtomicIntegerArray(STRIPES * PADDING);
+
+    // The distinct operations recorded by all the activities of this window
+    private final AtomicInteger operations = new AtomicInteger();
+
+    // The activities and operations which didn't fit in this window
+    private final LongAdder drops = new LongAdder();
+
+    /**
+     * The stripe of the current thread, to pass to {@link #enter(int)} and {@link #exit(int)}.
+     */
+    static int stripe() {
+        final int hash = System.identityHashCode(Thread.currentThread());
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    void enter(final int stripe) {
+        writers.incrementAndGet(stripe * PADDING);
+    }
+
+    void exit(final int stripe) {
+        writers.decrementAndGet(stripe * PADDING);
+    }
+
+    /**
+     * Reserve room for another distinct operation.
+     *
+     * @return {@code false} if there are already {@code maxOperations} in the window.
+     */
+    boolean reserveOperation(final int maxOperations) {
+        // Concurrent reservations may go over the maximum by the number of threads, which doesn't matter
+        if (operations.get() >= maxOperations) {
+            return false;
+        }
+        operations.incrementAndGet();
+        return true;
+    }
+
+    void releaseOperation() {
+        operations.decrementAndGet();
+    }
+
+    void recordDrop() {
+        drops.increment();
+    }
+
+    /**
+     * The number of activities and operations dropped so far, which only tells whether some were dropped
+     * in between two calls.
+     */
+    long drops() {
+        return drops.sum();
+    }
+
+    /**
+     * Wait until the writers which entered this window have exited it.
+     *
+     * <p>Once the window isn't current anymore, new writers exit right away without adding to it,
+     * so this waits at most for the writes in progress.
+     */
+    void awaitWriters() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            while (writers.get(stripe * PADDING) != 0) {
+                Thread.yield();
+            }
+        }
+    }
+}
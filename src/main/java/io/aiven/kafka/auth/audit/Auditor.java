@@ -17,34 +17,76 @@
 package io.aiven.kafka.auth.audit;
 
 import java.net.InetAddress;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.metrics.Metrics;
 import org.apache.kafka.common.resource.ResourcePattern;
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Aggregates the activities of users over a period, and logs them at the end of it.
+ *
+ * <p>Activities are added to the current {@link AuditWindow} without locking, and the dump
+ * replaces the window with a new one rather than stopping the threads adding to it.
+ * With asynchronous auditing, they are published to a buffer and added by a single auditor thread.
+ *
+ * <p>A window holds a bounded number of users, each user a bounded number of operations, and all the users
+ * a bounded number of operations. What doesn't fit is counted, every time, and reported along with the dump.
+ *
+ * <p>With sampling, only some of the allowed activities are recorded, the denied ones always are.
+ *
+ * <p>The auditor measures its own activity, see {@link AuditorMetrics}.
+ */
 public abstract class Auditor implements AuditorAPI {
 
+    // How many buffered activities the auditor thread adds at once to a window
+    private static final int ASYNC_BATCH_SIZE = 1024;
+
     private final Logger logger;
 
-    protected Map<AuditKey, UserActivity> auditStorage = new HashMap<>();
+    private volatile AuditWindow window = new AuditWindow();
+
+    // null when activities are added synchronously
+    private AsyncAuditIngestion asyncIngestion;
+
+    // null when all the activities are recorded
+    private AuditSampler sampler;
 
-    private final Lock auditLock = new ReentrantLock();
+    private AuditDumpWriter dumpWriter;
+
+    private final AuditorMetrics metrics = new AuditorMetrics();
 
     private final ScheduledExecutorService auditScheduler = Executors.newScheduledThreadPool(1);
 
+    // Runs the tasks due every second, apart from the dump so that a slow sink doesn't delay them
+    private final ScheduledExecutorService secondlyScheduler = Executors.newScheduledThreadPool(1);
+
     protected AuditorConfig auditorConfig;
 
+    /**
+     * The window the activity is added to, for the subclasses still overriding
+     * {@link #addActivity0(Session, AclOperation, ResourcePattern, boolean)}.
+     *
+     * @deprecated the window is given to
+     *     {@link #addActivity0(ConcurrentMap, Session, AclOperation, ResourcePattern, boolean)}.
+     */
+    @Deprecated
+    protected Map<AuditKey, UserActivity> auditStorage;
+
+    // Not the auditor itself, which the dump holds while waiting for the activities being added
+    private final Object legacyAuditLock = new Object();
+
     public Auditor() {
         this(LoggerFactory.getLogger("aiven.auditor.logger"));
     }
@@ -56,13 +98,36 @@ public abstract class Auditor implements AuditorAPI {
 
     @Override
     public void configure(final Map<String, ?> configs) {
+        if (!overridesAddActivity()) {
+            throw new ConfigException(getClass().getName() + " must override addActivity0 with the audit storage");
+        }
         auditorConfig = new AuditorConfig(configs);
+        dumpWriter = new AuditDumpWriter(auditorConfig, logger, metrics);
         auditScheduler.scheduleAtFixedRate(
             this::dump,
             auditorConfig.getAggregationPeriodInSeconds(),
             auditorConfig.getAggregationPeriodInSeconds(),
             TimeUnit.SECONDS
         );
+        secondlyScheduler.scheduleAtFixedRate(metrics::recordActivities, 1, 1, TimeUnit.SECONDS);
+        switch (auditorConfig.getSamplingMode()) {
+            case PROBABILISTIC:
+                sampler = AuditSampler.probabilistic(auditorConfig.getSamplingProbability());
+                break;
+            case RATE_LIMITED:
+                sampler = AuditSampler.rateLimited(auditorConfig.getSamplingRateLimit());
+                secondlyScheduler.scheduleAtFixedRate(sampler::adjust, 1, 1, TimeUnit.SECONDS);
+                break;
+            default:
+                break;
+        }
+        if (auditorConfig.isAsyncEnabled()) {
+            asyncIngestion = new AsyncAuditIngestion(
+                auditorConfig.getAsyncBufferSize(),
+                auditorConfig.getAsyncOverflowPolicy(),
+                this::addBufferedActivities);
+            asyncIngestion.start();
+        }
     }
 
     @Override
@@ -70,48 +135,236 @@ public abstract class Auditor implements AuditorAPI {
                                   final AclOperation operation,
                                   final ResourcePattern resource,
                                   final boolean hasAccess) {
-        auditLock.lock();
+        metrics.countActivity();
+        // The weight is decided along with sampling, as the sampler may be adjusted before the activity is recorded
+        final double weight = hasAccess && sampler != null ? sampler.sampleWeight() : 1.0;
+        if (weight == 0) {
+            return;
+        }
+        if (asyncIngestion != null) {
+            asyncIngestion.publish(session, operation, resource, hasAccess, weight);
+            return;
+        }
+        final int stripe = AuditWindow.stripe();
+        final AuditWindow current = enterWindow(stripe);
         try {
-            addActivity0(session, operation, resource, hasAccess);
+            record(current, session, operation, resource, hasAccess, weight);
+        } finally {
+            current.exit(stripe);
+        }
+    }
+
+    /**
+     * Add the activity to {@code window}, unless an identical one was already added to it
+     * and identical activities are skipped.
+     */
+    private void record(final AuditWindow window,
+                        final Session session,
+                        final AclOperation operation,
+                        final ResourcePattern resource,
+                        final boolean hasAccess,
+                        final double weight) {
+        if (!skipsRecordedActivities()) {
+            addActivity0(window.activities, session, operation, resource, hasAccess, weight);
+            return;
+        }
+        final long fingerprint = fingerprint(session, operation, resource, hasAccess);
+        if (window.seen.contains(fingerprint)) {
+            return;
+        }
+        final long drops = window.drops();
+        addActivity0(window.activities, session, operation, resource, hasAccess, weight);
+        // Only once added, so that the activity is in the window when another thread skips it.
+        // The activities which were dropped aren't skipped, so that they are counted every time
+        if (window.drops() == drops) {
+            window.seen.add(fingerprint);
+        }
+    }
+
+    private int addBufferedActivities(final AuditEventRingBuffer buffer) {
+        final int stripe = AuditWindow.stripe();
+        final AuditWindow current = enterWindow(stripe);
+        try {
+            return buffer.drain(
+                (session, operation, resource, hasAccess, weight) ->
+                    record(current, session, operation, resource, hasAccess, weight),
+                ASYNC_BATCH_SIZE);
         } finally {
-            auditLock.unlock();
+            current.exit(stripe);
         }
     }
 
-    protected abstract void addActivity0(final Session session,
-                                         final AclOperation operation,
-                                         final ResourcePattern resource,
-                                         final boolean hasAccess);
+    private AuditWindow enterWindow(final int stripe) {
+        while (true) {
+            final AuditWindow current = window;
+            current.enter(stripe);
+            if (current == window) {
+                return current;
+            }
+            // The window was replaced in between, and the dump may not have seen this thread enter it
+            current.exit(stripe);
+        }
+    }
+
+    /**
+     * Add the activity to {@code auditStorage}, which other threads add to concurrently.
+     *
+     * <p>By default, the activity is added with {@link #addActivity0(Session, AclOperation, ResourcePattern, boolean)}
+     * to {@link #auditStorage}, one at a time, for the subclasses written before the activities were added
+     * without a global lock. They don't benefit from the concurrency nor the bounds of the window.
+     * An auditor overriding none of the {@code addActivity0} variants is rejected by {@link #configure(Map)}.
+     */
+    @SuppressWarnings("deprecation")
+    protected void addActivity0(final ConcurrentMap<AuditKey, UserActivity> auditStorage,
+                                final Session session,
+                                final AclOperation operation,
+                                final ResourcePattern resource,
+                                final boolean hasAccess) {
+        synchronized (legacyAuditLock) {
+            this.auditStorage = auditStorage;
+            addActivity0(session, operation, resource, hasAccess);
+        }
+    }
+
+    /**
+     * Add the activity to {@link #auditStorage}.
+     *
+     * @deprecated override {@link #addActivity0(ConcurrentMap, Session, AclOperation, ResourcePattern, boolean)},
+     *     which adds the activities concurrently.
+     */
+    @Deprecated
+    protected void addActivity0(final Session session,
+                                final AclOperation operation,
+                                final ResourcePattern resource,
+                                final boolean hasAccess) {
+        throw new UnsupportedOperationException(
+            getClass().getName() + " must override addActivity0 with the audit storage");
+    }
+
+    /**
+     * Add the activity to {@code auditStorage}, which other threads add to concurrently, when it stands for
+     * {@code weight} activities as the allowed activities are sampled. The weight is ignored by default.
+     */
+    protected void addActivity0(final ConcurrentMap<AuditKey, UserActivity> auditStorage,
+                                final Session session,
+                                final AclOperation operation,
+                                final ResourcePattern resource,
+                                final boolean hasAccess,
+                                final double weight) {
+        addActivity0(auditStorage, session, operation, resource, hasAccess);
+    }
+
+    /**
+     * Whether a subclass declares any of the {@code addActivity0} variants, as none of them is abstract.
+     */
+    private boolean overridesAddActivity() {
+        for (Class<?> type = getClass(); type != Auditor.class; type = type.getSuperclass()) {
+            for (final var method : type.getDeclaredMethods()) {
+                if (method.getName().equals("addActivity0")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The activity of {@code auditKey} in {@code auditStorage}, created with {@code factory} if there's none yet.
+     *
+     * @return {@code null} if the window is full, the activity is then counted as dropped.
+     */
+    protected final UserActivity getOrCreateActivity(final ConcurrentMap<AuditKey, UserActivity> auditStorage,
+                                                     final AuditKey auditKey,
+                                                     final Supplier<UserActivity> factory) {
+        final UserActivity userActivity = auditStorage.get(auditKey);
+        if (userActivity != null) {
+            return userActivity;
+        }
+        // The activities added by the writers still adding to the previous window are counted in the current one,
+        // which only makes its limits a little stricter
+        final AuditWindow current = window;
+        // Concurrent adds may go over the maximum by the number of threads, which doesn't matter
+        if (auditStorage.size() >= auditorConfig.getWindowMaxKeys()) {
+            metrics.countDroppedActivity();
+            current.recordDrop();
+            return null;
+        }
+        return auditStorage.computeIfAbsent(auditKey, key -> {
+            final UserActivity created = factory.get();
+            created.attach(current, auditorConfig.getWindowMaxOperations());
+            return created;
+        });
+    }
+
+    /**
+     * Whether the activities identical to one already added to the window are skipped,
+     * which is the case unless the auditor counts them.
+     */
+    protected boolean skipsRecordedActivities() {
+        return true;
+    }
+
+    /**
+     * The fingerprint of the activity, which is the same for activities making no difference
+     * to the activities already recorded. All the fields matter by default.
+     */
+    protected long fingerprint(final Session session,
+                               final AclOperation operation,
+                               final ResourcePattern resource,
+                               final boolean hasAccess) {
+        return FingerprintSet.fingerprint(session, operation, resource, hasAccess);
+    }
+
+    @Override
+    public void registerMetrics(final Metrics registry) {
+        metrics.register(registry);
+    }
 
     @Override
     public void stop() {
+        if (asyncIngestion != null) {
+            asyncIngestion.stop();
+        }
         dump();
+        secondlyScheduler.shutdownNow();
         auditScheduler.shutdownNow();
         try {
             auditScheduler.awaitTermination(5, TimeUnit.SECONDS);
+            secondlyScheduler.awaitTermination(5, TimeUnit.SECONDS);
         } catch (final InterruptedException e) {
             // Intentionally ignored
         }
+        dumpWriter.close();
+        metrics.unregister();
     }
 
     protected void dump() {
-        try {
-            createFormatter().format(makeDump()).forEach(logger::info);
-        } catch (final Exception e) {
-            logger.warn("Couldn't dump messages", e);
+        final long droppedEvents = asyncIngestion != null ? asyncIngestion.takeDroppedEvents() : 0;
+        if (droppedEvents > 0) {
+            logger.warn("Dropped {} activities, the auditor buffer was full", droppedEvents);
         }
+        final long droppedActivities = metrics.takeDroppedActivities();
+        if (droppedActivities > 0) {
+            logger.warn("Dropped {} activities of users over the maximum of {} per aggregation period",
+                droppedActivities, auditorConfig.getWindowMaxKeys());
+        }
+        metrics.recordDroppedActivities(droppedEvents, droppedActivities);
+        final Map<AuditKey, UserActivity> dump = makeDump();
+        metrics.recordWindow(dump);
+        dumpWriter.write(dump, this::createFormatter);
     }
 
-    private Map<AuditKey, UserActivity> makeDump() {
-        final Map<AuditKey, UserActivity> auditStorageDump;
-        auditLock.lock();
-        try {
-            auditStorageDump = auditStorage;
-            auditStorage = new HashMap<>();
-        } finally {
-            auditLock.unlock();
-        }
-        return auditStorageDump;
+    // synchronized as the dump when stopping may run along with a scheduled one
+    private synchronized Map<AuditKey, UserActivity> makeDump() {
+        final AuditWindow dumped = window;
+        window = new AuditWindow();
+        dumped.awaitWriters();
+        return dumped.activities;
+    }
+
+    // visible for test
+    Map<AuditKey, UserActivity> auditStorage() {
+        return window.activities;
     }
 
     protected abstract AuditorDumpFormatter createFormatter();
@@ -18,6 +18,7 @@ package io.aiven.kafka.auth.audit;
 
 import org.apache.kafka.common.Configurable;
 import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.metrics.Metrics;
 import org.apache.kafka.common.resource.ResourcePattern;
 
 public interface AuditorAPI extends Configurable {
@@ -26,5 +27,11 @@ public interface AuditorAPI extends Configurable {
                      final ResourcePattern resource,
                      final boolean hasAccess);
 
+    /**
+     * Register the metrics of the auditor with those of the authorizer, once configured.
+     */
+    default void registerMetrics(final Metrics metrics) {
+    }
+
     void stop();
 }
@@ -20,14 +20,41 @@ import java.util.Map;
 
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
 
 import static io.aiven.kafka.auth.audit.AuditorConfig.AggregationGrouping.USER;
 import static io.aiven.kafka.auth.audit.AuditorConfig.AggregationGrouping.USER_AND_IP;
+import static io.aiven.kafka.auth.audit.AuditorConfig.DumpFormat.JSON;
+import static io.aiven.kafka.auth.audit.AuditorConfig.DumpFormat.TEXT;
+import static io.aiven.kafka.auth.audit.AuditorConfig.OverflowPolicy.BLOCK;
+import static io.aiven.kafka.auth.audit.AuditorConfig.OverflowPolicy.DROP;
+import static io.aiven.kafka.auth.audit.AuditorConfig.SamplingMode.NONE;
+import static io.aiven.kafka.auth.audit.AuditorConfig.SamplingMode.PROBABILISTIC;
+import static io.aiven.kafka.auth.audit.AuditorConfig.SamplingMode.RATE_LIMITED;
+import static io.aiven.kafka.auth.audit.AuditorConfig.Sink.FILE;
+import static io.aiven.kafka.auth.audit.AuditorConfig.Sink.LOGGER;
 
 public class AuditorConfig extends AbstractConfig {
 
     static final String AGGREGATION_PERIOD_CONF = "aiven.acl.authorizer.auditor.aggregation.period";
     static final String AGGREGATION_GROUPING_CONF = "aiven.acl.authorizer.auditor.aggregation.grouping";
+    static final String FORMAT_CONF = "aiven.acl.authorizer.auditor.format";
+    static final String SAMPLING_MODE_CONF = "aiven.acl.authorizer.auditor.sampling.mode";
+    static final String SAMPLING_PROBABILITY_CONF = "aiven.acl.authorizer.auditor.sampling.probability";
+    static final String SAMPLING_RATE_LIMIT_CONF = "aiven.acl.authorizer.auditor.sampling.rate.limit";
+    static final String WINDOW_MAX_KEYS_CONF = "aiven.acl.authorizer.auditor.window.max.keys";
+    static final String WINDOW_MAX_OPERATIONS_PER_KEY_CONF =
+        "aiven.acl.authorizer.auditor.window.max.operations.per.key";
+    static final String WINDOW_MAX_OPERATIONS_CONF = "aiven.acl.authorizer.auditor.window.max.operations";
+    static final String SINK_CONF = "aiven.acl.authorizer.auditor.sink";
+    static final String FILE_PATH_CONF = "aiven.acl.authorizer.auditor.file.path";
+    static final String FILE_BUFFER_SIZE_CONF = "aiven.acl.authorizer.auditor.file.buffer.size";
+    static final String FILE_ROTATION_BYTES_CONF = "aiven.acl.authorizer.auditor.file.rotation.bytes";
+    static final String FILE_ROTATION_MS_CONF = "aiven.acl.authorizer.auditor.file.rotation.ms";
+    static final String FILE_ROTATION_GZIP_CONF = "aiven.acl.authorizer.auditor.file.rotation.gzip";
+    static final String ASYNC_ENABLED_CONF = "aiven.acl.authorizer.auditor.async.enabled";
+    static final String ASYNC_BUFFER_SIZE_CONF = "aiven.acl.authorizer.auditor.async.buffer.size";
+    static final String ASYNC_OVERFLOW_POLICY_CONF = "aiven.acl.authorizer.auditor.async.overflow.policy";
 
     public enum AggregationGrouping {
         USER("user"),
@@ -54,8 +81,113 @@ public class AuditorConfig extends AbstractConfig {
 
     }
 
+    public enum DumpFormat {
+        TEXT("text"),
+        JSON("json");
+
+        private final String configValue;
+
+        DumpFormat(final String configValue) {
+            this.configValue = configValue;
+        }
+
+        public String getConfigValue() {
+            return configValue;
+        }
+
+        public static DumpFormat fromConfigValue(final String configValue) {
+            for (final var format : values()) {
+                if (format.configValue.equals(configValue)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported dump format: " + configValue);
+        }
+
+    }
+
+    public enum SamplingMode {
+        NONE("none"),
+        PROBABILISTIC("probabilistic"),
+        RATE_LIMITED("rate_limited");
+
+        private final String configValue;
+
+        SamplingMode(final String configValue) {
+            this.configValue = configValue;
+        }
+
+        public String getConfigValue() {
+            return configValue;
+        }
+
+        public static SamplingMode fromConfigValue(final String configValue) {
+            for (final var mode : values()) {
+                if (mode.configValue.equals(configValue)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sampling mode: " + configValue);
+        }
+
+    }
+
+    public enum Sink {
+        LOGGER("logger"),
+        FILE("file");
+
+        private final String configValue;
+
+        Sink(final String configValue) {
+            this.configValue = configValue;
+        }
+
+        public String getConfigValue() {
+            return configValue;
+        }
+
+        public static Sink fromConfigValue(final String configValue) {
+            for (final var sink : values()) {
+                if (sink.configValue.equals(configValue)) {
+                    return sink;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sink: " + configValue);
+        }
+
+    }
+
+    public enum OverflowPolicy {
+        DROP("drop"),
+        BLOCK("block");
+
+        private final String configValue;
+
+        OverflowPolicy(final String configValue) {
+            this.configValue = configValue;
+        }
+
+        public String getConfigValue() {
+            return configValue;
+        }
+
+        public static OverflowPolicy fromConfigValue(final String configValue) {
+            for (final var policy : values()) {
+                if (policy.configValue.equals(configValue)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported overflow policy: " + configValue);
+        }
+
+    }
+
     public AuditorConfig(final Map<?, ?> originals) {
         super(configDef(), originals);
+        if (getSink() == FILE && getFilePath() == null) {
+            throw new ConfigException(
+                FILE_PATH_CONF, null, "Must be set when the auditor sink is " + FILE.getConfigValue());
+        }
     }
 
     public static ConfigDef configDef() {
@@ -75,6 +207,129 @@ public class AuditorConfig extends AbstractConfig {
                         USER_AND_IP.getConfigValue()),
                 ConfigDef.Importance.HIGH,
                 "The auditor aggregation grouping key."
+            ).define(
+                FORMAT_CONF,
+                ConfigDef.Type.STRING,
+                TEXT.getConfigValue(),
+                ConfigDef.ValidString.in(TEXT.getConfigValue(),
+                        JSON.getConfigValue()),
+                ConfigDef.Importance.MEDIUM,
+                "The format of the dump entries: a sentence per user, or a JSON object per user and address."
+            ).define(
+                SAMPLING_MODE_CONF,
+                ConfigDef.Type.STRING,
+                NONE.getConfigValue(),
+                ConfigDef.ValidString.in(NONE.getConfigValue(),
+                        PROBABILISTIC.getConfigValue(),
+                        RATE_LIMITED.getConfigValue()),
+                ConfigDef.Importance.MEDIUM,
+                "How the allowed activities are sampled: all recorded, each recorded with the configured probability, "
+                    + "or about as many recorded per second as the configured rate limit. "
+                    + "Denied activities are always recorded. The counting auditor scales the sampled counts."
+            ).define(
+                SAMPLING_PROBABILITY_CONF,
+                ConfigDef.Type.DOUBLE,
+                0.1,
+                ConfigDef.Range.between(0.0, 1.0),
+                ConfigDef.Importance.MEDIUM,
+                "The probability of recording an allowed activity with probabilistic sampling."
+            ).define(
+                SAMPLING_RATE_LIMIT_CONF,
+                ConfigDef.Type.INT,
+                1000,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.MEDIUM,
+                "The number of allowed activities recorded per second with rate limited sampling, on average."
+            ).define(
+                WINDOW_MAX_KEYS_CONF,
+                ConfigDef.Type.INT,
+                100_000,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.MEDIUM,
+                "The maximum number of users, or users and addresses depending on the grouping, "
+                    + "recorded per aggregation period. The activities of others are dropped and counted."
+            ).define(
+                WINDOW_MAX_OPERATIONS_PER_KEY_CONF,
+                ConfigDef.Type.INT,
+                10_000,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.MEDIUM,
+                "The maximum number of distinct operations recorded per user, or user and address, "
+                    + "per aggregation period. Further operations are only counted."
+            ).define(
+                WINDOW_MAX_OPERATIONS_CONF,
+                ConfigDef.Type.INT,
+                1_000_000,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.MEDIUM,
+                "The maximum number of distinct operations recorded for all the users per aggregation period, "
+                    + "which bounds the memory used by the auditor. Further operations are only counted."
+            ).define(
+                SINK_CONF,
+                ConfigDef.Type.STRING,
+                LOGGER.getConfigValue(),
+                ConfigDef.ValidString.in(LOGGER.getConfigValue(),
+                        FILE.getConfigValue()),
+                ConfigDef.Importance.MEDIUM,
+                "Where the dumps are written: to the aiven.auditor.logger logger, "
+                    + "or to a file of their own, independently of the logging of the broker."
+            ).define(
+                FILE_PATH_CONF,
+                ConfigDef.Type.STRING,
+                null,
+                ConfigDef.Importance.MEDIUM,
+                "The file the dumps are written to with the file sink."
+            ).define(
+                FILE_BUFFER_SIZE_CONF,
+                ConfigDef.Type.INT,
+                1024 * 1024,
+                ConfigDef.Range.atLeast(1024),
+                ConfigDef.Importance.LOW,
+                "The number of bytes buffered before writing to the file with the file sink."
+            ).define(
+                FILE_ROTATION_BYTES_CONF,
+                ConfigDef.Type.LONG,
+                100L * 1024 * 1024,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.LOW,
+                "The size in bytes after which the file is rotated with the file sink."
+            ).define(
+                FILE_ROTATION_MS_CONF,
+                ConfigDef.Type.LONG,
+                24L * 60 * 60 * 1000,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.LOW,
+                "The time in milliseconds after which the file is rotated with the file sink."
+            ).define(
+                FILE_ROTATION_GZIP_CONF,
+                ConfigDef.Type.BOOLEAN,
+                false,
+                ConfigDef.Importance.LOW,
+                "Whether the rotated files are gzipped with the file sink."
+            ).define(
+                ASYNC_ENABLED_CONF,
+                ConfigDef.Type.BOOLEAN,
+                false,
+                ConfigDef.Importance.MEDIUM,
+                "Whether the activities are passed through a buffer to an auditor thread which aggregates them, "
+                    + "rather than aggregated by the threads authorizing the requests."
+            ).define(
+                ASYNC_BUFFER_SIZE_CONF,
+                ConfigDef.Type.INT,
+                65536,
+                // The largest power of two an array holds
+                ConfigDef.Range.between(1, 1 << 30),
+                ConfigDef.Importance.LOW,
+                "The number of activities the asynchronous auditor buffer holds, rounded up to a power of two."
+            ).define(
+                ASYNC_OVERFLOW_POLICY_CONF,
+                ConfigDef.Type.STRING,
+                DROP.getConfigValue(),
+                ConfigDef.ValidString.in(DROP.getConfigValue(),
+                        BLOCK.getConfigValue()),
+                ConfigDef.Importance.LOW,
+                "What to do with an activity when the asynchronous auditor buffer is full: "
+                    + "drop it and count it, or block the authorizing thread until there is room."
             );
     }
 
@@ -85,4 +340,68 @@ public class AuditorConfig extends AbstractConfig {
     public AggregationGrouping getAggregationGrouping() {
         return AggregationGrouping.fromConfigValue(getString(AGGREGATION_GROUPING_CONF));
     }
+
+    public DumpFormat getDumpFormat() {
+        return DumpFormat.fromConfigValue(getString(FORMAT_CONF));
+    }
+
+    public SamplingMode getSamplingMode() {
+        return SamplingMode.fromConfigValue(getString(SAMPLING_MODE_CONF));
+    }
+
+    public double getSamplingProbability() {
+        return getDouble(SAMPLING_PROBABILITY_CONF);
+    }
+
+    public int getSamplingRateLimit() {
+        return getInt(SAMPLING_RATE_LIMIT_CONF);
+    }
+
+    public int getWindowMaxKeys() {
+        return getInt(WINDOW_MAX_KEYS_CONF);
+    }
+
+    public int getWindowMaxOperationsPerKey() {
+        return getInt(WINDOW_MAX_OPERATIONS_PER_KEY_CONF);
+    }
+
+    public int getWindowMaxOperations() {
+        return getInt(WINDOW_MAX_OPERATIONS_CONF);
+    }
+
+    public Sink getSink() {
+        return Sink.fromConfigValue(getString(SINK_CONF));
+    }
+
+    public String getFilePath() {
+        return getString(FILE_PATH_CONF);
+    }
+
+    public int getFileBufferSize() {
+        return getInt(FILE_BUFFER_SIZE_CONF);
+    }
+
+    public long getFileRotationBytes() {
+        return getLong(FILE_ROTATION_BYTES_CONF);
+    }
+
+    public long getFileRotationMs() {
+        return getLong(FILE_ROTATION_MS_CONF);
+    }
+
+    public boolean isFileRotationGzip() {
+        return getBoolean(FILE_ROTATION_GZIP_CONF);
+    }
+
+    public boolean isAsyncEnabled() {
+        return getBoolean(ASYNC_ENABLED_CONF);
+    }
+
+    public int getAsyncBufferSize() {
+        return getInt(ASYNC_BUFFER_SIZE_CONF);
+    }
+
+    public OverflowPolicy getAsyncOverflowPolicy() {
+        return OverflowPolicy.fromConfigValue(getString(ASYNC_OVERFLOW_POLICY_CONF));
+    }
 }
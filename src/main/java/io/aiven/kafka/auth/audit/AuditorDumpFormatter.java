@@ -19,11 +19,20 @@ package io.aiven.kafka.auth.audit;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourcePattern;
 
 /**
  * Formatter for audit dump.
  */
 public interface AuditorDumpFormatter {
+    /**
+     * The length in characters after which the operations of an entry are continued in another entry.
+     */
+    int MAX_ENTRY_LENGTH = 64 * 1024;
+
     /**
      * Converts the given {@code dump} as log entries.
      *
@@ -32,14 +41,48 @@ public interface AuditorDumpFormatter {
      */
     List<String> format(Map<Auditor.AuditKey, UserActivity> dump);
 
+    /**
+     * Converts the given {@code dump} as log entries, passing each one to {@code sink} as soon
+     * as it's built, rather than building all of them first.
+     *
+     * @param dump the dump
+     * @param sink the consumer of the log entries
+     */
+    default void format(final Map<Auditor.AuditKey, UserActivity> dump, final Consumer<String> sink) {
+        format(dump).forEach(sink);
+    }
+
     static DateTimeFormatter dateFormatter() {
         return DateTimeFormatter.ISO_INSTANT;
     }
 
     default String formatUserOperation(final UserOperation userOperation) {
-        return (userOperation.hasAccess ? "Allow" : "Deny")
-                + " " + userOperation.operation + " on "
-                + userOperation.resource.resourceType() + ":"
-                + userOperation.resource.name();
+        final StringBuilder builder = new StringBuilder();
+        appendUserOperation(builder, userOperation);
+        return builder.toString();
+    }
+
+    default void appendUserOperation(final StringBuilder builder, final UserOperation userOperation) {
+        appendOperation(builder, userOperation.operation, userOperation.resource, userOperation.hasAccess);
+    }
+
+    default void appendOperation(final StringBuilder builder,
+                                 final AclOperation operation,
+                                 final ResourcePattern resource,
+                                 final boolean hasAccess) {
+        builder.append(hasAccess ? "Allow" : "Deny")
+                .append(' ').append(operation).append(" on ")
+                .append(resource.resourceType()).append(':')
+                .append(resource.name());
+    }
+
+    /**
+     * Appends how many operations of {@code userActivity} weren't recorded, if any.
+     */
+    default void appendDroppedOperations(final StringBuilder builder, final UserActivity userActivity) {
+        final long droppedOperations = userActivity.droppedOperations();
+        if (droppedOperations > 0) {
+            builder.append(" (").append(droppedOperations).append(" more operations not recorded)");
+        }
     }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.kafka.common.MetricNameTemplate;
+import org.apache.kafka.common.metrics.MeasurableStat;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.CumulativeCount;
+import org.apache.kafka.common.metrics.stats.CumulativeSum;
+import org.apache.kafka.common.metrics.stats.Rate;
+import org.apache.kafka.common.metrics.stats.Value;
+
+/**
+ * The metrics of an auditor, to size its aggregation period and windows from data.
+ *
+ * <p>Recording to a sensor synchronizes on it, so the authorizing threads only count the activities,
+ * which are recorded every second. Everything else is recorded by the dump, and the windows and dumps
+ * are measured by their last value as dumps are usually further apart than the samples of rates.
+ * Nothing is recorded until the metrics are registered with the metrics of the authorizer.
+ */
+final class AuditorMetrics {
+    static final String METRIC_GROUP_NAME = "auditor-metrics";
+    static final String ACTIVITIES = "auditor-activities";
+    static final String BUFFER_DROPPED_ACTIVITIES = "auditor-buffer-dropped-activities";
+    static final String WINDOW_DROPPED_ACTIVITIES = "auditor-window-dropped-activities";
+    static final String WINDOW_DROPPED_OPERATIONS = "auditor-window-dropped-operations";
+    static final String WINDOW_KEYS = "auditor-window-keys";
+    static final String WINDOW_OPERATIONS = "auditor-window-operations";
+    static final String DUMP_TIME = "auditor-dump-time-ms";
+    static final String DUMP_BYTES = "auditor-dump-bytes";
+    static final String DUMP_ERRORS = "auditor-dump-errors";
+
+    private static final MetricNameTemplate ACTIVITIES_RATE =
+        template(ACTIVITIES + "-rate", "Rate of activities audited");
+    private static final MetricNameTemplate ACTIVITIES_TOTAL =
+        template(ACTIVITIES + "-total", "Total number of activities audited");
+    private static final MetricNameTemplate BUFFER_DROPPED_ACTIVITIES_TOTAL = template(
+        BUFFER_DROPPED_ACTIVITIES + "-total",
+        "Total number of activities dropped as the buffer of asynchronous auditing was full");
+    private static final MetricNameTemplate WINDOW_DROPPED_ACTIVITIES_TOTAL = template(
+        WINDOW_DROPPED_ACTIVITIES + "-total",
+        "Total number of activities dropped as the window had the maximum number of users");
+    private static final MetricNameTemplate WINDOW_DROPPED_OPERATIONS_TOTAL = template(
+        WINDOW_DROPPED_OPERATIONS + "-total",
+        "Total number of operations dropped as the user had the maximum number of operations");
+    private static final MetricNameTemplate WINDOW_KEYS_VALUE =
+        template(WINDOW_KEYS, "Number of distinct users in the last dumped window");
+    private static final MetricNameTemplate WINDOW_OPERATIONS_VALUE =
+        template(WINDOW_OPERATIONS, "Number of distinct operations in the last dumped window");
+    private static final MetricNameTemplate DUMP_TIME_VALUE =
+        template(DUMP_TIME, "Time taken to format and write the last dump");
+    private static final MetricNameTemplate DUMP_BYTES_VALUE =
+        template(DUMP_BYTES, "Size of the last dump, one byte per character");
+    private static final MetricNameTemplate DUMP_BYTES_TOTAL =
+        template(DUMP_BYTES + "-total", "Total size of the dumps, one byte per character");
+    private static final MetricNameTemplate DUMP_ERRORS_TOTAL =
+        template(DUMP_ERRORS + "-total", "Total number of dumps which failed");
+
+    // The activities added since they were last recorded
+    private final LongAdder activities = new LongAdder();
+
+    // The activities of the users which didn't fit in the current window
+    private final LongAdder droppedActivities = new LongAdder();
+
+    // null until registered
+    private volatile Sensors sensors;
+
+    void register(final Metrics metrics) {
+        sensors = new Sensors(metrics);
+    }
+
+    void unregister() {
+        final Sensors registered = sensors;
+        if (registered != null) {
+            sensors = null;
+            registered.remove();
+        }
+    }
+
+    void countActivity() {
+        activities.increment();
+    }
+
+    void countDroppedActivity() {
+        droppedActivities.increment();
+    }
+
+    /**
+     * The number of activities which didn't fit in the window since the previous call.
+     */
+    long takeDroppedActivities() {
+        return droppedActivities.sumThenReset();
+    }
+
+    /**
+     * Record the activities counted since the previous call.
+     */
+    void recordActivities() {
+        final long count = activities.sumThenReset();
+        final Sensors registered = sensors;
+        if (registered != null) {
+            registered.activities.record(count);
+        }
+    }
+
+    void recordDroppedActivities(final long bufferFull, final long windowFull) {
+        final Sensors registered = sensors;
+        if (registered != null) {
+            registered.bufferDroppedActivities.record(bufferFull);
+            registered.windowDroppedActivities.record(windowFull);
+        }
+    }
+
+    void recordWindow(final Map<Auditor.AuditKey, UserActivity> dump) {
+        final Sensors registered = sensors;
+        if (registered == null) {
+            return;
+        }
+        long operations = 0;
+        long droppedOperations = 0;
+        for (final UserActivity userActivity : dump.values()) {
+            operations += userActivity.operationCount();
+            droppedOperations += userActivity.droppedOperations();
+        }
+        registered.windowKeys.record(dump.size());
+        registered.windowOperations.record(operations);
+        registered.windowDroppedOperations.record(droppedOperations);
+    }
+
+    void recordDump(final double timeMs, final long bytes) {
+        final Sensors registered = sensors;
+        if (registered != null) {
+            registered.dumpTime.record(timeMs);
+            registered.dumpBytes.record(bytes);
+        }
+    }
+
+    void recordDumpError() {
+        final Sensors registered = sensors;
+        if (registered != null) {
+            registered.dumpErrors.record();
+        }
+    }
+
+    private static final class Sensors {
+        private final Metrics metrics;
+        private final Sensor activities;
+        private final Sensor bufferDroppedActivities;
+        private final Sensor windowDroppedActivities;
+        private final Sensor windowDroppedOperations;
+        private final Sensor windowKeys;
+        private final Sensor windowOperations;
+        private final Sensor dumpTime;
+        private final Sensor dumpBytes;
+        private final Sensor dumpErrors;
+
+        private Sensors(final Metrics metrics) {
+            this.metrics = metrics;
+            activities = sensor(ACTIVITIES);
+            add(activities, ACTIVITIES_RATE, new Rate());
+            add(activities, ACTIVITIES_TOTAL, new CumulativeSum());
+            bufferDroppedActivities = sensor(BUFFER_DROPPED_ACTIVITIES);
+            add(bufferDroppedActivities, BUFFER_DROPPED_ACTIVITIES_TOTAL, new CumulativeSum());
+            windowDroppedActivities = sensor(WINDOW_DROPPED_ACTIVITIES);
+            add(windowDroppedActivities, WINDOW_DROPPED_ACTIVITIES_TOTAL, new CumulativeSum());
+            windowDroppedOperations = sensor(WINDOW_DROPPED_OPERATIONS);
+            add(windowDroppedOperations, WINDOW_DROPPED_OPERATIONS_TOTAL, new CumulativeSum());
+            windowKeys = sensor(WINDOW_KEYS);
+            add(windowKeys, WINDOW_KEYS_VALUE, new Value());
+            windowOperations = sensor(WINDOW_OPERATIONS);
+            add(windowOperations, WINDOW_OPERATIONS_VALUE, new Value());
+            dumpTime = sensor(DUMP_TIME);
+            add(dumpTime, DUMP_TIME_VALUE, new Value());
+            dumpBytes = sensor(DUMP_BYTES);
+            add(dumpBytes, DUMP_BYTES_VALUE, new Value());
+            add(dumpBytes, DUMP_BYTES_TOTAL, new CumulativeSum());
+            dumpErrors = sensor(DUMP_ERRORS);
+            add(dumpErrors, DUMP_ERRORS_TOTAL, new CumulativeCount());
+        }
+
+        private Sensor sensor(final String name) {
+            return metrics.sensor(name, Sensor.RecordingLevel.INFO);
+        }
+
+        private void add(final Sensor sensor, final MetricNameTemplate template, final MeasurableStat stat) {
+            sensor.add(metrics.metricInstance(template), stat);
+        }
+
+        private void remove() {
+            for (final Sensor sensor : List.of(activities, bufferDroppedActivities, windowDroppedActivities,
+                windowDroppedOperations, windowKeys, windowOperations, dumpTime, dumpBytes, dumpErrors)) {
+                metrics.removeSensor(sensor.name());
+            }
+        }
+    }
+
+    private static MetricNameTemplate template(final String name, final String description) {
+        return new MetricNameTemplate(name, METRIC_GROUP_NAME, description);
+    }
+}
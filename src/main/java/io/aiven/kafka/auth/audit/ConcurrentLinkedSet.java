@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A set which can be added to concurrently and is iterated in the order the elements were added,
+ * like a {@link java.util.LinkedHashSet}.
+ *
+ * <p>Adding an element which is already in the set only reads a {@link ConcurrentHashMap}.
+ * Elements can't be removed.
+ */
+final class ConcurrentLinkedSet<E> extends AbstractSet<E> {
+    private final Set<E> elements = ConcurrentHashMap.newKeySet();
+    private final Queue<E> order = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public boolean add(final E element) {
+        if (elements.contains(element) || !elements.add(element)) {
+            return false;
+        }
+        order.add(element);
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object element) {
+        return elements.contains(element);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return Collections.unmodifiableCollection(order).iterator();
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+}
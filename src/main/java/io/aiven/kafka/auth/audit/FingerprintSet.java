@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.net.InetAddress;
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+
+/**
+ * A fixed size, lock-free set of 64-bit fingerprints of activities, used to skip the activities
+ * which were already recorded.
+ *
+ * <p>It's only a filter: when the probed slots are taken, a fingerprint isn't added, and the activity
+ * is recorded the slow way every time. Two different activities with the same fingerprint would make
+ * the second one look recorded, which is unlikely enough with 64-bit fingerprints of all their fields.
+ *
+ * <p>The fingerprints are keyed with a random key per process, so that a client can't choose a resource
+ * name whose fingerprint is that of another activity, which would hide that activity from the audit.
+ */
+final class FingerprintSet {
+    private static final int MAX_PROBES = 8;
+    // Marks an empty slot, fingerprints which happen to be zero are changed
+    private static final long EMPTY = 0;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final long KEY0 = RANDOM.nextLong();
+    private static final long KEY1 = RANDOM.nextLong();
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param capacity the number of fingerprints the set holds at most, rounded up to a power of two.
+     */
+    FingerprintSet(final int capacity) {
+        final int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    boolean contains(final long fingerprint) {
+        int index = (int) fingerprint & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            final long slot = slots.get(index);
+            if (slot == fingerprint) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    void add(final long fingerprint) {
+        int index = (int) fingerprint & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            final long witness = slots.compareAndExchange(index, EMPTY, fingerprint);
+            if (witness == EMPTY || witness == fingerprint) {
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * The fingerprint of the principal and address of {@code session}.
+     */
+    static long fingerprint(final Session session) {
+        return nonEmpty(hash(session).finish());
+    }
+
+    /**
+     * The fingerprint of a whole activity.
+     */
+    static long fingerprint(final Session session,
+                            final AclOperation operation,
+                            final ResourcePattern resource,
+                            final boolean hasAccess) {
+        final Hasher hasher = hash(session);
+        hasher.add(resource.name());
+        // The enums fit in a byte each
+        hasher.add(operation.ordinal(), Byte.SIZE);
+        hasher.add(resource.resourceType().ordinal(), Byte.SIZE);
+        hasher.add(resource.patternType().ordinal(), Byte.SIZE);
+        hasher.add(hasAccess ? 1 : 0, Byte.SIZE);
+        return nonEmpty(hasher.finish());
+    }
+
+    private static Hasher hash(final Session session) {
+        final KafkaPrincipal principal = session.getPrincipal();
+        final Hasher hasher = new Hasher(KEY0, KEY1);
+        hasher.add(principal.getPrincipalType());
+        hasher.add(principal.getName());
+        // All the bytes of the address, as the hash code of an IPv6 address is easy to collide
+        final InetAddress address = session.getClientAddress();
+        final byte[] bytes = address != null ? address.getAddress() : new byte[0];
+        hasher.add(bytes.length, Byte.SIZE);
+        for (final byte b : bytes) {
+            hasher.add(b & 0xFF, Byte.SIZE);
+        }
+        return hasher;
+    }
+
+    private static long nonEmpty(final long hash) {
+        return hash != EMPTY ? hash : 1;
+    }
+
+    /**
+     * SipHash-2-4, a keyed hash which is fast on short inputs, of the little-endian bytes of the values added.
+     */
+    static final class Hasher {
+        private long v0;
+        private long v1;
+        private long v2;
+        private long v3;
+        // The bytes not hashed yet, fewer than 8
+        private long pending;
+        private int pendingBits;
+        private long length;
+
+        Hasher(final long key0, final long key1) {
+            v0 = key0 ^ 0x736F6D6570736575L;
+            v1 = key1 ^ 0x646F72616E646F6DL;
+            v2 = key0 ^ 0x6C7967656E657261L;
+            v3 = key1 ^ 0x7465646279746573L;
+        }
+
+        /**
+         * Add the length of {@code value} and its characters, so that the values of a sequence can't be
+         * moved from one to another.
+         */
+        void add(final String value) {
+            if (value == null) {
+                add(-1, Integer.SIZE);
+                return;
+            }
+            add(value.length(), Integer.SIZE);
+            for (int i = 0; i < value.length(); i++) {
+                add(value.charAt(i), Character.SIZE);
+            }
+        }
+
+        /**
+         * Add the lowest {@code bits} of {@code value}, a multiple of 8 up to 32.
+         */
+        void add(final long value, final int bits) {
+            final long bitsOfValue = value & (-1L >>> (Long.SIZE - bits));
+            pending |= bitsOfValue << pendingBits;
+            pendingBits += bits;
+            if (pendingBits >= Long.SIZE) {
+                compress(pending);
+                pendingBits -= Long.SIZE;
+                pending = pendingBits > 0 ? bitsOfValue >>> (bits - pendingBits) : 0;
+            }
+            length += bits / Byte.SIZE;
+        }
+
+        long finish() {
+            compress(pending | length << 56);
+            v2 ^= 0xFF;
+            for (int i = 0; i < 4; i++) {
+                round();
+            }
+            return v0 ^ v1 ^ v2 ^ v3;
+        }
+
+        private void compress(final long word) {
+            v3 ^= word;
+            round();
+            round();
+            v0 ^= word;
+        }
+
+        private void round() {
+            v0 += v1;
+            v1 = Long.rotateLeft(v1, 13);
+            v1 ^= v0;
+            v0 = Long.rotateLeft(v0, 32);
+            v2 += v3;
+            v3 = Long.rotateLeft(v3, 16);
+            v3 ^= v2;
+            v0 += v3;
+            v3 = Long.rotateLeft(v3, 21);
+            v3 ^= v0;
+            v2 += v1;
+            v1 = Long.rotateLeft(v1, 17);
+            v1 ^= v2;
+            v2 = Long.rotateLeft(v2, 32);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+
+/**
+ * An {@link AuditorDumpFormatter} that creates a JSON object for each IP of each principal, such as
+ * <pre>
+ * {"principal_type":"User","principal_name":"alice","source_ip":"10.0.0.1","active_since":"2026-01-01T00:00:00Z",
+ *  "operations":[{"allowed":true,"operation":"READ","resource_type":"TOPIC","resource_name":"orders",
+ *  "pattern_type":"LITERAL","count":3}]}
+ * </pre>
+ * on a single line. The count is only there for the counting auditor, along with {@code "sampled":true} when
+ * it's estimated from sampled operations. {@code "dropped_operations"} is the number of operations which
+ * didn't fit in the aggregation period, when there are any.
+ *
+ * <p>The field names and the enum values are encoded once, and the principals and resource names
+ * once per dump, up to a bound, as they're only remembered for the dump being formatted. The operations
+ * of an entry longer than the maximum length are continued in another entry with the same fields.
+ */
+public class JsonLinesFormatter implements AuditorDumpFormatter {
+
+    private static final String PRINCIPAL_TYPE = "{\"principal_type\":";
+    private static final String PRINCIPAL_NAME = ",\"principal_name\":";
+    private static final String SOURCE_IP = ",\"source_ip\":";
+    private static final String ACTIVE_SINCE = ",\"active_since\":\"";
+    private static final String OPERATIONS = "\",\"operations\":[";
+    private static final String ALLOWED = "{\"allowed\":true,\"operation\":";
+    private static final String DENIED = "{\"allowed\":false,\"operation\":";
+    private static final String RESOURCE_TYPE = ",\"resource_type\":";
+    private static final String RESOURCE_NAME = ",\"resource_name\":";
+    private static final String PATTERN_TYPE = ",\"pattern_type\":";
+    private static final String COUNT = ",\"count\":";
+    private static final String SAMPLED = ",\"sampled\":true";
+    private static final String DROPPED_OPERATIONS = ",\"dropped_operations\":";
+
+    private static final String[] OPERATION_VALUES = quotedNames(AclOperation.values());
+    private static final String[] RESOURCE_TYPE_VALUES = quotedNames(ResourceType.values());
+    private static final String[] PATTERN_TYPE_VALUES = quotedNames(PatternType.values());
+
+    // Enough for the principals and resources of most dumps, without growing with the largest ones
+    private static final int MAX_CACHED_STRINGS = 16 * 1024;
+
+    private final int maxEntryLength;
+
+    // Reused for all the entries
+    private final StringBuilder entry = new StringBuilder();
+
+    // The JSON strings of the principals and resource names of the dump being formatted
+    private final Map<String, String> jsonStrings = new HashMap<>();
+
+    public JsonLinesFormatter() {
+        this(MAX_ENTRY_LENGTH);
+    }
+
+    // visible for test
+    JsonLinesFormatter(final int maxEntryLength) {
+        this.maxEntryLength = maxEntryLength;
+    }
+
+    @Override
+    public List<String> format(final Map<Auditor.AuditKey, UserActivity> dump) {
+        final List<String> entries = new ArrayList<>(dump.size());
+        format(dump, entries::add);
+        return entries;
+    }
+
+    @Override
+    public void format(final Map<Auditor.AuditKey, UserActivity> dump, final Consumer<String> sink) {
+        // Otherwise the names of the first dumps would fill it, and the later ones would never be cached
+        jsonStrings.clear();
+        for (final Map.Entry<Auditor.AuditKey, UserActivity> activity : dump.entrySet()) {
+            final Auditor.AuditKey key = activity.getKey();
+            final UserActivity userActivity = activity.getValue();
+            if (userActivity instanceof UserActivity.UserActivityOperationsGropedByIP) {
+                formatOperationsByIp(key, (UserActivity.UserActivityOperationsGropedByIP) userActivity, sink);
+            } else if (userActivity instanceof UserActivity.UserActivityOperationCounts) {
+                formatOperationCounts(key, (UserActivity.UserActivityOperationCounts) userActivity, sink);
+            } else {
+                final int prefixLength = startEntry(key, key.sourceIp, userActivity);
+                formatOperations(((UserActivity.UserActivityOperations) userActivity).operations(), prefixLength, sink);
+                endEntry(userActivity, sink);
+            }
+        }
+    }
+
+    private void formatOperationsByIp(final Auditor.AuditKey key,
+                                      final UserActivity.UserActivityOperationsGropedByIP userActivity,
+                                      final Consumer<String> sink) {
+        final Map<InetAddress, Set<UserOperation>> operationsByIp = userActivity.operations();
+        if (operationsByIp.isEmpty()) {
+            startEntry(key, null, userActivity);
+            endEntry(userActivity, sink);
+            return;
+        }
+        int remaining = operationsByIp.size();
+        for (final Map.Entry<InetAddress, Set<UserOperation>> operations : operationsByIp.entrySet()) {
+            final int prefixLength = startEntry(key, operations.getKey(), userActivity);
+            formatOperations(operations.getValue(), prefixLength, sink);
+            remaining--;
+            // The operations which didn't fit are counted on the last entry
+            if (remaining == 0) {
+                endEntry(userActivity, sink);
+            } else {
+                entry.append("]}");
+                sink.accept(entry.toString());
+            }
+        }
+    }
+
+    private void formatOperations(final Set<UserOperation> operations,
+                                  final int prefixLength,
+                                  final Consumer<String> sink) {
+        for (final UserOperation operation : operations) {
+            continueEntry(prefixLength, sink);
+            appendOperation(operation.operation, operation.resource, operation.hasAccess);
+            entry.append('}');
+        }
+    }
+
+    private void formatOperationCounts(final Auditor.AuditKey key,
+                                       final UserActivity.UserActivityOperationCounts userActivity,
+                                       final Consumer<String> sink) {
+        final int prefixLength = startEntry(key, key.sourceIp, userActivity);
+        for (final var operationCounts : userActivity.operationCounts().entrySet()) {
+            final ResourcePattern resource = operationCounts.getKey();
+            for (final UserActivity.OperationCount operationCount : operationCounts.getValue()) {
+                continueEntry(prefixLength, sink);
+                appendOperation(operationCount.operation, resource, operationCount.hasAccess);
+                entry.append(COUNT).append(operationCount.count);
+                if (operationCount.sampled) {
+                    entry.append(SAMPLED);
+                }
+                entry.append('}');
+            }
+        }
+        endEntry(userActivity, sink);
+    }
+
+    /**
+     * Start an entry with the fields of the user, up to the opening of the operations.
+     *
+     * @return the length of the beginning of the entry, which is repeated when the operations are continued.
+     */
+    private int startEntry(final Auditor.AuditKey key, final InetAddress sourceIp, final UserActivity userActivity) {
+        entry.setLength(0);
+        entry.append(PRINCIPAL_TYPE);
+        appendString(key.principal.getPrincipalType());
+        entry.append(PRINCIPAL_NAME);
+        appendString(key.principal.getName());
+        if (sourceIp != null) {
+            entry.append(SOURCE_IP);
+            appendString(sourceIp.getHostAddress());
+        }
+        entry.append(ACTIVE_SINCE);
+        AuditorDumpFormatter.dateFormatter().formatTo(userActivity.activeSince, entry);
+        entry.append(OPERATIONS);
+        return entry.length();
+    }
+
+    /**
+     * Separate the next operation from the previous one, or if the entry is too long,
+     * end it and continue the operations in another entry.
+     */
+    private void continueEntry(final int prefixLength, final Consumer<String> sink) {
+        if (entry.length() == prefixLength) {
+            return;
+        }
+        if (entry.length() >= maxEntryLength) {
+            entry.append("]}");
+            sink.accept(entry.toString());
+            entry.setLength(prefixLength);
+        } else {
+            entry.append(',');
+        }
+    }
+
+    private void endEntry(final UserActivity userActivity, final Consumer<String> sink) {
+        entry.append(']');
+        final long droppedOperations = userActivity.droppedOperations();
+        if (droppedOperations > 0) {
+            entry.append(DROPPED_OPERATIONS).append(droppedOperations);
+        }
+        entry.append('}');
+        sink.accept(entry.toString());
+    }
+
+    private void appendOperation(final AclOperation operation,
+                                 final ResourcePattern resource,
+                                 final boolean hasAccess) {
+        entry.append(hasAccess ? ALLOWED : DENIED).append(OPERATION_VALUES[operation.ordinal()])
+            .append(RESOURCE_TYPE).append(RESOURCE_TYPE_VALUES[resource.resourceType().ordinal()])
+            .append(RESOURCE_NAME);
+        appendString(resource.name());
+        entry.append(PATTERN_TYPE).append(PATTERN_TYPE_VALUES[resource.patternType().ordinal()]);
+    }
+
+    private void appendString(final String value) {
+        if (value == null) {
+            entry.append("null");
+            return;
+        }
+        String jsonString = jsonStrings.get(value);
+        if (jsonString == null) {
+            jsonString = jsonString(value);
+            if (jsonStrings.size() < MAX_CACHED_STRINGS) {
+                jsonStrings.put(value, jsonString);
+            }
+        }
+        entry.append(jsonString);
+    }
+
+    private static String[] quotedNames(final Enum<?>[] values) {
+        final String[] names = new String[values.length];
+        for (final Enum<?> value : values) {
+            names[value.ordinal()] = jsonString(value.name());
+        }
+        return names;
+    }
+
+    /**
+     * {@code value} quoted, with the characters which can't be in a JSON string escaped.
+     */
+    private static String jsonString(final String value) {
+        final StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
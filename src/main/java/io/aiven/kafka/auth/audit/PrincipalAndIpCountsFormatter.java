@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.kafka.common.resource.ResourcePattern;
+
+/**
+ * An {@link AuditorDumpFormatter} that creates an entry for each IP of each principal,
+ * with how many times each operation was performed.
+ * Counts estimated from sampled operations read like {@code (~300 sampled)}.
+ *
+ * <p>The operations of an entry longer than the maximum length are continued in another entry
+ * with the same beginning.
+ */
+public class PrincipalAndIpCountsFormatter implements AuditorDumpFormatter {
+
+    private final int maxEntryLength;
+
+    // Reused for all the entries
+    private final StringBuilder auditMessage = new StringBuilder();
+
+    public PrincipalAndIpCountsFormatter() {
+        this(MAX_ENTRY_LENGTH);
+    }
+
+    // visible for test
+    PrincipalAndIpCountsFormatter(final int maxEntryLength) {
+        this.maxEntryLength = maxEntryLength;
+    }
+
+    @Override
+    public List<String> format(final Map<Auditor.AuditKey, UserActivity> dump) {
+        final List<String> entries = new ArrayList<>(dump.size());
+        format(dump, entries::add);
+        return entries;
+    }
+
+    @Override
+    public void format(final Map<Auditor.AuditKey, UserActivity> dump, final Consumer<String> sink) {
+        for (final Map.Entry<Auditor.AuditKey, UserActivity> entry : dump.entrySet()) {
+            buildAuditMessages(entry.getKey(), (UserActivity.UserActivityOperationCounts) entry.getValue(), sink);
+        }
+    }
+
+    private void buildAuditMessages(final Auditor.AuditKey key,
+                                    final UserActivity.UserActivityOperationCounts userActivity,
+                                    final Consumer<String> sink) {
+        auditMessage.setLength(0);
+        auditMessage
+                .append(key.principal.getPrincipalType()).append(':').append(key.principal.getName())
+                .append(" (").append(key.sourceIp).append(")")
+                .append(" was active since ");
+        AuditorDumpFormatter.dateFormatter().formatTo(userActivity.activeSince, auditMessage);
+        final int prefixLength = auditMessage.length();
+        String separator = ": ";
+        for (final var operationCounts : userActivity.operationCounts().entrySet()) {
+            final ResourcePattern resource = operationCounts.getKey();
+            for (final UserActivity.OperationCount operationCount : operationCounts.getValue()) {
+                if (auditMessage.length() >= maxEntryLength && auditMessage.length() > prefixLength) {
+                    sink.accept(auditMessage.toString());
+                    auditMessage.setLength(prefixLength);
+                    separator = ": ";
+                }
+                auditMessage.append(separator);
+                appendOperation(auditMessage, operationCount.operation, resource, operationCount.hasAccess);
+                auditMessage.append(operationCount.sampled ? " (~" : " (").append(operationCount.count)
+                        .append(operationCount.sampled ? " sampled)" : ")");
+                separator = ", ";
+            }
+        }
+        appendDroppedOperations(auditMessage, userActivity);
+        sink.accept(auditMessage.toString());
+    }
+
+}
@@ -16,38 +16,71 @@
 
 package io.aiven.kafka.auth.audit;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * An {@link AuditorDumpFormatter} that creates an entry for each IP
  * of each principal.
+ *
+ * <p>The operations of an entry longer than the maximum length are continued in another entry
+ * with the same beginning.
  */
 public class PrincipalAndIpFormatter implements AuditorDumpFormatter {
 
+    private final int maxEntryLength;
+
+    // Reused for all the entries
+    private final StringBuilder auditMessage = new StringBuilder();
+
+    public PrincipalAndIpFormatter() {
+        this(MAX_ENTRY_LENGTH);
+    }
+
+    // visible for test
+    PrincipalAndIpFormatter(final int maxEntryLength) {
+        this.maxEntryLength = maxEntryLength;
+    }
+
     @Override
     public List<String> format(final Map<Auditor.AuditKey, UserActivity> dump) {
-        return dump.entrySet().stream()
-                .map(e -> buildAuditMessage(e.getKey(), e.getValue()))
-                .collect(Collectors.toList());
+        final List<String> entries = new ArrayList<>(dump.size());
+        format(dump, entries::add);
+        return entries;
+    }
+
+    @Override
+    public void format(final Map<Auditor.AuditKey, UserActivity> dump, final Consumer<String> sink) {
+        for (final Map.Entry<Auditor.AuditKey, UserActivity> entry : dump.entrySet()) {
+            buildAuditMessages(entry.getKey(), (UserActivity.UserActivityOperations) entry.getValue(), sink);
+        }
     }
 
-    private String buildAuditMessage(final Auditor.AuditKey key, final UserActivity userActivity) {
-        final var ua = (UserActivity.UserActivityOperations) userActivity;
-        final StringBuilder auditMessage = new StringBuilder(key.principal.toString());
+    private void buildAuditMessages(final Auditor.AuditKey key,
+                                    final UserActivity.UserActivityOperations userActivity,
+                                    final Consumer<String> sink) {
+        auditMessage.setLength(0);
         auditMessage
+                .append(key.principal.getPrincipalType()).append(':').append(key.principal.getName())
                 .append(" (").append(key.sourceIp).append(")")
-                .append(" was active since ")
-                .append(ua.activeSince.format(AuditorDumpFormatter.dateFormatter()));
-        if (!ua.operations.isEmpty()) {
-            auditMessage.append(": ")
-                    .append(ua
-                            .operations.stream()
-                            .map(this::formatUserOperation)
-                            .collect(Collectors.joining(", ")));
+                .append(" was active since ");
+        AuditorDumpFormatter.dateFormatter().formatTo(userActivity.activeSince, auditMessage);
+        final int prefixLength = auditMessage.length();
+        String separator = ": ";
+        for (final UserOperation userOperation : userActivity.operations()) {
+            if (auditMessage.length() >= maxEntryLength && auditMessage.length() > prefixLength) {
+                sink.accept(auditMessage.toString());
+                auditMessage.setLength(prefixLength);
+                separator = ": ";
+            }
+            auditMessage.append(separator);
+            appendUserOperation(auditMessage, userOperation);
+            separator = ", ";
         }
-        return auditMessage.toString();
+        appendDroppedOperations(auditMessage, userActivity);
+        sink.accept(auditMessage.toString());
     }
 
 }
@@ -16,46 +16,80 @@
 
 package io.aiven.kafka.auth.audit;
 
+import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * An {@link AuditorDumpFormatter} that creates one entry per principal,
  * having info of each IP address in that entry.
+ *
+ * <p>The operations of an entry longer than the maximum length are continued in another entry
+ * with the same beginning, and the IP address of the operations.
  */
 public class PrincipalFormatter implements AuditorDumpFormatter {
+
+    private final int maxEntryLength;
+
+    // Reused for all the entries
+    private final StringBuilder auditMessage = new StringBuilder();
+
+    public PrincipalFormatter() {
+        this(MAX_ENTRY_LENGTH);
+    }
+
+    // visible for test
+    PrincipalFormatter(final int maxEntryLength) {
+        this.maxEntryLength = maxEntryLength;
+    }
+
     @Override
     public List<String> format(final Map<Auditor.AuditKey, UserActivity> dump) {
-        return dump.entrySet().stream()
-                .map(e -> buildAuditMessage(e.getKey(), (UserActivity.UserActivityOperationsGropedByIP) e.getValue()))
-                .collect(Collectors.toList());
+        final List<String> entries = new ArrayList<>(dump.size());
+        format(dump, entries::add);
+        return entries;
+    }
+
+    @Override
+    public void format(final Map<Auditor.AuditKey, UserActivity> dump, final Consumer<String> sink) {
+        for (final Map.Entry<Auditor.AuditKey, UserActivity> entry : dump.entrySet()) {
+            buildAuditMessages(entry.getKey(), (UserActivity.UserActivityOperationsGropedByIP) entry.getValue(), sink);
+        }
     }
 
-    private String buildAuditMessage(final Auditor.AuditKey auditKey,
-                                     final UserActivity.UserActivityOperationsGropedByIP userActivity) {
-        final var auditMessage = new StringBuilder(auditKey.principal.toString())
-                .append(" was active since ")
-                .append(userActivity.activeSince.format(AuditorDumpFormatter.dateFormatter()))
-                .append(".");
-        if (!userActivity.operations.isEmpty()) {
-            auditMessage.append(" ");
-            auditMessage.append(
-                    userActivity
-                            .operations.entrySet().stream()
-                            .map(e -> {
-                                final var operations = new StringBuilder();
-                                operations.append(e.getKey()).append(": ");
-                                operations.append(
-                                        e.getValue().stream()
-                                                .map(this::formatUserOperation)
-                                                .collect(Collectors.joining(", "))
-                                );
-                                return operations.toString();
-                            }).collect(Collectors.joining(", "))
-            );
+    private void buildAuditMessages(final Auditor.AuditKey auditKey,
+                                    final UserActivity.UserActivityOperationsGropedByIP userActivity,
+                                    final Consumer<String> sink) {
+        auditMessage.setLength(0);
+        auditMessage
+                .append(auditKey.principal.getPrincipalType()).append(':').append(auditKey.principal.getName())
+                .append(" was active since ");
+        AuditorDumpFormatter.dateFormatter().formatTo(userActivity.activeSince, auditMessage);
+        auditMessage.append('.');
+        final int prefixLength = auditMessage.length();
+        String separator = " ";
+        for (final Map.Entry<InetAddress, Set<UserOperation>> operations : userActivity.operations().entrySet()) {
+            auditMessage.append(separator).append(operations.getKey()).append(": ");
+            final int ipPrefixLength = auditMessage.length();
+            String operationSeparator = "";
+            for (final UserOperation userOperation : operations.getValue()) {
+                if (auditMessage.length() >= maxEntryLength && auditMessage.length() > ipPrefixLength) {
+                    sink.accept(auditMessage.toString());
+                    auditMessage.setLength(prefixLength);
+                    auditMessage.append(' ').append(operations.getKey()).append(": ");
+                    operationSeparator = "";
+                }
+                auditMessage.append(operationSeparator);
+                appendUserOperation(auditMessage, userOperation);
+                operationSeparator = ", ";
+            }
+            separator = ", ";
         }
-        return auditMessage.toString();
+        appendDroppedOperations(auditMessage, userActivity);
+        sink.accept(auditMessage.toString());
     }
 
 }
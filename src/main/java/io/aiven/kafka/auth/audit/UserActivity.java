@@ -18,26 +18,110 @@ package io.aiven.kafka.auth.audit;
 
 import java.net.InetAddress;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.BiFunction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.UnaryOperator;
 
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.ResourcePattern;
+
+/**
+ * The activity of a user during an aggregation period.
+ *
+ * <p>Operations are added concurrently by all the threads handling requests of the user.
+ * Once the maximum number of distinct operations is reached, further operations are only counted.
+ */
 abstract class UserActivity {
 
     public final ZonedDateTime activeSince;
 
+    private final int maxOperations;
+
+    private final AtomicInteger operationCount = new AtomicInteger();
+
+    private final AtomicLong droppedOperations = new AtomicLong();
+
+    // The window the operations are also reserved in, if any. Set before the activity is shared
+    private AuditWindow window;
+    private int maxWindowOperations;
+
     protected UserActivity() {
         this(ZonedDateTime.now());
     }
 
     protected UserActivity(final ZonedDateTime activeSince) {
+        this(activeSince, Integer.MAX_VALUE);
+    }
+
+    protected UserActivity(final ZonedDateTime activeSince, final int maxOperations) {
         this.activeSince = activeSince;
+        this.maxOperations = maxOperations;
+    }
+
+    abstract void addOperation(UserOperation userOperation);
+
+    /**
+     * Also reserve the operations in {@code window}, which holds at most {@code maxWindowOperations}.
+     * Must be called before the activity is shared with other threads.
+     */
+    final void attach(final AuditWindow window, final int maxWindowOperations) {
+        this.window = window;
+        this.maxWindowOperations = maxWindowOperations;
     }
 
-    abstract void addOperation(final UserOperation userOperation);
+    /**
+     * Reserve room for another distinct operation, in the activity and in its window.
+     *
+     * @return {@code false} if there is none left, the operation is then counted as dropped.
+     */
+    final boolean reserveOperation() {
+        // Concurrent reservations may go over the maximum by the number of threads, which doesn't matter
+        if (operationCount.get() >= maxOperations
+            || window != null && !window.reserveOperation(maxWindowOperations)) {
+            droppedOperations.incrementAndGet();
+            if (window != null) {
+                window.recordDrop();
+            }
+            return false;
+        }
+        operationCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Release the room reserved for an operation which turned out to be added already.
+     */
+    final void releaseOperation() {
+        operationCount.decrementAndGet();
+        if (window != null) {
+            window.releaseOperation();
+        }
+    }
+
+    /**
+     * The number of distinct operations recorded.
+     */
+    int operationCount() {
+        return operationCount.get();
+    }
+
+    /**
+     * The number of operations which weren't recorded because there were too many of them.
+     */
+    long droppedOperations() {
+        return droppedOperations.get();
+    }
 
     @Override
     public boolean equals(final Object o) {
@@ -66,14 +150,27 @@ abstract class UserActivity {
             super(activeSince);
         }
 
-        /**
-         * Ordered in the order the order the operations are added.
-         */
-        public final Set<UserOperation> operations = new LinkedHashSet<>();
+        public UserActivityOperations(final ZonedDateTime activeSince, final int maxOperations) {
+            super(activeSince, maxOperations);
+        }
+
+        private final Set<UserOperation> operations = new ConcurrentLinkedSet<>();
 
         @Override
         void addOperation(final UserOperation userOperation) {
-            operations.add(userOperation);
+            if (operations.contains(userOperation) || !reserveOperation()) {
+                return;
+            }
+            if (!operations.add(userOperation)) {
+                releaseOperation();
+            }
+        }
+
+        /**
+         * Ordered in the order the operations are added.
+         */
+        Set<UserOperation> operations() {
+            return Collections.unmodifiableSet(operations);
         }
 
     }
@@ -88,19 +185,257 @@ abstract class UserActivity {
             super(activeSince);
         }
 
-        public final Map<InetAddress, Set<UserOperation>> operations = new LinkedHashMap<>();
+        public UserActivityOperationsGropedByIP(final ZonedDateTime activeSince, final int maxOperations) {
+            super(activeSince, maxOperations);
+        }
+
+        private final ConcurrentMap<InetAddress, Set<UserOperation>> operationsByIp = new ConcurrentHashMap<>();
+        // The IPs in the order they were first seen
+        private final Set<InetAddress> ips = new ConcurrentLinkedSet<>();
+
+        @Override
+        void addOperation(final UserOperation userOperation) {
+            Set<UserOperation> operations = operationsByIp.get(userOperation.sourceIp);
+            if (operations == null) {
+                operations = operationsByIp.computeIfAbsent(userOperation.sourceIp, ip -> new ConcurrentLinkedSet<>());
+                ips.add(userOperation.sourceIp);
+            }
+            if (operations.contains(userOperation) || !reserveOperation()) {
+                return;
+            }
+            if (!operations.add(userOperation)) {
+                releaseOperation();
+            }
+        }
+
+        /**
+         * The operations by IP, ordered in the order the IPs and the operations are added.
+         */
+        Map<InetAddress, Set<UserOperation>> operations() {
+            final Map<InetAddress, Set<UserOperation>> operations = new LinkedHashMap<>();
+            for (final InetAddress ip : ips) {
+                operations.put(ip, Collections.unmodifiableSet(operationsByIp.get(ip)));
+            }
+            return operations;
+        }
+
+    }
+
+    /**
+     * How many times a user performed each operation on each resource.
+     *
+     * <p>Rather than an object per operation, each resource has a mask with a bit per operation and verdict,
+     * and a counter per bit. The resources are expected to be interned by the auditor, so that the activities
+     * of the users of a resource share the same instance.
+     *
+     * <p>The counters are fixed-point numbers, so that sampled operations can be counted with their weight.
+     */
+    static final class UserActivityOperationCounts extends UserActivity {
+        private static final AclOperation[] OPERATIONS = AclOperation.values();
+        // The fraction bits of the counters
+        private static final int COUNT_SHIFT = 16;
+        private static final long ONE = 1L << COUNT_SHIFT;
+
+        static {
+            if (OPERATIONS.length * 2 > Long.SIZE) {
+                throw new IllegalStateException("Too many ACL operations to encode: " + OPERATIONS.length);
+            }
+        }
+
+        private static final Comparator<ResourcePattern> RESOURCE_ORDER =
+            Comparator.comparing(ResourcePattern::resourceType)
+                .thenComparing(ResourcePattern::patternType)
+                .thenComparing(ResourcePattern::name);
+
+        private final ConcurrentMap<ResourcePattern, OperationCounts> countsByResource = new ConcurrentHashMap<>();
+
+        public UserActivityOperationCounts() {
+            super();
+        }
+
+        public UserActivityOperationCounts(final ZonedDateTime activeSince) {
+            super(activeSince);
+        }
+
+        public UserActivityOperationCounts(final ZonedDateTime activeSince, final int maxOperations) {
+            super(activeSince, maxOperations);
+        }
 
         @Override
         void addOperation(final UserOperation userOperation) {
-            final BiFunction<InetAddress, Set<UserOperation>, Set<UserOperation>> resolveUserOperations = (ip, o) -> {
-                final var ops =
-                        Objects.isNull(o) ? new LinkedHashSet<UserOperation>() : o;
-                ops.add(userOperation);
-                return ops;
-            };
-            operations.compute(userOperation.sourceIp, resolveUserOperations::apply);
+            count(userOperation.resource, userOperation.operation, userOperation.hasAccess);
+        }
+
+        /**
+         * Count one more {@code operation} on {@code resource}.
+         */
+        void count(final ResourcePattern resource, final AclOperation operation, final boolean hasAccess) {
+            count(resource, operation, hasAccess, 1.0);
         }
 
+        /**
+         * Count one more {@code operation} on {@code resource}, which stands for {@code weight} operations
+         * when sampled.
+         */
+        void count(final ResourcePattern resource,
+                   final AclOperation operation,
+                   final boolean hasAccess,
+                   final double weight) {
+            count(resource, operation, hasAccess, weight, UnaryOperator.identity());
+        }
+
+        /**
+         * Count one more {@code operation} on {@code resource}, which is only passed to {@code interner}
+         * when it's added to the activity.
+         */
+        void count(final ResourcePattern resource,
+                   final AclOperation operation,
+                   final boolean hasAccess,
+                   final double weight,
+                   final UnaryOperator<ResourcePattern> interner) {
+            final int code = operationCode(operation, hasAccess);
+            final long increment = weight == 1.0 ? ONE : Math.round(weight * ONE);
+            OperationCounts counts = countsByResource.get(resource);
+            if (counts == null) {
+                // Reserved before adding the resource, so that the operations dropped add nothing
+                if (!reserveOperation()) {
+                    return;
+                }
+                final OperationCounts added = new OperationCounts(code);
+                counts = countsByResource.putIfAbsent(interner.apply(resource), added);
+                if (counts == null) {
+                    added.increment(code, increment, this);
+                    return;
+                }
+                // Another thread added the resource first
+                releaseOperation();
+            }
+            counts.increment(code, increment, this);
+        }
+
+        // visible for test
+        int resourceCount() {
+            return countsByResource.size();
+        }
+
+        /**
+         * The operations and how many times they were performed, by resource, ordered by resource type and name,
+         * then by operation with the denied operations first.
+         */
+        Map<ResourcePattern, List<OperationCount>> operationCounts() {
+            final List<ResourcePattern> resources = new ArrayList<>(countsByResource.keySet());
+            resources.sort(RESOURCE_ORDER);
+            final Map<ResourcePattern, List<OperationCount>> operationCounts = new LinkedHashMap<>();
+            for (final ResourcePattern resource : resources) {
+                operationCounts.put(resource, countsByResource.get(resource).snapshot());
+            }
+            return operationCounts;
+        }
+
+        private static int operationCode(final AclOperation operation, final boolean hasAccess) {
+            return operation.ordinal() << 1 | (hasAccess ? 1 : 0);
+        }
+
+        /**
+         * The counters of the operations on a resource.
+         *
+         * <p>Counting an operation seen before only increments its counter. Operations seen for the first time
+         * are added under the lock of the resource, which is rare.
+         */
+        private static final class OperationCounts {
+            // The codes of the operations counted, the counters are published before their bit
+            private volatile long codes;
+            private volatile Counter counters;
+
+            // The operation is already reserved
+            private OperationCounts(final int code) {
+                this.counters = new Counter(code, null);
+                this.codes = 1L << code;
+            }
+
+            void increment(final int code, final long increment, final UserActivity activity) {
+                Counter counter = counter(code);
+                if (counter == null) {
+                    synchronized (this) {
+                        counter = counter(code);
+                        if (counter == null) {
+                            if (!activity.reserveOperation()) {
+                                return;
+                            }
+                            counter = new Counter(code, counters);
+                            counters = counter;
+                            codes = codes | 1L << code;
+                        }
+                    }
+                }
+                Counter.COUNT.addAndGet(counter, increment);
+                if (increment != ONE && !counter.sampled) {
+                    counter.sampled = true;
+                }
+            }
+
+            private Counter counter(final int code) {
+                if ((codes & 1L << code) == 0) {
+                    return null;
+                }
+                Counter counter = counters;
+                while (counter.code != code) {
+                    counter = counter.next;
+                }
+                return counter;
+            }
+
+            List<OperationCount> snapshot() {
+                final long codes = this.codes;
+                final List<OperationCount> snapshot = new ArrayList<>(Long.bitCount(codes));
+                for (long remaining = codes; remaining != 0; remaining &= remaining - 1) {
+                    final int code = Long.numberOfTrailingZeros(remaining);
+                    final Counter counter = counter(code);
+                    // Rounded to the closest count
+                    final long count = (counter.count + ONE / 2) >>> COUNT_SHIFT;
+                    snapshot.add(new OperationCount(OPERATIONS[code >>> 1], (code & 1) != 0, count, counter.sampled));
+                }
+                return snapshot;
+            }
+        }
+
+        private static final class Counter {
+            private static final AtomicLongFieldUpdater<Counter> COUNT =
+                AtomicLongFieldUpdater.newUpdater(Counter.class, "count");
+
+            private final int code;
+            private final Counter next;
+            private volatile long count;
+            // Whether some of the operations counted were sampled, which makes the count an estimate
+            private volatile boolean sampled;
+
+            private Counter(final int code, final Counter next) {
+                this.code = code;
+                this.next = next;
+            }
+        }
+
+    }
+
+    /**
+     * How many times an operation was performed on a resource.
+     */
+    static final class OperationCount {
+        public final AclOperation operation;
+
+        public final boolean hasAccess;
+
+        public final long count;
+
+        // Whether the count is estimated from sampled operations
+        public final boolean sampled;
+
+        OperationCount(final AclOperation operation, final boolean hasAccess, final long count, final boolean sampled) {
+            this.operation = operation;
+            this.hasAccess = hasAccess;
+            this.count = count;
+            this.sampled = sampled;
+        }
     }
 
 }
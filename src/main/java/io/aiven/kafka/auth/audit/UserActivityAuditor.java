@@ -17,7 +17,7 @@
 package io.aiven.kafka.auth.audit;
 
 import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.kafka.common.acl.AclOperation;
 import org.apache.kafka.common.config.ConfigException;
@@ -45,16 +45,23 @@ public class UserActivityAuditor extends Auditor {
     }
 
     @Override
-    protected void addActivity0(final Session session,
+    protected void addActivity0(final ConcurrentMap<AuditKey, UserActivity> auditStorage,
+                                final Session session,
                                 final AclOperation operation,
                                 final ResourcePattern resource,
                                 final boolean hasAccess) {
         final AuditKey auditKey = new AuditKey(session.getPrincipal(), session.getClientAddress());
 
-        auditStorage.compute(auditKey, (key, userActivity) -> Objects.isNull(userActivity)
-                ? new UserActivity.UserActivityOperations()
-                : userActivity
-        );
+        getOrCreateActivity(auditStorage, auditKey, UserActivity.UserActivityOperations::new);
+    }
+
+    @Override
+    protected long fingerprint(final Session session,
+                               final AclOperation operation,
+                               final ResourcePattern resource,
+                               final boolean hasAccess) {
+        // Only the user and address are recorded
+        return FingerprintSet.fingerprint(session);
     }
 
     @Override
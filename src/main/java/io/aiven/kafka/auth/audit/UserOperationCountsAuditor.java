@@ -0,0 +1,117 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.resource.ResourcePattern;
+
+import org.slf4j.Logger;
+
+/**
+ * An auditor counting how many times each user performed each operation on each resource,
+ * per user and IP.
+ */
+public class UserOperationCountsAuditor extends Auditor {
+
+    // The resources of the current aggregation period, shared by the activities of all the users
+    private final ConcurrentMap<ResourcePattern, ResourcePattern> resources = new ConcurrentHashMap<>();
+
+    public UserOperationCountsAuditor() {
+        super();
+    }
+
+    protected UserOperationCountsAuditor(final Logger logger) {
+        super(logger);
+    }
+
+    @Override
+    public void configure(final Map<String, ?> configs) {
+        super.configure(configs);
+        if (auditorConfig.getAggregationGrouping() == AuditorConfig.AggregationGrouping.USER) {
+            throw new ConfigException("Grouping by " + AuditorConfig.AggregationGrouping.USER.getConfigValue()
+                    + " is not supported for this type of auditor");
+        }
+    }
+
+    @Override
+    protected void addActivity0(final ConcurrentMap<AuditKey, UserActivity> auditStorage,
+                                final Session session,
+                                final AclOperation operation,
+                                final ResourcePattern resource,
+                                final boolean hasAccess) {
+        addActivity0(auditStorage, session, operation, resource, hasAccess, 1.0);
+    }
+
+    @Override
+    protected void addActivity0(final ConcurrentMap<AuditKey, UserActivity> auditStorage,
+                                final Session session,
+                                final AclOperation operation,
+                                final ResourcePattern resource,
+                                final boolean hasAccess,
+                                final double weight) {
+        final AuditKey auditKey = new AuditKey(session.getPrincipal(), session.getClientAddress());
+        final UserActivity userActivity = getOrCreateActivity(auditStorage, auditKey, this::createUserActivity);
+        if (userActivity == null) {
+            return;
+        }
+        ((UserActivity.UserActivityOperationCounts) userActivity).count(
+            resource, operation, hasAccess, weight, this::intern);
+    }
+
+    private UserActivity createUserActivity() {
+        return new UserActivity.UserActivityOperationCounts(
+            ZonedDateTime.now(), auditorConfig.getWindowMaxOperationsPerKey());
+    }
+
+    private ResourcePattern intern(final ResourcePattern resource) {
+        final ResourcePattern interned = resources.get(resource);
+        if (interned != null) {
+            return interned;
+        }
+        final ResourcePattern previous = resources.putIfAbsent(resource, resource);
+        return previous != null ? previous : resource;
+    }
+
+    // visible for test
+    int internedResources() {
+        return resources.size();
+    }
+
+    @Override
+    protected boolean skipsRecordedActivities() {
+        // Every activity counts
+        return false;
+    }
+
+    @Override
+    protected void dump() {
+        super.dump();
+        // The resources still used by the next aggregation period are interned again
+        resources.clear();
+    }
+
+    @Override
+    protected AuditorDumpFormatter createFormatter() {
+        return new PrincipalAndIpCountsFormatter();
+    }
+}
@@ -16,7 +16,8 @@
 
 package io.aiven.kafka.auth.audit;
 
-import java.util.Objects;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.kafka.common.acl.AclOperation;
 import org.apache.kafka.common.resource.ResourcePattern;
@@ -34,20 +35,18 @@ public class UserOperationsActivityAuditor extends Auditor {
     }
 
     @Override
-    protected void addActivity0(final Session session,
+    protected void addActivity0(final ConcurrentMap<AuditKey, UserActivity> auditStorage,
+                                final Session session,
                                 final AclOperation operation,
                                 final ResourcePattern resource,
                                 final boolean hasAccess) {
-        auditStorage.compute(createAuditKey(session), (key, userActivity) -> {
-            final UserActivity ua;
-            if (Objects.isNull(userActivity)) {
-                ua = createUserActivity();
-            } else {
-                ua = userActivity;
-            }
-            ua.addOperation(new UserOperation(session.getClientAddress(), operation, resource, hasAccess));
-            return ua;
-        });
+        final AuditKey auditKey = createAuditKey(session);
+        final UserActivity userActivity = getOrCreateActivity(auditStorage, auditKey, this::createUserActivity);
+        if (userActivity == null) {
+            return;
+        }
+        // The activity is shared by the threads of the user, it takes concurrent operations
+        userActivity.addOperation(new UserOperation(session.getClientAddress(), operation, resource, hasAccess));
     }
 
     private AuditKey createAuditKey(final Session session) {
@@ -64,11 +63,12 @@ public class UserOperationsActivityAuditor extends Auditor {
 
     private UserActivity createUserActivity() {
         final var grouping = auditorConfig.getAggregationGrouping();
+        final int maxOperations = auditorConfig.getWindowMaxOperationsPerKey();
         switch (grouping) {
             case USER:
-                return new UserActivity.UserActivityOperationsGropedByIP();
+                return new UserActivity.UserActivityOperationsGropedByIP(ZonedDateTime.now(), maxOperations);
             case USER_AND_IP:
-                return new UserActivity.UserActivityOperations();
+                return new UserActivity.UserActivityOperations(ZonedDateTime.now(), maxOperations);
             default:
                 throw new IllegalArgumentException("Unknown aggregation grouping type: " + grouping);
         }
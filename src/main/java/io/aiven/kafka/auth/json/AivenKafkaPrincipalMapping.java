@@ -16,13 +16,18 @@
 
 package io.aiven.kafka.auth.json;
 
+import java.util.Objects;
 import java.util.regex.Pattern;
 
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
 
+import io.aiven.kafka.auth.utils.RegexLiterals;
+
 import com.google.gson.annotations.SerializedName;
 
 public class AivenKafkaPrincipalMapping {
+    private static final AivenKafkaPrincipalMapping FOR_UNKNOWN_SSL_PRINCIPAL = new EntryForUnknownSslPrincipal();
+
     @SerializedName("subject_matcher")
     private final Pattern subjectRegex;
     @SerializedName("principal_name")
@@ -39,7 +44,7 @@ public class AivenKafkaPrincipalMapping {
     }
 
     public static AivenKafkaPrincipalMapping forUnknownSslPrincipal() {
-        return new EntryForUnknownSslPrincipal();
+        return FOR_UNKNOWN_SSL_PRINCIPAL;
     }
 
     /**
@@ -49,6 +54,17 @@ public class AivenKafkaPrincipalMapping {
         return subjectRegex.matcher(sslPrincipal).matches();
     }
 
+    public Pattern subjectRegex() {
+        return subjectRegex;
+    }
+
+    /**
+     * The only subject this entry matches, or {@code null} if its regex is not just a literal.
+     */
+    public String literalSubject() {
+        return RegexLiterals.literal(subjectRegex);
+    }
+
     /**
      * Builds {@link KafkaPrincipal} that corresponds to {@code sslPrincipal}.
      *
@@ -64,6 +80,29 @@ public class AivenKafkaPrincipalMapping {
         return new KafkaPrincipal(principalType, principalName);
     }
 
+    /**
+     * Entries are equal when they have the same regex, principal name and type, so they map subjects the same.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final AivenKafkaPrincipalMapping that = (AivenKafkaPrincipalMapping) o;
+        return subjectRegex.pattern().equals(that.subjectRegex.pattern())
+            && subjectRegex.flags() == that.subjectRegex.flags()
+            && Objects.equals(principalName, that.principalName)
+            && Objects.equals(principalType, that.principalType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(subjectRegex.pattern(), principalName, principalType);
+    }
+
     private static class EntryForUnknownSslPrincipal extends AivenKafkaPrincipalMapping {
         public EntryForUnknownSslPrincipal() {
             super("", "", "");
@@ -74,6 +113,11 @@ public class AivenKafkaPrincipalMapping {
             return true;
         }
 
+        @Override
+        public String literalSubject() {
+            return null;
+        }
+
         @Override
         public KafkaPrincipal buildKafkaPrincipal(final String sslPrincipal) {
             return new KafkaPrincipal("Invalid", "UNKNOWN (" + sslPrincipal + ")");
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.utils;
+
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSession;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+
+/**
+ * Fingerprints of certificates, usable as keys of maps.
+ */
+public final class CertificateFingerprints {
+    // MessageDigest isn't thread-safe, so there is one per thread
+    private static final ThreadLocal<MessageDigest> SHA_256 =
+        ThreadLocal.withInitial(CertificateFingerprints::newSha256Digest);
+
+    private CertificateFingerprints() {
+    }
+
+    /**
+     * The SHA-256 digest of the encoded certificate, wrapped in a buffer whose
+     * {@code equals} and {@code hashCode} compare the content.
+     */
+    public static ByteBuffer sha256(final Certificate certificate) throws CertificateEncodingException {
+        return ByteBuffer.wrap(SHA_256.get().digest(certificate.getEncoded()));
+    }
+
+    /**
+     * The SHA-256 fingerprint of the peer certificate of {@code sslSession}, or {@code null} if there is
+     * no certificate or it can't be encoded.
+     */
+    public static ByteBuffer sha256OfPeer(final SSLSession sslSession) throws SSLPeerUnverifiedException {
+        final Certificate[] certificates = sslSession.getPeerCertificates();
+        if (certificates == null || certificates.length == 0) {
+            return null;
+        }
+        try {
+            return sha256(certificates[0]);
+        } catch (final CertificateEncodingException e) {
+            return null;
+        }
+    }
+
+    private static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
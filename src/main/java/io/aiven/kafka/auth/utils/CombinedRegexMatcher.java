@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the first of a list of patterns which matches a whole string, in a single match.
+ *
+ * <p>The patterns are merged into one alternation, where each alternative is wrapped in a capturing
+ * group tagging its index. Alternatives are tried in order, so the tag of the matching group is the
+ * first pattern which matches, as if the patterns were tried one by one.
+ *
+ * <p>Patterns which can't be merged without changing their meaning, because they have flags,
+ * backreferences, named groups, inline flags or an unterminated quote, are matched on their own
+ * at their position in the list.
+ */
+public final class CombinedRegexMatcher {
+    private final List<Segment> segments;
+
+    public CombinedRegexMatcher(final List<Pattern> patterns) {
+        this.segments = new ArrayList<>();
+        final List<Pattern> combinable = new ArrayList<>();
+        int firstCombinable = 0;
+        for (int index = 0; index < patterns.size(); index++) {
+            final Pattern pattern = patterns.get(index);
+            if (isCombinable(pattern)) {
+                combinable.add(pattern);
+                continue;
+            }
+            if (!combinable.isEmpty()) {
+                segments.add(Segment.combined(combinable, firstCombinable));
+                combinable.clear();
+            }
+            segments.add(Segment.single(pattern, index));
+            firstCombinable = index + 1;
+        }
+        if (!combinable.isEmpty()) {
+            segments.add(Segment.combined(combinable, firstCombinable));
+        }
+    }
+
+    /**
+     * The index of the first pattern which matches the whole {@code input}, or {@code -1} if none does.
+     */
+    public int firstMatch(final CharSequence input) {
+        for (final Segment segment : segments) {
+            final int index = segment.firstMatch(input);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    // visible for testing
+    int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Whether the pattern means the same when it's inside a group of a bigger pattern.
+     *
+     * <p>This is conservative: constructs like {@code (?i} inside a character class make
+     * the pattern not combinable although they are harmless.
+     */
+    static boolean isCombinable(final Pattern pattern) {
+        if (pattern.flags() != 0) {
+            return false;
+        }
+        final String regex = pattern.pattern();
+        int index = 0;
+        while (index < regex.length()) {
+            final char c = regex.charAt(index);
+            if (c == '\\') {
+                index = skipEscape(regex, index + 1);
+                if (index < 0) {
+                    return false;
+                }
+            } else if (c == '(' && regex.startsWith("?", index + 1) && !isPlainGroupConstruct(regex, index + 2)) {
+                return false;
+            } else {
+                index++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Skip the escape at {@code index}, just after a backslash.
+     *
+     * @return the index after the escape, or {@code -1} if the escape depends on the rest of the pattern.
+     */
+    private static int skipEscape(final String regex, final int index) {
+        if (index >= regex.length()) {
+            return -1;
+        }
+        final char c = regex.charAt(index);
+        // Backreferences by number or name
+        if (Character.isDigit(c) || c == 'k') {
+            return -1;
+        }
+        if (c == 'Q') {
+            final int quoteEnd = regex.indexOf("\\E", index + 1);
+            return quoteEnd >= 0 ? quoteEnd + 2 : -1;
+        }
+        return index + 1;
+    }
+
+    /**
+     * Whether the construct after {@code (?} is a non-capturing group, a lookaround or an atomic group,
+     * rather than a named group or inline flags.
+     */
+    private static boolean isPlainGroupConstruct(final String regex, final int index) {
+        if (index >= regex.length()) {
+            return false;
+        }
+        final char c = regex.charAt(index);
+        if (c == '<') {
+            return regex.startsWith("=", index + 1) || regex.startsWith("!", index + 1);
+        }
+        return c == ':' || c == '=' || c == '!' || c == '>';
+    }
+
+    /**
+     * Consecutive patterns matched together, with the index of the first one.
+     */
+    private static final class Segment {
+        private final Pattern pattern;
+        private final int firstIndex;
+        // The number of the group tagging each pattern, or null for a single pattern
+        private final int[] tagGroups;
+
+        private Segment(final Pattern pattern, final int firstIndex, final int[] tagGroups) {
+            this.pattern = pattern;
+            this.firstIndex = firstIndex;
+            this.tagGroups = tagGroups;
+        }
+
+        private static Segment single(final Pattern pattern, final int index) {
+            return new Segment(pattern, index, null);
+        }
+
+        private static Segment combined(final List<Pattern> patterns, final int firstIndex) {
+            if (patterns.size() == 1) {
+                return single(patterns.get(0), firstIndex);
+            }
+            final StringBuilder regex = new StringBuilder();
+            final int[] tagGroups = new int[patterns.size()];
+            int group = 1;
+            for (int i = 0; i < patterns.size(); i++) {
+                if (i > 0) {
+                    regex.append('|');
+                }
+                regex.append('(').append(patterns.get(i).pattern()).append(')');
+                tagGroups[i] = group;
+                group += 1 + patterns.get(i).matcher("").groupCount();
+            }
+            return new Segment(Pattern.compile(regex.toString()), firstIndex, tagGroups);
+        }
+
+        private int firstMatch(final CharSequence input) {
+            final Matcher matcher = pattern.matcher(input);
+            if (!matcher.matches()) {
+                return -1;
+            }
+            if (tagGroups == null) {
+                return firstIndex;
+            }
+            for (int i = 0; i < tagGroups.length; i++) {
+                if (matcher.start(tagGroups[i]) >= 0) {
+                    return firstIndex + i;
+                }
+            }
+            return -1;
+        }
+    }
+}
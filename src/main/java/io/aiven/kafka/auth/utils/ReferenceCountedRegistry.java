@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A registry of resources shared between several plugin instances.
+ *
+ * <p>Kafka creates a separate instance of a plugin per listener and per mechanism,
+ * so resources which are expensive to build (parsed files, reload threads, metrics)
+ * are kept here once per key. The resource is created by the first {@link #acquire}
+ * and closed when the last holder {@link #release releases} it, or once the grace period
+ * has passed without the resource being acquired again, if there is one.
+ */
+public final class ReferenceCountedRegistry<K, V extends AutoCloseable> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceCountedRegistry.class);
+
+    // Closes the resources whose grace period has passed, for all the registries
+    private static final ScheduledExecutorService CLOSER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "aiven-shared-resources-closer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<K, Holder<V>> holders = new HashMap<>();
+    private final long gracePeriodMs;
+
+    public ReferenceCountedRegistry() {
+        this(0);
+    }
+
+    /**
+     * @param gracePeriodMs how long a resource is kept once the last holder released it, for holders
+     *     which come and go, such as the plugins Kafka creates per connection.
+     */
+    public ReferenceCountedRegistry(final long gracePeriodMs) {
+        this.gracePeriodMs = gracePeriodMs;
+    }
+
+    public synchronized V acquire(final K key, final Function<? super K, ? extends V> factory) {
+        final Holder<V> holder = holders.computeIfAbsent(key, k -> new Holder<>(factory.apply(k)));
+        holder.references++;
+        if (holder.pendingClose != null) {
+            holder.pendingClose.cancel(false);
+            holder.pendingClose = null;
+        }
+        return holder.resource;
+    }
+
+    public void release(final K key) {
+        final V resource;
+        synchronized (this) {
+            final Holder<V> holder = holders.get(key);
+            if (holder == null || holder.references == 0) {
+                return;
+            }
+            if (--holder.references > 0) {
+                return;
+            }
+            if (gracePeriodMs > 0) {
+                holder.pendingClose = CLOSER.schedule(() -> expire(key, holder), gracePeriodMs, TimeUnit.MILLISECONDS);
+                return;
+            }
+            holders.remove(key);
+            resource = holder.resource;
+        }
+
+        close(key, resource);
+    }
+
+    private void expire(final K key, final Holder<V> holder) {
+        synchronized (this) {
+            // Acquired again in the meantime
+            if (holder.references > 0 || holders.get(key) != holder) {
+                return;
+            }
+            holders.remove(key);
+        }
+
+        close(key, holder.resource);
+    }
+
+    private void close(final K key, final V resource) {
+        try {
+            resource.close();
+        } catch (final Exception e) {
+            LOGGER.warn("Failed to close shared resource for {}", key, e);
+        }
+    }
+
+    private static final class Holder<V> {
+        private final V resource;
+        private int references;
+        // Closing the resource once released by all its holders, null while it's held
+        private ScheduledFuture<?> pendingClose;
+
+        private Holder(final V resource) {
+            this.resource = resource;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.utils;
+
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes regular expressions which can only match a single string.
+ */
+public final class RegexLiterals {
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private RegexLiterals() {
+    }
+
+    /**
+     * The only string that {@code pattern} matches as a whole (as with {@link java.util.regex.Matcher#matches()}),
+     * or {@code null} if it may match other strings too, or if this is not known.
+     *
+     * <p>Recognized are plain characters, characters escaped with a backslash, {@code \Q...\E} quotes,
+     * and a leading {@code ^} and trailing {@code $}, which make no difference for whole matches.
+     * Patterns with flags are never literals.
+     */
+    public static String literal(final Pattern pattern) {
+        if (pattern == null || pattern.flags() != 0) {
+            return null;
+        }
+        final String regex = pattern.pattern();
+        final StringBuilder literal = new StringBuilder(regex.length());
+        int index = 0;
+        while (index < regex.length()) {
+            final char c = regex.charAt(index);
+            if (c == '\\') {
+                index = appendEscaped(regex, index + 1, literal);
+                if (index < 0) {
+                    return null;
+                }
+            } else if (isAnchor(regex, index)) {
+                index++;
+            } else if (METACHARACTERS.indexOf(c) >= 0) {
+                return null;
+            } else {
+                literal.append(c);
+                index++;
+            }
+        }
+        return literal.toString();
+    }
+
+    private static boolean isAnchor(final String regex, final int index) {
+        final char c = regex.charAt(index);
+        if (index == 0 && c == '^') {
+            return true;
+        }
+        return index == regex.length() - 1 && c == '$';
+    }
+
+    /**
+     * Append the escaped character or quote at {@code index}, just after a backslash.
+     *
+     * @return the index after the escape, or {@code -1} if the escape is not a literal.
+     */
+    private static int appendEscaped(final String regex, final int index, final StringBuilder literal) {
+        if (index >= regex.length()) {
+            return -1;
+        }
+        final char c = regex.charAt(index);
+        if (c == 'Q') {
+            final int quoteEnd = regex.indexOf("\\E", index + 1);
+            // An unterminated quote extends to the end of the pattern
+            if (quoteEnd < 0) {
+                literal.append(regex, index + 1, regex.length());
+                return regex.length();
+            }
+            literal.append(regex, index + 1, quoteEnd);
+            return quoteEnd + 2;
+        }
+        // Letters and digits after a backslash are classes, backreferences and other constructs
+        if (Character.isLetterOrDigit(c) || Character.isSurrogate(c)) {
+            return -1;
+        }
+        literal.append(c);
+        return index + 1;
+    }
+}
@@ -21,7 +21,11 @@ import org.apache.kafka.common.utils.Time;
 /**
  * This wrapper for Kafka {@link Time} class is needed to compensate
  * the lack of {@code Timer} in Kafka before 2.1.0.
+ *
+ * @deprecated the principal builder no longer checks the mappings file with a timer,
+ *     it's reloaded in the background.
  */
+@Deprecated
 public class TimeWithTimer {
     private final Time time;
 
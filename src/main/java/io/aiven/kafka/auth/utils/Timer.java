@@ -21,7 +21,10 @@ import org.apache.kafka.common.utils.Time;
 /**
  * This timer class' code is taken from Kafka 2.1.0 to compensate
  * the lack of it in earlier versions.
+ *
+ * @deprecated see {@link TimeWithTimer}.
  */
+@Deprecated
 public class Timer {
     private final Time time;
     private long currentTimeMs;
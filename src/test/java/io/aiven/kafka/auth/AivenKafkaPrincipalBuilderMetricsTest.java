@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.aiven.kafka.auth;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.common.utils.Time;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AivenKafkaPrincipalBuilderMetricsTest {
+
+    private static final MBeanServer MBEAN_SERVER = ManagementFactory.getPlatformMBeanServer();
+    private static final String NAME = "aiven.kafka.auth:type=principal-builder-metrics";
+
+    @TempDir
+    Path tmpDir;
+
+    @Test
+    void recordSerdeCache() throws Exception {
+        final PrincipalSerdeCache serdeCache = new PrincipalSerdeCache(10);
+        final var metrics = new AivenKafkaPrincipalBuilderMetrics(Time.SYSTEM, new MetricConfig(), serdeCache);
+        try {
+            final KafkaPrincipal principal = new KafkaPrincipal(KafkaPrincipal.USER_TYPE, "user");
+            serdeCache.serialize(principal, p -> new byte[] {1});
+            serdeCache.serialize(principal, p -> new byte[] {1});
+            serdeCache.serialize(principal, p -> new byte[] {1});
+            serdeCache.deserialize(new byte[] {1}, b -> principal);
+            serdeCache.deserialize(new byte[] {1}, b -> principal);
+
+            final var metricMBean = new ObjectName(NAME);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "principal-serialize-cache-hit-total"))
+                .isEqualTo(2.0);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "principal-serialize-cache-miss-total"))
+                .isEqualTo(1.0);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "principal-deserialize-cache-hit-total"))
+                .isEqualTo(1.0);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "principal-deserialize-cache-miss-total"))
+                .isEqualTo(1.0);
+        } finally {
+            metrics.close();
+        }
+    }
+
+    @Test
+    void recordMappings() throws Exception {
+        final Path configFilePath = tmpDir.resolve("mapping.json");
+        // The metrics are shared by all the builders of the process, so only their changes are asserted
+        Files.writeString(configFilePath, "[]");
+        final Map<String, String> configs = new HashMap<>();
+        configs.put("aiven.kafka.principal.builder.configuration", configFilePath.toString());
+        configs.put("aiven.kafka.principal.builder.configuration.refresh.timeout", "3600000");
+        final AivenKafkaPrincipalBuilderV2 builder = new AivenKafkaPrincipalBuilderV2();
+        builder.configure(configs);
+        try {
+            final var metricMBean = new ObjectName(NAME);
+            final var cacheMBean = new ObjectName(NAME + ",source=cache");
+            final var scanMBean = new ObjectName(NAME + ",source=scan");
+            final double cacheBefore = (double) MBEAN_SERVER.getAttribute(cacheMBean, "principal-mapping-total");
+            final double scanBefore = (double) MBEAN_SERVER.getAttribute(scanMBean, "principal-mapping-total");
+            final double unknownBefore = (double) MBEAN_SERVER.getAttribute(metricMBean, "unknown-principal-total");
+            final double mappingsBefore = (double) MBEAN_SERVER.getAttribute(metricMBean, "principal-mappings-count");
+            final double reloadsBefore =
+                (double) MBEAN_SERVER.getAttribute(metricMBean, "principal-mappings-reload-total");
+
+            final FileTime originalLastModified = Files.getLastModifiedTime(configFilePath);
+            Files.writeString(configFilePath, AivenKafkaPrincipalBuilderV2Test.MAPPING_JSON);
+            Files.setLastModifiedTime(configFilePath, FileTime.fromMillis(originalLastModified.toMillis() + 1));
+            builder.principalMappers().reload();
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "principal-mappings-count"))
+                .isEqualTo(mappingsBefore + 2);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "principal-mappings-reload-total"))
+                .isEqualTo(reloadsBefore + 1);
+
+            // Two misses and two hits of the mappers cache
+            builder.mapSslPrincipal("CN=test1-basic");
+            builder.mapSslPrincipal("CN=test1-basic");
+            builder.mapSslPrincipal("CN=test1-basic");
+            builder.mapSslPrincipal("CN=unknown");
+
+            assertThat(MBEAN_SERVER.getAttribute(cacheMBean, "principal-mapping-total"))
+                .isEqualTo(cacheBefore + 2);
+            assertThat(MBEAN_SERVER.getAttribute(scanMBean, "principal-mapping-total"))
+                .isEqualTo(scanBefore + 2);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "unknown-principal-total"))
+                .isEqualTo(unknownBefore + 1);
+            final double hits = cacheBefore + 2;
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "mappers-cache-hit-ratio"))
+                .isEqualTo(hits / (hits + scanBefore + 2));
+        } finally {
+            builder.close();
+        }
+    }
+}
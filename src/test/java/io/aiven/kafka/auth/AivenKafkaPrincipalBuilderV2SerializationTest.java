@@ -21,6 +21,7 @@ import java.util.stream.Stream;
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
 
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
@@ -31,7 +32,7 @@ public class AivenKafkaPrincipalBuilderV2SerializationTest {
 
     @BeforeEach
     public void initTests() {
-        builder = new AivenKafkaPrincipalBuilderV2(null);
+        builder = new AivenKafkaPrincipalBuilderV2();
     }
 
     @ParameterizedTest
@@ -42,6 +43,24 @@ public class AivenKafkaPrincipalBuilderV2SerializationTest {
         assertThat(deserializedPrincipal).isEqualTo(principal);
     }
 
+    @ParameterizedTest
+    @MethodSource("principalProvider")
+    public void testCachedSerialization(final KafkaPrincipal principal) {
+        final byte[] serializedPrincipal = builder.serialize(principal);
+        final byte[] serializedAgain = builder.serialize(principal);
+        assertThat(serializedAgain).isEqualTo(serializedPrincipal).isNotSameAs(serializedPrincipal);
+        assertThat(builder.deserialize(serializedAgain)).isEqualTo(principal);
+        assertThat(builder.deserialize(serializedAgain).tokenAuthenticated()).isEqualTo(principal.tokenAuthenticated());
+    }
+
+    @Test
+    public void testTokenAuthenticatedPrincipalsAreNotMixedUp() {
+        final KafkaPrincipal principal = new KafkaPrincipal("type", "name");
+        final KafkaPrincipal tokenPrincipal = new KafkaPrincipal("type", "name", true);
+        assertThat(builder.deserialize(builder.serialize(principal)).tokenAuthenticated()).isFalse();
+        assertThat(builder.deserialize(builder.serialize(tokenPrincipal)).tokenAuthenticated()).isTrue();
+    }
+
     private static Stream<KafkaPrincipal> principalProvider() {
         return Stream.of(
             new KafkaPrincipal("some type", "some name", true),
@@ -16,31 +16,42 @@
 
 package io.aiven.kafka.auth;
 
+import javax.net.ssl.SSLSession;
+import javax.security.auth.x500.X500Principal;
+import javax.security.sasl.SaslServer;
+
 import java.io.IOException;
+import java.net.InetAddress;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
+import java.security.cert.Certificate;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.kafka.common.security.auth.KafkaPrincipal;
+import org.apache.kafka.common.security.auth.SaslAuthenticationContext;
+import org.apache.kafka.common.security.auth.SecurityProtocol;
+import org.apache.kafka.common.security.auth.SslAuthenticationContext;
 
-import io.aiven.kafka.auth.utils.TimeWithTimer;
-import io.aiven.kafka.auth.utils.Timer;
-
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
-import org.mockito.Mock;
-import org.mockito.Mockito;
-import org.mockito.junit.jupiter.MockitoExtension;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
-@ExtendWith(MockitoExtension.class)
 public class AivenKafkaPrincipalBuilderV2Test {
     static final String MAPPING_JSON = "["
         + "{\"subject_matcher\":\"^CN=test1-(.*)\","
@@ -59,33 +70,37 @@ public class AivenKafkaPrincipalBuilderV2Test {
     Path tmpDir;
     Path configFilePath;
     AivenKafkaPrincipalBuilderV2 builder;
-    @Mock
-    TimeWithTimer time;
-    @Mock
-    Timer timer;
 
-    private static AivenKafkaPrincipalBuilderV2 createBuilder(final TimeWithTimer time) {
-        return new AivenKafkaPrincipalBuilderV2(time);
+    private static AivenKafkaPrincipalBuilderV2 createBuilder(final Path configFilePath, final long refreshTimeout) {
+        return createBuilder(configFilePath, refreshTimeout, new HashMap<>());
+    }
+
+    private static AivenKafkaPrincipalBuilderV2 createBuilder(final Path configFilePath,
+                                                              final long refreshTimeout,
+                                                              final Map<String, String> configs) {
+        final AivenKafkaPrincipalBuilderV2 builder = new AivenKafkaPrincipalBuilderV2();
+        configs.put("aiven.kafka.principal.builder.configuration", configFilePath.toString());
+        configs.put("aiven.kafka.principal.builder.configuration.refresh.timeout", Long.toString(refreshTimeout));
+        builder.configure(configs);
+        return builder;
     }
 
     @BeforeEach
     public void initTests() {
         configFilePath = tmpDir.resolve("mapping.json");
+        // The tests reload explicitly rather than waiting for the background reload.
+        builder = createBuilder(configFilePath, Duration.ofHours(1).toMillis());
+    }
 
-        Mockito.doReturn(timer).when(time).timer(anyLong());
-        Mockito.doNothing().when(timer).update();
-        // Always expire the timer, apart from some particular test cases.
-        Mockito.lenient().doReturn(true).when(timer).isExpired();
-
-        builder = createBuilder(time);
-        final Map<String, String> configs = new HashMap<>();
-        configs.put("aiven.kafka.principal.builder.configuration", configFilePath.toString());
-        builder.configure(configs);
+    @AfterEach
+    public void tearDown() {
+        builder.close();
     }
 
     @Test
     public void testAivenKafkaPrincipalBuilder() throws IOException {
         writeConfig(MAPPING_JSON);
+        reload();
 
         // basic mapping ops
         KafkaPrincipal result = builder.mapSslPrincipal("CN=test1-basic");
@@ -103,17 +118,84 @@ public class AivenKafkaPrincipalBuilderV2Test {
         assertEquals("Invalid", result.getPrincipalType());
     }
 
+    @Test
+    public void testPrincipalsAreShared() throws IOException {
+        writeConfig(MAPPING_JSON);
+        reload();
+
+        assertSame(builder.mapSslPrincipal("CN=test1-basic"), builder.mapSslPrincipal("CN=test1-basic"));
+        assertSame(builder.mapSslPrincipal("CN=unknown"), builder.mapSslPrincipal("CN=unknown"));
+    }
+
+    @Test
+    public void testPrincipalsCachedByCertificate() throws Exception {
+        final Path certificateConfigFilePath = tmpDir.resolve("certificate-mapping.json");
+        Files.write(certificateConfigFilePath, MAPPING_JSON_USER_1.getBytes());
+        final AivenKafkaPrincipalBuilderV2 certificateBuilder = createBuilder(certificateConfigFilePath,
+            Duration.ofHours(1).toMillis(),
+            new HashMap<>(Map.of("aiven.kafka.principal.builder.configuration.certificate.cache.capacity", "10")));
+        try {
+            final SSLSession session = sslSession(new byte[] {1, 2, 3}, "CN=test1-basic");
+            final KafkaPrincipal principal = certificateBuilder.build(sslContext(session));
+            assertEquals("user1", principal.getName());
+            assertSame(principal, certificateBuilder.build(sslContext(session)));
+            assertSame(principal, certificateBuilder.build(sslContext(sslSession(new byte[] {1, 2, 3}, "CN=other"))));
+            // The subject is only rendered for the first connection with the certificate
+            verify(session, times(1)).getPeerPrincipal();
+
+            final SSLSession otherSession = sslSession(new byte[] {4, 5, 6}, "CN=unknown");
+            assertEquals("Invalid", certificateBuilder.build(sslContext(otherSession)).getPrincipalType());
+
+            // The cache is emptied when the file is reloaded
+            final FileTime originalLastModified = Files.getLastModifiedTime(certificateConfigFilePath);
+            Files.write(certificateConfigFilePath, MAPPING_JSON_USER_2.getBytes());
+            Files.setLastModifiedTime(certificateConfigFilePath,
+                FileTime.fromMillis(originalLastModified.toMillis() + 1));
+            certificateBuilder.principalMappers().reload();
+            assertEquals("user2", certificateBuilder.build(sslContext(session)).getName());
+            verify(session, times(2)).getPeerPrincipal();
+        } finally {
+            certificateBuilder.close();
+        }
+    }
+
+    @Test
+    public void testSaslPrincipalsAreBuiltPerConnection() {
+        final KafkaPrincipal principal = builder.build(saslContext("sasl-user"));
+        assertEquals(KafkaPrincipal.USER_TYPE, principal.getPrincipalType());
+        assertEquals("sasl-user", principal.getName());
+
+        try (AivenKafkaPrincipalBuilderV2 otherBuilder = new AivenKafkaPrincipalBuilderV2()) {
+            final KafkaPrincipal otherPrincipal = otherBuilder.build(saslContext("sasl-user"));
+            assertEquals(principal, otherPrincipal);
+            assertNotSame(principal, otherPrincipal);
+            assertEquals("other-sasl-user", otherBuilder.build(saslContext("other-sasl-user")).getName());
+        }
+    }
+
+    @Test
+    public void testSaslPrincipalsAreNotMarkedTokenAuthenticatedByOtherConnections() {
+        final KafkaPrincipal tokenPrincipal = builder.build(saslContext("sasl-user"));
+        tokenPrincipal.tokenAuthenticated(true);
+
+        final KafkaPrincipal principal = builder.build(saslContext("sasl-user"));
+        assertFalse(principal.tokenAuthenticated());
+        assertTrue(tokenPrincipal.tokenAuthenticated());
+    }
+
     @Test
     public void testConfigReloadedWhenTimestampAreDifferent() throws IOException {
         writeConfig(MAPPING_JSON_USER_1);
         final FileTime originalLastModified = Files.getLastModifiedTime(configFilePath);
 
+        reload();
         assertEquals("user1", builder.mapSslPrincipal("CN=test1-basic").getName());
 
         writeConfig(MAPPING_JSON_USER_2);
         Files.setLastModifiedTime(configFilePath,
             FileTime.fromMillis(originalLastModified.toMillis() + 1));
 
+        reload();
         assertEquals("user2", builder.mapSslPrincipal("CN=test1-basic").getName());
 
         // Go back in time.
@@ -121,6 +203,7 @@ public class AivenKafkaPrincipalBuilderV2Test {
         Files.setLastModifiedTime(configFilePath,
             FileTime.fromMillis(originalLastModified.toMillis() - 1));
 
+        reload();
         assertEquals("user1", builder.mapSslPrincipal("CN=test1-basic").getName());
     }
 
@@ -129,10 +212,12 @@ public class AivenKafkaPrincipalBuilderV2Test {
         writeConfig(MAPPING_JSON_USER_1);
         final FileTime originalLastModified = Files.getLastModifiedTime(configFilePath);
 
+        reload();
         assertEquals("user1", builder.mapSslPrincipal("CN=test1-basic").getName());
 
         writeConfig(MAPPING_JSON_USER_2);
         Files.setLastModifiedTime(configFilePath, originalLastModified);
+        reload();
 
         // We use the fact that it returns the old principal as an indicator that the
         // new file content hasn't been loaded.
@@ -140,26 +225,99 @@ public class AivenKafkaPrincipalBuilderV2Test {
     }
 
     @Test
-    public void testConfigReloadTimeout() throws IOException {
-        Mockito.doReturn(true).when(timer).isExpired();
-
+    public void testMappingsKeptWhenTheFileFailsToBeRead() throws IOException {
         writeConfig(MAPPING_JSON_USER_1);
         final FileTime originalLastModified = Files.getLastModifiedTime(configFilePath);
+        reload();
         assertEquals("user1", builder.mapSslPrincipal("CN=test1-basic").getName());
 
-        // We updated the config, but the timer hasn't expired yet.
-        Mockito.doReturn(false).when(timer).isExpired();
-        writeConfig(MAPPING_JSON_USER_2);
-        Files.setLastModifiedTime(configFilePath,
-            FileTime.fromMillis(originalLastModified.toMillis() + 1));
+        // Caught half written
+        writeConfig(MAPPING_JSON_USER_2.substring(0, 20));
+        final FileTime halfWrittenLastModified = FileTime.fromMillis(originalLastModified.toMillis() + 1);
+        Files.setLastModifiedTime(configFilePath, halfWrittenLastModified);
+        reload();
         assertEquals("user1", builder.mapSslPrincipal("CN=test1-basic").getName());
 
-        // Finally timer expires.
-        Mockito.doReturn(true).when(timer).isExpired();
-        assertEquals("user2", builder.mapSslPrincipal("CN=test1-basic").getName());
+        // Read again shortly, rather than after the refresh timeout, even if it looks unmodified
+        writeConfig(MAPPING_JSON_USER_2);
+        Files.setLastModifiedTime(configFilePath, halfWrittenLastModified);
+        await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(10))
+            .until(() -> "user2".equals(builder.mapSslPrincipal("CN=test1-basic").getName()));
+    }
+
+    @Test
+    public void testConfigReloadedInBackground() throws IOException {
+        final Path backgroundConfigFilePath = tmpDir.resolve("background-mapping.json");
+        Files.write(backgroundConfigFilePath, MAPPING_JSON_USER_1.getBytes());
+        final AivenKafkaPrincipalBuilderV2 backgroundBuilder = createBuilder(backgroundConfigFilePath, 10);
+        try {
+            // The file is loaded when the builder is configured.
+            assertEquals("user1", backgroundBuilder.mapSslPrincipal("CN=test1-basic").getName());
+
+            final FileTime originalLastModified = Files.getLastModifiedTime(backgroundConfigFilePath);
+            Files.write(backgroundConfigFilePath, MAPPING_JSON_USER_2.getBytes());
+            Files.setLastModifiedTime(backgroundConfigFilePath,
+                FileTime.fromMillis(originalLastModified.toMillis() + 1));
+
+            await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(10))
+                .until(() -> "user2".equals(backgroundBuilder.mapSslPrincipal("CN=test1-basic").getName()));
+        } finally {
+            backgroundBuilder.close();
+        }
+    }
+
+    @Test
+    public void testBuildersShareMappers() {
+        final AivenKafkaPrincipalBuilderV2 otherBuilder = createBuilder(configFilePath, 10);
+        try {
+            assertSame(builder.principalMappers(), otherBuilder.principalMappers());
+        } finally {
+            otherBuilder.close();
+        }
+    }
+
+    @Test
+    public void testMappersKeptAfterTheLastBuilderIsClosed() {
+        final Path otherConfigFilePath = tmpDir.resolve("other-mapping.json");
+        final long refreshTimeout = Duration.ofHours(1).toMillis();
+        final AivenKafkaPrincipalBuilderV2 otherBuilder = createBuilder(otherConfigFilePath, refreshTimeout);
+        final PrincipalMappers principalMappers = otherBuilder.principalMappers();
+        otherBuilder.close();
+
+        // The next connection gets the same mappers, within the grace period
+        final AivenKafkaPrincipalBuilderV2 nextBuilder = createBuilder(otherConfigFilePath, refreshTimeout);
+        try {
+            assertSame(principalMappers, nextBuilder.principalMappers());
+        } finally {
+            nextBuilder.close();
+        }
+    }
+
+    private static SSLSession sslSession(final byte[] encodedCertificate, final String subject) throws Exception {
+        final Certificate certificate = mock(Certificate.class);
+        when(certificate.getEncoded()).thenReturn(encodedCertificate);
+        final SSLSession session = mock(SSLSession.class);
+        when(session.getPeerCertificates()).thenReturn(new Certificate[] {certificate});
+        when(session.getPeerPrincipal()).thenReturn(new X500Principal(subject));
+        return session;
+    }
+
+    private static SaslAuthenticationContext saslContext(final String authorizationId) {
+        final SaslServer saslServer = mock(SaslServer.class);
+        when(saslServer.getAuthorizationID()).thenReturn(authorizationId);
+        return new SaslAuthenticationContext(
+            saslServer, SecurityProtocol.SASL_SSL, InetAddress.getLoopbackAddress(), "SASL_SSL");
+    }
+
+    private static SslAuthenticationContext sslContext(final SSLSession session) {
+        return new SslAuthenticationContext(session, InetAddress.getLoopbackAddress(), "SSL");
     }
 
     private void writeConfig(final String config) throws IOException {
         Files.write(configFilePath, config.getBytes());
     }
+
+    private void reload() {
+        builder.principalMappers().reload();
+    }
 }
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -58,4 +59,15 @@ public class AivenKafkaPrincipalMappingTest {
         assertEquals(KafkaPrincipal.USER_TYPE, result.getPrincipalType());
         assertEquals("CN=p_green_s", result.getName());
     }
+
+    @Test
+    public void testEquality() {
+        final AivenKafkaPrincipalMapping entry = new AivenKafkaPrincipalMapping("^CN=(.*)$", "name", "type");
+
+        assertEquals(entry, new AivenKafkaPrincipalMapping("^CN=(.*)$", "name", "type"));
+        assertEquals(entry.hashCode(), new AivenKafkaPrincipalMapping("^CN=(.*)$", "name", "type").hashCode());
+        assertNotEquals(entry, new AivenKafkaPrincipalMapping("^CN=(.+)$", "name", "type"));
+        assertNotEquals(entry, new AivenKafkaPrincipalMapping("^CN=(.*)$", null, "type"));
+        assertNotEquals(entry, new AivenKafkaPrincipalMapping("^CN=(.*)$", "name", null));
+    }
 }
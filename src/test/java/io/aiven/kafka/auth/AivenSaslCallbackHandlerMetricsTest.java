@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import io.aiven.kafka.auth.AivenSaslCallbackHandlerMetrics.Outcome;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.DOUBLE;
+
+class AivenSaslCallbackHandlerMetricsTest {
+
+    private static final MBeanServer MBEAN_SERVER = ManagementFactory.getPlatformMBeanServer();
+    private static final String NAME = "aiven.kafka.auth:type=sasl-metrics";
+
+    @TempDir
+    Path tmpDir;
+
+    @Test
+    void recordAuthentications() throws Exception {
+        final var metrics = AivenSaslCallbackHandlerMetrics.acquire();
+        try {
+            metrics.recordAuthentication("TEST-MECHANISM", Outcome.SUCCESS, metrics.nanoseconds());
+            metrics.recordAuthentication("TEST-MECHANISM", Outcome.SUCCESS, metrics.nanoseconds());
+            metrics.recordAuthentication("TEST-MECHANISM", Outcome.FAILURE, metrics.nanoseconds());
+
+            final var successMBean = new ObjectName(NAME + ",mechanism=TEST-MECHANISM,outcome=success");
+            assertThat(MBEAN_SERVER.getAttribute(successMBean, "sasl-authentication-total"))
+                .isEqualTo(2.0);
+            assertThat(MBEAN_SERVER.getAttribute(successMBean, "sasl-authentication-rate"))
+                .asInstanceOf(DOUBLE)
+                .isGreaterThan(0.0);
+            assertThat(MBEAN_SERVER.getAttribute(successMBean, "sasl-authentication-time-ms-avg"))
+                .asInstanceOf(DOUBLE)
+                .isGreaterThanOrEqualTo(0.0);
+            assertThat(MBEAN_SERVER.getAttribute(successMBean, "sasl-authentication-time-ms-p99"))
+                .asInstanceOf(DOUBLE)
+                .isGreaterThanOrEqualTo(0.0);
+
+            final var failureMBean = new ObjectName(NAME + ",mechanism=TEST-MECHANISM,outcome=failure");
+            assertThat(MBEAN_SERVER.getAttribute(failureMBean, "sasl-authentication-total"))
+                .isEqualTo(1.0);
+        } finally {
+            metrics.release();
+        }
+    }
+
+    @Test
+    void recordCredentialCache() throws Exception {
+        final var metrics = AivenSaslCallbackHandlerMetrics.acquire();
+        try {
+            final var metricMBean = new ObjectName(NAME);
+            final double hits = (double) MBEAN_SERVER.getAttribute(metricMBean, "credential-cache-hit-total");
+            final double misses = (double) MBEAN_SERVER.getAttribute(metricMBean, "credential-cache-miss-total");
+
+            metrics.recordCredentialCacheMiss();
+            metrics.recordCredentialCacheHit();
+            metrics.recordCredentialCacheHit();
+
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "credential-cache-hit-total"))
+                .isEqualTo(hits + 2);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "credential-cache-miss-total"))
+                .isEqualTo(misses + 1);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "credential-cache-hit-rate"))
+                .asInstanceOf(DOUBLE)
+                .isGreaterThan(0.0);
+        } finally {
+            metrics.release();
+        }
+    }
+
+    @Test
+    void recordUsersReload() throws Exception {
+        final Path configFile = tmpDir.resolve("sasl_passwd.json");
+        Files.write(configFile, ("[{\"username\":\"user1\",\"password\":\"password1\"},"
+            + "{\"username\":\"user2\",\"password\":\"password2\"}]").getBytes());
+
+        final var metrics = AivenSaslCallbackHandlerMetrics.acquire();
+        final var metricMBean = new ObjectName(NAME);
+        final double reloads = (double) MBEAN_SERVER.getAttribute(metricMBean, "users-reload-total");
+
+        final UserStore store = UserStore.acquire(configFile.toString(), UserStore.Options.DEFAULT);
+        try {
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "users-reload-total"))
+                .isEqualTo(reloads + 1);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "users-count"))
+                .isEqualTo(2.0);
+            assertThat(MBEAN_SERVER.getAttribute(metricMBean, "users-reload-time-ms-max"))
+                .asInstanceOf(DOUBLE)
+                .isGreaterThanOrEqualTo(0.0);
+        } finally {
+            store.release();
+            metrics.release();
+        }
+    }
+}
@@ -141,4 +141,93 @@ public class AivenSaslPlainServerCallbackHandlerTest {
         assertTrue(handler.authenticate("alice", "mypassword".toCharArray()));
         assertFalse(handler.authenticate("alice", "wrongpassword".toCharArray()));
     }
+
+    @Test
+    public void testAivenSaslPlainServerCallbackHandlerWithMultipleScramCredentials() throws Exception {
+        final ScramFormatter sha256Formatter = new ScramFormatter(ScramMechanism.SCRAM_SHA_256);
+        final ScramCredential sha256Credential = sha256Formatter.generateCredential("mypassword", 4096);
+        final ScramFormatter sha512Formatter = new ScramFormatter(ScramMechanism.SCRAM_SHA_512);
+        final ScramCredential sha512Credential = sha512Formatter.generateCredential("otherpassword", 8192);
+
+        // The SHA-512 credential comes first but is more expensive, so only "mypassword" must be accepted.
+        final String usersJsonWithScram = "[{\"username\":\"alice\",\"scram_credentials\":{"
+            + "\"SCRAM-SHA-512\":" + credentialJson(sha512Credential) + ","
+            + "\"SCRAM-SHA-256\":" + credentialJson(sha256Credential) + "}}]";
+
+        final Path tempPath = Files.createTempDirectory("test-aiven-kafka-sasl-plain-handler-scram-multiple");
+        final Path configFilePath = Paths.get(tempPath.toString(), "sasl_passwd_scram_multiple.json");
+
+        Files.write(configFilePath, usersJsonWithScram.getBytes());
+
+        final Map<String, String> entryConfigs = new HashMap<String, String>();
+        entryConfigs.put("users.config", configFilePath.toString());
+        final AppConfigurationEntry entry = new AppConfigurationEntry(PlainLoginModule.class.getName(),
+            AppConfigurationEntry.LoginModuleControlFlag.REQUIRED, entryConfigs);
+        final List<AppConfigurationEntry> jaasConfigs = new ArrayList<AppConfigurationEntry>();
+        jaasConfigs.add(entry);
+
+        final AivenSaslPlainServerCallbackHandler handler = new AivenSaslPlainServerCallbackHandler();
+        handler.configure(null, "PLAIN", jaasConfigs);
+
+        assertTrue(handler.authenticate("alice", "mypassword".toCharArray()));
+        assertFalse(handler.authenticate("alice", "otherpassword".toCharArray()));
+        handler.close();
+    }
+
+    @Test
+    public void testAivenSaslPlainServerCallbackHandlerBacksOffAfterFailures() throws Exception {
+        final Path tempPath = Files.createTempDirectory("test-aiven-kafka-sasl-plain-handler-backoff");
+        final Path configFilePath = Paths.get(tempPath.toString(), "sasl_passwd.json");
+
+        Files.write(configFilePath, USERS_JSON.getBytes());
+
+        final Map<String, String> entryConfigs = new HashMap<String, String>();
+        entryConfigs.put("users.config", configFilePath.toString());
+        entryConfigs.put("users.failure.backoff.initial.ms", "60000");
+        final AppConfigurationEntry entry = new AppConfigurationEntry(PlainLoginModule.class.getName(),
+            AppConfigurationEntry.LoginModuleControlFlag.REQUIRED, entryConfigs);
+        final List<AppConfigurationEntry> jaasConfigs = new ArrayList<AppConfigurationEntry>();
+        jaasConfigs.add(entry);
+
+        final AivenSaslPlainServerCallbackHandler handler = new AivenSaslPlainServerCallbackHandler();
+        handler.configure(null, "PLAIN", jaasConfigs);
+
+        assertFalse(handler.authenticate("testuser", "invalidpassword".toCharArray()));
+        // Even the right password is rejected until the backoff has passed
+        assertFalse(handler.authenticate("testuser", "testpassword".toCharArray()));
+        handler.close();
+    }
+
+    @Test
+    public void testAivenSaslPlainServerCallbackHandlerDoesNotBackOffByDefault() throws Exception {
+        final Path tempPath = Files.createTempDirectory("test-aiven-kafka-sasl-plain-handler-no-backoff");
+        final Path configFilePath = Paths.get(tempPath.toString(), "sasl_passwd.json");
+
+        Files.write(configFilePath, USERS_JSON.getBytes());
+
+        final Map<String, String> entryConfigs = new HashMap<String, String>();
+        entryConfigs.put("users.config", configFilePath.toString());
+        final AppConfigurationEntry entry = new AppConfigurationEntry(PlainLoginModule.class.getName(),
+            AppConfigurationEntry.LoginModuleControlFlag.REQUIRED, entryConfigs);
+        final List<AppConfigurationEntry> jaasConfigs = new ArrayList<AppConfigurationEntry>();
+        jaasConfigs.add(entry);
+
+        final AivenSaslPlainServerCallbackHandler handler = new AivenSaslPlainServerCallbackHandler();
+        handler.configure(null, "PLAIN", jaasConfigs);
+
+        // Wrong passwords don't lock the user out
+        for (int i = 0; i < 10; i++) {
+            assertFalse(handler.authenticate("testuser", ("invalidpassword" + i).toCharArray()));
+        }
+        assertTrue(handler.authenticate("testuser", "testpassword".toCharArray()));
+        handler.close();
+    }
+
+    private static String credentialJson(final ScramCredential credential) {
+        final java.util.Base64.Encoder encoder = java.util.Base64.getEncoder();
+        return "{\"salt\":\"" + encoder.encodeToString(credential.salt()) + "\","
+            + "\"stored_key\":\"" + encoder.encodeToString(credential.storedKey()) + "\","
+            + "\"server_key\":\"" + encoder.encodeToString(credential.serverKey()) + "\","
+            + "\"iterations\":" + credential.iterations() + "}";
+    }
 }
@@ -16,9 +16,12 @@
 
 package io.aiven.kafka.auth;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.security.auth.login.AppConfigurationEntry;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -34,12 +37,16 @@ import org.apache.kafka.common.security.scram.internals.ScramMechanism;
 
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AivenSaslScramServerCallbackHandlerTest {
     static final String USERS_JSON = "[{\"username\":\"testuser\",\"password\":\"testpassword\"}]";
+    private static final MBeanServer MBEAN_SERVER = ManagementFactory.getPlatformMBeanServer();
 
     @Test
     public void testAivenSaslScramServerCallbackHandlerWithPlaintextPassword() throws IOException {
@@ -126,4 +133,59 @@ public class AivenSaslScramServerCallbackHandlerTest {
         assertTrue(java.util.Arrays.equals(creds.storedKey(), credential.storedKey()));
         assertTrue(java.util.Arrays.equals(creds.serverKey(), credential.serverKey()));
     }
+
+    @Test
+    public void testAivenSaslScramServerCallbackHandlerCachesCredentials() throws IOException {
+        final Path tempPath = Files.createTempDirectory("test-aiven-kafka-sasl-scram-handler-cache");
+        final Path configFilePath = Paths.get(tempPath.toString(), "sasl_passwd.json");
+
+        Files.write(configFilePath, USERS_JSON.getBytes());
+
+        final Map<String, String> entryConfigs = new HashMap<String, String>();
+        entryConfigs.put("users.config", configFilePath.toString());
+        final AppConfigurationEntry entry = new AppConfigurationEntry(ScramLoginModule.class.getName(),
+            AppConfigurationEntry.LoginModuleControlFlag.REQUIRED, entryConfigs);
+        final List<AppConfigurationEntry> jaasConfigs = new ArrayList<AppConfigurationEntry>();
+        jaasConfigs.add(entry);
+
+        final AivenSaslScramServerCallbackHandler handler = new AivenSaslScramServerCallbackHandler();
+        handler.configure(null, "SCRAM-SHA-256", jaasConfigs);
+
+        // The credential derived from the plaintext password is reused until the file changes
+        final ScramCredential creds = handler.getScramCreds("testuser");
+        assertNotNull(creds);
+        assertSame(creds, handler.getScramCreds("testuser"));
+        handler.close();
+    }
+
+    @Test
+    public void testCredentialLookupsAreNotRecordedAsSuccessfulAuthentications() throws Exception {
+        final Path tempPath = Files.createTempDirectory("test-aiven-kafka-sasl-scram-handler");
+        final Path configFilePath = Paths.get(tempPath.toString(), "sasl_passwd.json");
+        Files.write(configFilePath, USERS_JSON.getBytes());
+        final AppConfigurationEntry entry = new AppConfigurationEntry(ScramLoginModule.class.getName(),
+            AppConfigurationEntry.LoginModuleControlFlag.REQUIRED, Map.of("users.config", configFilePath.toString()));
+
+        final AivenSaslScramServerCallbackHandler handler = new AivenSaslScramServerCallbackHandler();
+        handler.configure(null, "SCRAM-SHA-512", List.of(entry));
+        try {
+            final ObjectName found = new ObjectName(
+                "aiven.kafka.auth:type=sasl-metrics,mechanism=SCRAM-SHA-512,outcome=credential-found");
+            final double foundBefore = authenticationTotal(found);
+
+            // Whether the password matches is only known to Kafka
+            assertNotNull(handler.getScramCreds("testuser"));
+            assertEquals(foundBefore + 1, authenticationTotal(found));
+            assertFalse(MBEAN_SERVER.isRegistered(
+                new ObjectName("aiven.kafka.auth:type=sasl-metrics,mechanism=SCRAM-SHA-512,outcome=success")));
+        } finally {
+            handler.close();
+        }
+    }
+
+    private static double authenticationTotal(final ObjectName name) throws Exception {
+        return MBEAN_SERVER.isRegistered(name)
+            ? (double) MBEAN_SERVER.getAttribute(name, "sasl-authentication-total")
+            : 0;
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AuthenticationFailuresTest {
+    private static final long INITIAL_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 1000;
+
+    @Test
+    public void backoffGrowsExponentially() {
+        final AuthenticationFailures failures = new AuthenticationFailures();
+        assertThat(failures.isBackingOff(0, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS)).isFalse();
+
+        failures.recordFailure(1000);
+        assertThat(failures.isBackingOff(1099, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS)).isTrue();
+        assertThat(failures.isBackingOff(1100, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS)).isFalse();
+
+        failures.recordFailure(2000);
+        assertThat(failures.isBackingOff(2199, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS)).isTrue();
+        assertThat(failures.isBackingOff(2200, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS)).isFalse();
+
+        for (int i = 0; i < 100; i++) {
+            failures.recordFailure(3000);
+        }
+        assertThat(failures.isBackingOff(3999, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS)).isTrue();
+        assertThat(failures.isBackingOff(4000, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS)).isFalse();
+    }
+
+    @Test
+    public void successResetsBackoff() {
+        final AuthenticationFailures failures = new AuthenticationFailures();
+        failures.recordFailure(1000);
+        failures.recordSuccess();
+        assertThat(failures.isBackingOff(1000, INITIAL_BACKOFF_MS, MAX_BACKOFF_MS)).isFalse();
+    }
+
+    @Test
+    public void disabledBackoff() {
+        final AuthenticationFailures failures = new AuthenticationFailures();
+        failures.recordFailure(1000);
+        assertThat(failures.isBackingOff(1000, 0, MAX_BACKOFF_MS)).isFalse();
+    }
+
+    @Test
+    public void remembersLastFailedPasswords() {
+        final AuthenticationFailures failures = new AuthenticationFailures();
+        final long first = AuthenticationFailures.passwordFingerprint("password0");
+        assertThat(failures.isKnownFailedPassword(first)).isFalse();
+
+        failures.recordFailure(1000, first);
+        assertThat(failures.isKnownFailedPassword(first)).isTrue();
+        assertThat(failures.isKnownFailedPassword(AuthenticationFailures.passwordFingerprint("password1"))).isFalse();
+
+        for (int i = 1; i <= AuthenticationFailures.REMEMBERED_FAILED_PASSWORDS; i++) {
+            failures.recordFailure(1000, AuthenticationFailures.passwordFingerprint("password" + i));
+        }
+        assertThat(failures.isKnownFailedPassword(first)).isFalse();
+        assertThat(failures.isKnownFailedPassword(AuthenticationFailures.passwordFingerprint("password1"))).isTrue();
+    }
+
+    @Test
+    public void fingerprintIsStable() {
+        assertThat(AuthenticationFailures.passwordFingerprint("password"))
+            .isEqualTo(AuthenticationFailures.passwordFingerprint("password"))
+            .isNotEqualTo(AuthenticationFailures.passwordFingerprint("Password"));
+    }
+
+    @Test
+    public void fingerprintIsTheSameOnAllThreads() throws Exception {
+        final long fingerprint = AuthenticationFailures.passwordFingerprint("password");
+        final CompletableFuture<Long> otherThreadFingerprint =
+            CompletableFuture.supplyAsync(() -> AuthenticationFailures.passwordFingerprint("password"));
+        assertThat(otherThreadFingerprint.get()).isEqualTo(fingerprint);
+    }
+}
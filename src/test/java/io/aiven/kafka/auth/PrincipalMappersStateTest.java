@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import io.aiven.kafka.auth.json.AivenKafkaPrincipalMapping;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class PrincipalMappersStateTest {
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void literalMappingsAreFound(final boolean compiledMatcher) {
+        final AivenKafkaPrincipalMapping first = new AivenKafkaPrincipalMapping("^CN=first$", "first", null);
+        final AivenKafkaPrincipalMapping second = new AivenKafkaPrincipalMapping("CN=second\\.host", "second", null);
+        final PrincipalMappersState state = build(List.of(first, second), compiledMatcher);
+
+        assertThat(state.findMapping("CN=first")).isSameAs(first);
+        assertThat(state.findMapping("CN=second.host")).isSameAs(second);
+        assertThat(state.findMapping("CN=secondXhost")).isNull();
+        assertThat(state.findMapping("CN=third")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void firstMatchWins(final boolean compiledMatcher) {
+        final AivenKafkaPrincipalMapping regexBefore =
+            new AivenKafkaPrincipalMapping("^CN=a.*$", "regexBefore", null);
+        final AivenKafkaPrincipalMapping literalA = new AivenKafkaPrincipalMapping("^CN=a$", "literalA", null);
+        final AivenKafkaPrincipalMapping literalB = new AivenKafkaPrincipalMapping("^CN=b$", "literalB", null);
+        final AivenKafkaPrincipalMapping regexAfter = new AivenKafkaPrincipalMapping("^CN=.*$", "regexAfter", null);
+        final AivenKafkaPrincipalMapping duplicateB = new AivenKafkaPrincipalMapping("CN=b", "duplicateB", null);
+        final PrincipalMappersState state =
+            build(List.of(regexBefore, literalA, literalB, regexAfter, duplicateB), compiledMatcher);
+
+        // A regex before the literal entry wins
+        assertThat(state.findMapping("CN=a")).isSameAs(regexBefore);
+        // The literal entry wins over a regex after it, and over a later literal entry
+        assertThat(state.findMapping("CN=b")).isSameAs(literalB);
+        // Subjects without a literal entry go through the regexes
+        assertThat(state.findMapping("CN=c")).isSameAs(regexAfter);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void regexMappingsMatchInOrder(final boolean compiledMatcher) {
+        final AivenKafkaPrincipalMapping groups =
+            new AivenKafkaPrincipalMapping("^CN=(a)(b)?-(.*)$", "groups", null);
+        final AivenKafkaPrincipalMapping backreference = new AivenKafkaPrincipalMapping("CN=(.)\\1.*", "backref", null);
+        final AivenKafkaPrincipalMapping caseInsensitive = new AivenKafkaPrincipalMapping("(?i)cn=x.*", "flags", null);
+        final AivenKafkaPrincipalMapping any = new AivenKafkaPrincipalMapping("CN=.*", "any", null);
+        final PrincipalMappersState state =
+            build(List.of(groups, backreference, caseInsensitive, any), compiledMatcher);
+
+        assertThat(state.findMapping("CN=ab-1")).isSameAs(groups);
+        assertThat(state.findMapping("CN=a-1")).isSameAs(groups);
+        assertThat(state.findMapping("CN=aa")).isSameAs(backreference);
+        assertThat(state.findMapping("CN=XY")).isSameAs(caseInsensitive);
+        assertThat(state.findMapping("CN=yy")).isSameAs(backreference);
+        assertThat(state.findMapping("CN=yz")).isSameAs(any);
+        assertThat(state.findMapping("OU=yz")).isNull();
+    }
+
+    @Test
+    public void cacheIsKeptForUnchangedMappings() {
+        final PrincipalMappersState previous = build(
+            List.of(mapping("CN=a.*", "a"), mapping("CN=b.*", "b"), mapping("CN=c.*", "c")), false);
+        cache(previous, "CN=a1", "CN=b1", "CN=c1", "CN=d1");
+
+        // The same mappings, with one appended and one changed
+        final PrincipalMappersState next = build(
+            List.of(mapping("CN=a.*", "a"), mapping("CN=b.*", "b"), mapping("CN=c.*", "newC"),
+                mapping("CN=d.*", "d")), false);
+        next.copyCache(previous);
+
+        final Map<String, PrincipalMappersState.MappedPrincipal> cache = next.getMappersCache().asMap();
+        assertThat(cache).hasSize(4);
+        assertThat(cache.get("CN=a1").mapping()).isSameAs(next.getPrincipalMappers().get(0));
+        assertThat(cache.get("CN=b1").mapping()).isSameAs(next.getPrincipalMappers().get(1));
+        // The principals of unchanged mappings are the same instances
+        assertThat(cache.get("CN=a1").principal())
+            .isSameAs(previous.getMappersCache().getIfPresent("CN=a1").principal());
+        assertThat(cache.get("CN=c1").mapping()).isSameAs(next.getPrincipalMappers().get(2));
+        assertThat(cache.get("CN=d1").mapping()).isSameAs(next.getPrincipalMappers().get(3));
+    }
+
+    @Test
+    public void cacheIsRecheckedForEarlierNewMappings() {
+        final PrincipalMappersState previous = build(List.of(mapping("CN=b.*", "b")), false);
+        cache(previous, "CN=b1", "CN=a1");
+
+        final PrincipalMappersState next = build(List.of(mapping("CN=.*1", "any1"), mapping("CN=b.*", "b")), false);
+        next.copyCache(previous);
+
+        final Map<String, PrincipalMappersState.MappedPrincipal> cache = next.getMappersCache().asMap();
+        assertThat(cache.get("CN=b1").mapping()).isSameAs(next.getPrincipalMappers().get(0));
+        assertThat(cache.get("CN=a1").mapping()).isSameAs(next.getPrincipalMappers().get(0));
+    }
+
+    @Test
+    public void unknownSubjectsStayUnknown() {
+        final PrincipalMappersState previous = build(List.of(mapping("CN=b.*", "b")), false);
+        cache(previous, "CN=a1");
+
+        final PrincipalMappersState next = build(List.of(mapping("CN=b.*", "b")), false);
+        next.copyCache(previous);
+
+        assertThat(next.getMappersCache().getIfPresent("CN=a1").principal().getPrincipalType())
+            .isEqualTo("Invalid");
+    }
+
+    @Test
+    public void cacheEvictionsAreCounted() {
+        final PrincipalMappersState state =
+            PrincipalMappersState.build(List.of(mapping("^CN=a.*$", "a")), FileTime.fromMillis(0), 1);
+        cache(state, "CN=a1", "CN=a2", "CN=a3");
+        state.getMappersCache().cleanUp();
+
+        assertThat(state.getMappersCache().estimatedSize()).isEqualTo(1);
+        assertThat(state.getMappersCacheEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    public void cachedSubjectsExpireAfterAccess() {
+        final PrincipalMappersState state = PrincipalMappersState.build(
+            List.of(mapping("^CN=a.*$", "a")), FileTime.fromMillis(0), 100, false, 0, 50);
+        cache(state, "CN=a1");
+        assertThat(state.getMappersCache().getIfPresent("CN=a1")).isNotNull();
+
+        // Looking it up is an access as well, so poll less often than it expires
+        await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(100))
+            .until(() -> state.getMappersCache().getIfPresent("CN=a1") == null);
+    }
+
+    private static AivenKafkaPrincipalMapping mapping(final String subjectRegex, final String principalName) {
+        return new AivenKafkaPrincipalMapping(subjectRegex, principalName, null);
+    }
+
+    private static void cache(final PrincipalMappersState state, final String... subjects) {
+        for (final String subject : subjects) {
+            state.getMappersCache().put(subject, state.resolve(subject));
+        }
+    }
+
+    private static PrincipalMappersState build(final List<AivenKafkaPrincipalMapping> mappings,
+                                               final boolean compiledMatcher) {
+        return PrincipalMappersState.build(mappings, FileTime.fromMillis(0), 100, compiledMatcher);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.security.scram.internals.ScramMechanism;
+
+import io.aiven.kafka.auth.json.UsernamePassword;
+import io.aiven.kafka.auth.json.reader.UsernamePasswordJsonReader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ScramCredentialGeneratorTest {
+    private static final List<ScramMechanism> MECHANISMS =
+        List.of(ScramMechanism.SCRAM_SHA_256, ScramMechanism.SCRAM_SHA_512);
+
+    @TempDir
+    Path tmpDir;
+
+    @Test
+    public void derivesCredentialsInOrder() throws Exception {
+        final StringBuilder input = new StringBuilder("[");
+        for (int i = 0; i < 50; i++) {
+            input.append(i > 0 ? "," : "")
+                .append("{\"username\":\"user").append(i).append("\",\"password\":\"password").append(i).append("\"}");
+        }
+        input.append(",{\"username\":\"nopassword\"}]");
+
+        final ScramCredentialGenerator generator = new ScramCredentialGenerator(MECHANISMS, 4096, 4);
+        final StringWriter output = new StringWriter();
+        final ScramCredentialGenerator.Summary summary =
+            generator.generate(new StringReader(input.toString()), output, Collections.emptyMap());
+        assertThat(summary.derived()).isEqualTo(50);
+        assertThat(summary.copied()).isEqualTo(1);
+
+        final List<UsernamePassword> users = read(output.toString());
+        assertThat(users).hasSize(51);
+        for (int i = 0; i < 50; i++) {
+            final UsernamePassword user = users.get(i);
+            assertThat(user.name()).isEqualTo("user" + i);
+            assertThat(user.password()).isNull();
+            assertThat(user.scramCredentials()).containsOnlyKeys("SCRAM-SHA-256", "SCRAM-SHA-512");
+            assertThat(StoredUser.of(user).verifyPlainPassword("password" + i)).isTrue();
+            assertThat(StoredUser.of(user).verifyPlainPassword("password" + (i + 1))).isFalse();
+        }
+        assertThat(users.get(50).name()).isEqualTo("nopassword");
+        assertThat(users.get(50).scramCredentials()).isNull();
+    }
+
+    @Test
+    public void reportsTheIndexOfMalformedUsers() {
+        final ScramCredentialGenerator generator = new ScramCredentialGenerator(MECHANISMS, 4096, 2);
+        final String alice = "{\"username\":\"alice\",\"password\":\"alicepassword\"}";
+
+        assertThatThrownBy(() -> generator.generate(
+            new StringReader("[" + alice + ",null]"), new StringWriter(), Collections.emptyMap()))
+            .isInstanceOf(IOException.class)
+            .hasMessage("Malformed user at index 1: no username");
+        assertThatThrownBy(() -> generator.generate(
+            new StringReader("[" + alice + "," + alice + ",42]"), new StringWriter(), Collections.emptyMap()))
+            .isInstanceOf(IOException.class)
+            .hasMessageStartingWith("Malformed user at index 2: ");
+    }
+
+    @Test
+    public void parsesOptions() {
+        final ScramCredentialGenerator.Options options = ScramCredentialGenerator.Options.parse(
+            new String[] {"--iterations", "8192", "--mechanisms", "SCRAM-SHA-512", "-", "credentials.json"});
+        assertThat(options.iterations()).isEqualTo(8192);
+        assertThat(options.mechanisms()).containsExactly(ScramMechanism.SCRAM_SHA_512);
+        assertThat(options.files()).containsExactly("-", "credentials.json");
+    }
+
+    @Test
+    public void rejectsInvalidOptions() {
+        assertThatThrownBy(() -> ScramCredentialGenerator.Options.parse(
+            new String[] {"--iteration", "8192", "users.json"}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unknown option --iteration");
+        assertThatThrownBy(() -> ScramCredentialGenerator.Options.parse(new String[] {"users.json", "--threads"}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Missing value for --threads");
+        assertThatThrownBy(() -> ScramCredentialGenerator.Options.parse(new String[] {"--threads", "0"}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid value 0 for --threads: must be positive");
+        assertThatThrownBy(() -> ScramCredentialGenerator.Options.parse(new String[] {"in", "out", "extra"}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unexpected argument extra");
+    }
+
+    @Test
+    public void rejectsIterationsKafkaRejects() {
+        assertThatThrownBy(() -> ScramCredentialGenerator.Options.parse(new String[] {"--iterations", "1000"}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid value 1000 for --iterations: must be between 4096 and 16384 for SCRAM-SHA-256");
+        // Checked against the mechanisms given after the iterations too
+        assertThatThrownBy(() -> ScramCredentialGenerator.Options.parse(
+            new String[] {"--iterations", "20000", "--mechanisms", "SCRAM-SHA-512"}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid value 20000 for --iterations: must be between 4096 and 16384 for SCRAM-SHA-512");
+        assertThat(ScramCredentialGenerator.Options.parse(new String[] {"--iterations", "16384"}).iterations())
+            .isEqualTo(16384);
+    }
+
+    @Test
+    public void keepsCredentialsOfUnchangedUsers() throws Exception {
+        final ScramCredentialGenerator generator = new ScramCredentialGenerator(MECHANISMS, 4096, 2);
+        final String input = "[{\"username\":\"alice\",\"password\":\"alicepassword\"},"
+            + "{\"username\":\"bob\",\"password\":\"bobpassword\"}]";
+        final Map<String, UsernamePassword> existing = byName(generate(generator, input, Collections.emptyMap()));
+
+        final String changedInput = "[{\"username\":\"alice\",\"password\":\"alicepassword\"},"
+            + "{\"username\":\"bob\",\"password\":\"newbobpassword\"}]";
+        final StringWriter output = new StringWriter();
+        final ScramCredentialGenerator.Summary summary =
+            generator.generate(new StringReader(changedInput), output, existing);
+        assertThat(summary.kept()).isEqualTo(1);
+        assertThat(summary.derived()).isEqualTo(1);
+
+        final Map<String, UsernamePassword> updated = byName(read(output.toString()));
+        assertThat(credential(updated.get("alice")).salt())
+            .isEqualTo(credential(existing.get("alice")).salt());
+        assertThat(credential(updated.get("bob")).salt())
+            .isNotEqualTo(credential(existing.get("bob")).salt());
+        assertThat(StoredUser.of(updated.get("bob")).verifyPlainPassword("newbobpassword")).isTrue();
+
+        // Changing the iterations derives everything again
+        final ScramCredentialGenerator moreIterations = new ScramCredentialGenerator(MECHANISMS, 8192, 2);
+        final ScramCredentialGenerator.Summary moreIterationsSummary =
+            moreIterations.generate(new StringReader(changedInput), new StringWriter(), updated);
+        assertThat(moreIterationsSummary.kept()).isZero();
+        assertThat(moreIterationsSummary.derived()).isEqualTo(2);
+    }
+
+    private List<UsernamePassword> generate(final ScramCredentialGenerator generator,
+                                            final String input,
+                                            final Map<String, UsernamePassword> existing) throws Exception {
+        final StringWriter output = new StringWriter();
+        generator.generate(new StringReader(input), output, existing);
+        return read(output.toString());
+    }
+
+    private List<UsernamePassword> read(final String json) throws IOException {
+        final Path file = Files.createTempFile(tmpDir, "users", ".json");
+        Files.writeString(file, json);
+        return new UsernamePasswordJsonReader(file).read();
+    }
+
+    private static Map<String, UsernamePassword> byName(final List<UsernamePassword> users) {
+        final Map<String, UsernamePassword> result = new HashMap<>();
+        for (final UsernamePassword user : users) {
+            result.put(user.name(), user);
+        }
+        return result;
+    }
+
+    private static UsernamePassword.ScramCredentialEntry credential(final UsernamePassword user) {
+        return user.scramCredentials().get("SCRAM-SHA-256");
+    }
+}
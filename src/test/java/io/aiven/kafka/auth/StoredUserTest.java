@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.kafka.common.security.scram.internals.ScramMechanism;
+
+import io.aiven.kafka.auth.json.UsernamePassword;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StoredUserTest {
+    private static final String VALID = Base64.getEncoder().encodeToString(new byte[] {1, 2, 3});
+
+    @Test
+    public void selectsCheapestCredentialRegardlessOfOrder() {
+        final Map<String, UsernamePassword.ScramCredentialEntry> sha512First = new LinkedHashMap<>();
+        sha512First.put("SCRAM-SHA-512", credential(8192));
+        sha512First.put("SCRAM-SHA-256", credential(4096));
+        assertThat(StoredUser.of(user(sha512First)).plainVerificationMechanism())
+            .isEqualTo(ScramMechanism.SCRAM_SHA_256);
+
+        final Map<String, UsernamePassword.ScramCredentialEntry> sha256First = new LinkedHashMap<>();
+        sha256First.put("SCRAM-SHA-256", credential(4096));
+        sha256First.put("SCRAM-SHA-512", credential(8192));
+        assertThat(StoredUser.of(user(sha256First)).plainVerificationMechanism())
+            .isEqualTo(ScramMechanism.SCRAM_SHA_256);
+    }
+
+    @Test
+    public void takesIterationsIntoAccount() {
+        final Map<String, UsernamePassword.ScramCredentialEntry> credentials = new LinkedHashMap<>();
+        credentials.put("SCRAM-SHA-256", credential(100_000));
+        credentials.put("SCRAM-SHA-512", credential(4096));
+        final StoredUser user = StoredUser.of(user(credentials));
+        assertThat(user.plainVerificationMechanism()).isEqualTo(ScramMechanism.SCRAM_SHA_512);
+        assertThat(user.plainVerificationCredential().iterations()).isEqualTo(4096);
+    }
+
+    @Test
+    public void skipsUnusableCredentials() {
+        final Map<String, UsernamePassword.ScramCredentialEntry> credentials = new LinkedHashMap<>();
+        credentials.put("SCRAM-SHA-1", credential(1));
+        credentials.put("SCRAM-SHA-256", new UsernamePassword.ScramCredentialEntry("%%%", VALID, VALID, 1));
+        credentials.put("SCRAM-SHA-512", credential(8192));
+        final StoredUser user = StoredUser.of(user(credentials));
+        assertThat(user.hasScramCredentials()).isTrue();
+        assertThat(user.plainVerificationMechanism()).isEqualTo(ScramMechanism.SCRAM_SHA_512);
+    }
+
+    @Test
+    public void noUsableCredentials() {
+        final Map<String, UsernamePassword.ScramCredentialEntry> credentials = new LinkedHashMap<>();
+        credentials.put("SCRAM-SHA-1", credential(1));
+        final StoredUser user = StoredUser.of(user(credentials));
+        assertThat(user.hasScramCredentials()).isTrue();
+        assertThat(user.plainVerificationMechanism()).isNull();
+        assertThat(user.plainVerificationCredential()).isNull();
+
+        final StoredUser plaintextUser = StoredUser.of(new UsernamePassword("user", "password"));
+        assertThat(plaintextUser.hasScramCredentials()).isFalse();
+        assertThat(plaintextUser.plainVerificationMechanism()).isNull();
+    }
+
+    private static UsernamePassword user(final Map<String, UsernamePassword.ScramCredentialEntry> credentials) {
+        return new UsernamePassword("user", null, credentials);
+    }
+
+    private static UsernamePassword.ScramCredentialEntry credential(final int iterations) {
+        return new UsernamePassword.ScramCredentialEntry(VALID, VALID, VALID, iterations);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth;
+
+import javax.security.auth.login.AppConfigurationEntry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.security.plain.PlainLoginModule;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class UserStoreTest {
+    private static final UserStore.Options NO_REFRESH = new UserStore.Options(Long.MAX_VALUE / 2,
+        UserStore.DEFAULT_FAILURE_BACKOFF_INITIAL_MS, UserStore.DEFAULT_FAILURE_BACKOFF_MAX_MS,
+        UserStore.DEFAULT_FAILURE_LOG_INTERVAL_MS);
+
+    @TempDir
+    Path tmpDir;
+
+    @Test
+    public void sharedBetweenHandlersOfTheSameFile() throws IOException {
+        final Path configFile = writeUsers("[{\"username\":\"testuser\",\"password\":\"testpassword\"}]");
+
+        final UserStore first = UserStore.acquire(configFile.toString(), NO_REFRESH);
+        final UserStore second = UserStore.acquire(
+            tmpDir.resolve(".").resolve(configFile.getFileName()).toString(), NO_REFRESH);
+        try {
+            assertThat(second).isSameAs(first);
+            assertThat(first.size()).isEqualTo(1);
+            assertThat(first.find("testuser").usernamePassword().password()).isEqualTo("testpassword");
+            assertThat(first.find("unknown")).isNull();
+        } finally {
+            first.release();
+            second.release();
+        }
+    }
+
+    @Test
+    public void recreatedAfterLastRelease() throws IOException {
+        final Path configFile = writeUsers("[{\"username\":\"testuser\",\"password\":\"testpassword\"}]");
+
+        final UserStore first = UserStore.acquire(configFile.toString(), NO_REFRESH);
+        final UserStore second = UserStore.acquire(configFile.toString(), NO_REFRESH);
+        first.release();
+        final UserStore third = UserStore.acquire(configFile.toString(), NO_REFRESH);
+        assertThat(third).isSameAs(first);
+        second.release();
+        third.release();
+
+        final UserStore fourth = UserStore.acquire(configFile.toString(), NO_REFRESH);
+        try {
+            assertThat(fourth).isNotSameAs(first);
+        } finally {
+            fourth.release();
+        }
+    }
+
+    @Test
+    public void firstEntryWinsForDuplicateUsers() throws IOException {
+        final Path configFile = writeUsers("[{\"username\":\"testuser\",\"password\":\"first\"},"
+            + "{\"username\":\"testuser\",\"password\":\"second\"}]");
+
+        final UserStore store = UserStore.acquire(configFile.toString(), NO_REFRESH);
+        try {
+            assertThat(store.find("testuser").usernamePassword().password()).isEqualTo("first");
+        } finally {
+            store.release();
+        }
+    }
+
+    @Test
+    public void reloadsModifiedFile() throws IOException {
+        final Path configFile = writeUsers("[{\"username\":\"testuser\",\"password\":\"testpassword\"}]");
+        Files.setLastModifiedTime(configFile, FileTime.fromMillis(1000));
+
+        final UserStore store = UserStore.acquire(configFile.toString(), NO_REFRESH);
+        try {
+            Files.write(configFile, "[{\"username\":\"otheruser\",\"password\":\"otherpassword\"}]".getBytes());
+            Files.setLastModifiedTime(configFile, FileTime.fromMillis(1000));
+            store.reload();
+            assertThat(store.find("testuser")).isNotNull();
+
+            Files.setLastModifiedTime(configFile, FileTime.fromMillis(2000));
+            store.reload();
+            assertThat(store.find("testuser")).isNull();
+            assertThat(store.find("otheruser").usernamePassword().password()).isEqualTo("otherpassword");
+
+            Files.write(configFile, "not json".getBytes());
+            Files.setLastModifiedTime(configFile, FileTime.fromMillis(3000));
+            store.reload();
+            assertThat(store.size()).isZero();
+        } finally {
+            store.release();
+        }
+    }
+
+    @Test
+    public void rejectsInvalidRefreshInterval() {
+        assertThatThrownBy(() -> options(UserStore.REFRESH_INTERVAL_OPTION, "0"))
+            .isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value 0 for configuration users.config.refresh.interval.ms: Must be at least 1");
+        assertThatThrownBy(() -> options(UserStore.REFRESH_INTERVAL_OPTION, "-1000"))
+            .isInstanceOf(ConfigException.class)
+            .hasMessageContaining(UserStore.REFRESH_INTERVAL_OPTION);
+        assertThatThrownBy(() -> options(UserStore.REFRESH_INTERVAL_OPTION, "1s"))
+            .isInstanceOf(ConfigException.class)
+            .hasMessage("Invalid value 1s for configuration users.config.refresh.interval.ms: Must be a number");
+    }
+
+    @Test
+    public void rejectsInvalidFailureOptions() {
+        assertThatThrownBy(() -> options(UserStore.FAILURE_LOG_INTERVAL_OPTION, "0"))
+            .isInstanceOf(ConfigException.class)
+            .hasMessageContaining(UserStore.FAILURE_LOG_INTERVAL_OPTION);
+        assertThatThrownBy(() -> options(UserStore.FAILURE_BACKOFF_INITIAL_OPTION, "-1"))
+            .isInstanceOf(ConfigException.class)
+            .hasMessageContaining(UserStore.FAILURE_BACKOFF_INITIAL_OPTION);
+        assertThatCode(() -> options(UserStore.FAILURE_BACKOFF_INITIAL_OPTION, "0")).doesNotThrowAnyException();
+    }
+
+    private static UserStore.Options options(final String option, final String value) {
+        final AppConfigurationEntry entry = new AppConfigurationEntry(PlainLoginModule.class.getName(),
+            AppConfigurationEntry.LoginModuleControlFlag.REQUIRED, Map.of(option, value));
+        return UserStore.Options.fromJaasConfig(List.of(entry), PlainLoginModule.class.getName());
+    }
+
+    private Path writeUsers(final String json) throws IOException {
+        final Path configFile = tmpDir.resolve("sasl_passwd.json");
+        Files.write(configFile, json.getBytes());
+        return configFile;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditEventRingBufferTest {
+
+    private final Session session =
+        new Session(new KafkaPrincipal("User", "user"), InetAddress.getLoopbackAddress());
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new AuditEventRingBuffer(1).capacity()).isEqualTo(1);
+        assertThat(new AuditEventRingBuffer(3).capacity()).isEqualTo(4);
+        assertThat(new AuditEventRingBuffer(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void drainsInOrderAndRejectsWhenFull() {
+        final AuditEventRingBuffer buffer = new AuditEventRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(session, AclOperation.READ, topic("topic-" + i), i % 2 == 0, 1.0)).isTrue();
+        }
+        assertThat(buffer.offer(session, AclOperation.READ, topic("topic-4"), true, 1.0)).isFalse();
+
+        final List<String> drained = new ArrayList<>();
+        assertThat(buffer.drain((s, operation, resource, hasAccess, weight) -> drained.add(resource.name()), 3))
+            .isEqualTo(3);
+        assertThat(drained).containsExactly("topic-0", "topic-1", "topic-2");
+
+        // The drained slots can be reused
+        assertThat(buffer.offer(session, AclOperation.READ, topic("topic-4"), true, 1.0)).isTrue();
+        assertThat(buffer.drain((s, operation, resource, hasAccess, weight) -> drained.add(resource.name()), 10))
+            .isEqualTo(2);
+        assertThat(drained).endsWith("topic-3", "topic-4");
+        assertThat(buffer.drain((s, operation, resource, hasAccess, weight) -> drained.add(resource.name()), 10))
+            .isZero();
+    }
+
+    @Test
+    void drainedEventsKeepTheirWeight() {
+        final AuditEventRingBuffer buffer = new AuditEventRingBuffer(4);
+        buffer.offer(session, AclOperation.READ, topic("topic-0"), true, 4.0);
+        buffer.offer(session, AclOperation.READ, topic("topic-1"), false, 1.0);
+
+        final List<Double> weights = new ArrayList<>();
+        buffer.drain((s, operation, resource, hasAccess, weight) -> weights.add(weight), 10);
+        assertThat(weights).containsExactly(4.0, 1.0);
+    }
+
+    @Test
+    void concurrentProducersLoseNothing() throws Exception {
+        final AuditEventRingBuffer buffer = new AuditEventRingBuffer(64);
+        final int producerCount = 4;
+        final int eventsPerProducer = 10_000;
+        final List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    final ResourcePattern resource = topic(producer + "-" + i);
+                    while (!buffer.offer(session, AclOperation.WRITE, resource, true, 1.0)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+
+        final Set<String> drained = new HashSet<>();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AuditEventRingBuffer.Handler handler = (s, operation, resource, hasAccess, weight) -> {
+            if (!drained.add(resource.name())) {
+                duplicates.incrementAndGet();
+            }
+        };
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            buffer.drain(handler, 16);
+        }
+        while (buffer.drain(handler, 16) > 0) {
+            // Drain the rest
+        }
+
+        assertThat(duplicates).hasValue(0);
+        assertThat(drained).hasSize(producerCount * eventsPerProducer);
+    }
+
+    private static ResourcePattern topic(final String name) {
+        return new ResourcePattern(ResourceType.TOPIC, name, PatternType.LITERAL);
+    }
+}
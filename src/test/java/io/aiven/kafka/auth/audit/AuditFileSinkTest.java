@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.kafka.common.utils.Time;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuditFileSinkTest {
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+
+    private final Time time = mock(Time.class);
+
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        path = directory.resolve("audit.log");
+        when(time.milliseconds()).thenAnswer(invocation -> now);
+    }
+
+    @Test
+    void writesEntriesAsLines() throws IOException {
+        Files.writeString(path, "previous\n");
+        final AuditFileSink sink = new AuditFileSink(path, 1024, Long.MAX_VALUE, Long.MAX_VALUE, false, time);
+
+        sink.accept("first");
+        sink.accept("second");
+        assertThat(Files.readAllLines(path)).containsExactly("previous");
+        sink.flush();
+        assertThat(Files.readAllLines(path)).containsExactly("previous", "first", "second");
+
+        sink.accept("third");
+        sink.close();
+        assertThat(Files.readAllLines(path)).containsExactly("previous", "first", "second", "third");
+    }
+
+    @Test
+    void writesEntriesLongerThanTheBuffer() throws IOException {
+        final String entry = "é".repeat(1000) + "a".repeat(1000);
+        final AuditFileSink sink = new AuditFileSink(path, 16, Long.MAX_VALUE, Long.MAX_VALUE, false, time);
+
+        sink.accept(entry);
+        sink.accept(entry);
+        sink.flush();
+
+        assertThat(Files.readAllLines(path, StandardCharsets.UTF_8)).containsExactly(entry, entry);
+    }
+
+    @Test
+    void keepsWritingAfterTheFileFailed() throws IOException {
+        final AuditFileSink sink = new AuditFileSink(path, 1024, Long.MAX_VALUE, Long.MAX_VALUE, false, time);
+
+        sink.accept("first");
+        // Interrupted, the write fails and closes the file
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(sink::flush).isInstanceOf(ClosedByInterruptException.class);
+        } finally {
+            Thread.interrupted();
+        }
+
+        sink.accept("second");
+        sink.flush();
+        sink.accept("third");
+        sink.close();
+        assertThat(Files.readAllLines(path)).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void rotatesBySize() throws IOException {
+        final AuditFileSink sink = new AuditFileSink(path, 1024, 10, Long.MAX_VALUE, false, time);
+
+        sink.accept("first");
+        sink.accept("second");
+        // Rotated before the third entry, as the first two take more than 10 bytes
+        sink.accept("third");
+        sink.flush();
+        sink.accept("fourth");
+        sink.close();
+
+        assertThat(Files.readAllLines(path)).containsExactly("third", "fourth");
+        final List<Path> rotated = rotatedFiles();
+        assertThat(rotated).hasSize(1);
+        assertThat(Files.readAllLines(rotated.get(0))).containsExactly("first", "second");
+    }
+
+    @Test
+    void rotatesByTime() throws IOException {
+        final AuditFileSink sink = new AuditFileSink(path, 1024, Long.MAX_VALUE, 1000, false, time);
+
+        sink.accept("first");
+        sink.flush();
+        now = 999;
+        sink.accept("second");
+        sink.flush();
+        now = 1000;
+        sink.flush();
+        sink.accept("third");
+        sink.close();
+
+        assertThat(Files.readAllLines(path)).containsExactly("third");
+        final List<Path> rotated = rotatedFiles();
+        assertThat(rotated).hasSize(1);
+        assertThat(rotated.get(0).getFileName().toString()).isEqualTo("audit.log.19700101-000001-000");
+        assertThat(Files.readAllLines(rotated.get(0))).containsExactly("first", "second");
+    }
+
+    @Test
+    void gzipsRotatedFiles() throws IOException {
+        final AuditFileSink sink = new AuditFileSink(path, 1024, 1, Long.MAX_VALUE, true, time);
+
+        sink.accept("first");
+        sink.flush();
+        sink.accept("second");
+        sink.flush();
+        sink.close();
+
+        final List<Path> rotated = rotatedFiles();
+        // Both rotated in the same millisecond
+        assertThat(rotated).extracting(file -> file.getFileName().toString())
+            .containsExactlyInAnyOrder("audit.log.19700101-000000-000.gz", "audit.log.19700101-000000-000-1.gz");
+        assertThat(gunzip(directory.resolve("audit.log.19700101-000000-000.gz"))).isEqualTo("first\n");
+        assertThat(gunzip(directory.resolve("audit.log.19700101-000000-000-1.gz"))).isEqualTo("second\n");
+    }
+
+    private List<Path> rotatedFiles() throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> !file.equals(path)).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static String gunzip(final Path file) throws IOException {
+        try (final InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
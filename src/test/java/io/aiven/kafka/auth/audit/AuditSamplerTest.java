@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditSamplerTest {
+
+    @Test
+    void probabilisticSamplerKeepsItsProbability() {
+        final AuditSampler none = AuditSampler.probabilistic(0.0);
+        final AuditSampler all = AuditSampler.probabilistic(1.0);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(none.sample());
+            assertTrue(all.sample());
+        }
+        none.adjust();
+        assertEquals(0.0, none.probability());
+
+        assertEquals(4.0, AuditSampler.probabilistic(0.25).weight());
+    }
+
+    @Test
+    void probabilisticSamplerSamplesAboutItsProbability() {
+        final AuditSampler sampler = AuditSampler.probabilistic(0.25);
+        int sampled = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (sampler.sample()) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 20_000 && sampled < 30_000, "Sampled " + sampled);
+    }
+
+    @Test
+    void rateLimitedSamplerAdjustsToTheAllowedActivities() {
+        final AuditSampler sampler = AuditSampler.rateLimited(100);
+        // Everything is recorded until the first adjustment
+        for (int i = 0; i < 400; i++) {
+            assertTrue(sampler.sample());
+        }
+        assertEquals(1.0, sampler.weight());
+
+        sampler.adjust();
+        assertEquals(0.25, sampler.probability());
+        assertEquals(4.0, sampler.weight());
+
+        for (int i = 0; i < 50; i++) {
+            sampler.sample();
+        }
+        sampler.adjust();
+        assertEquals(1.0, sampler.probability());
+    }
+
+    @Test
+    void sampleWeightIsDecidedWithTheSample() {
+        final AuditSampler sampler = AuditSampler.rateLimited(100);
+        for (int i = 0; i < 400; i++) {
+            assertEquals(1.0, sampler.sampleWeight());
+        }
+        sampler.adjust();
+
+        int sampled = 0;
+        for (int i = 0; i < 1000; i++) {
+            final double weight = sampler.sampleWeight();
+            assertTrue(weight == 0 || weight == 4.0, "Weight " + weight);
+            if (weight != 0) {
+                sampled++;
+            }
+        }
+        assertTrue(sampled > 0, "Sampled " + sampled);
+        assertEquals(0.0, AuditSampler.probabilistic(0.0).sampleWeight());
+    }
+}
@@ -24,7 +24,9 @@ import org.apache.kafka.common.config.ConfigException;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AuditorConfigTest {
 
@@ -37,6 +39,21 @@ class AuditorConfigTest {
         assertEquals(123, config.getAggregationPeriodInSeconds());
         assertEquals(AuditorConfig.AggregationGrouping.USER_AND_IP,
                 config.getAggregationGrouping());
+        assertFalse(config.isAsyncEnabled());
+        assertEquals(65536, config.getAsyncBufferSize());
+        assertEquals(AuditorConfig.OverflowPolicy.DROP, config.getAsyncOverflowPolicy());
+        assertEquals(AuditorConfig.DumpFormat.TEXT, config.getDumpFormat());
+        assertEquals(AuditorConfig.SamplingMode.NONE, config.getSamplingMode());
+        assertEquals(0.1, config.getSamplingProbability());
+        assertEquals(1000, config.getSamplingRateLimit());
+        assertEquals(100_000, config.getWindowMaxKeys());
+        assertEquals(AuditorConfig.Sink.LOGGER, config.getSink());
+        assertEquals(1024 * 1024, config.getFileBufferSize());
+        assertEquals(100L * 1024 * 1024, config.getFileRotationBytes());
+        assertEquals(24L * 60 * 60 * 1000, config.getFileRotationMs());
+        assertFalse(config.isFileRotationGzip());
+        assertEquals(10_000, config.getWindowMaxOperationsPerKey());
+        assertEquals(1_000_000, config.getWindowMaxOperations());
     }
 
     @Test
@@ -44,11 +61,43 @@ class AuditorConfigTest {
         final Map<String, String> properties = new HashMap<>();
         properties.put("aiven.acl.authorizer.auditor.aggregation.period", "123");
         properties.put("aiven.acl.authorizer.auditor.aggregation.grouping", "user");
+        properties.put("aiven.acl.authorizer.auditor.sink", "file");
+        properties.put("aiven.acl.authorizer.auditor.file.path", "/var/log/kafka/audit.log");
+        properties.put("aiven.acl.authorizer.auditor.file.buffer.size", "4096");
+        properties.put("aiven.acl.authorizer.auditor.file.rotation.bytes", "1000000");
+        properties.put("aiven.acl.authorizer.auditor.file.rotation.ms", "60000");
+        properties.put("aiven.acl.authorizer.auditor.file.rotation.gzip", "true");
+        properties.put("aiven.acl.authorizer.auditor.async.enabled", "true");
+        properties.put("aiven.acl.authorizer.auditor.async.buffer.size", "1000");
+        properties.put("aiven.acl.authorizer.auditor.async.overflow.policy", "block");
+        properties.put("aiven.acl.authorizer.auditor.format", "json");
+        properties.put("aiven.acl.authorizer.auditor.sampling.mode", "rate_limited");
+        properties.put("aiven.acl.authorizer.auditor.sampling.probability", "0.5");
+        properties.put("aiven.acl.authorizer.auditor.sampling.rate.limit", "200");
+        properties.put("aiven.acl.authorizer.auditor.window.max.keys", "50");
+        properties.put("aiven.acl.authorizer.auditor.window.max.operations.per.key", "5");
+        properties.put("aiven.acl.authorizer.auditor.window.max.operations", "500");
 
         final AuditorConfig config = new AuditorConfig(properties);
         assertEquals(123, config.getAggregationPeriodInSeconds());
         assertEquals(AuditorConfig.AggregationGrouping.USER,
                 config.getAggregationGrouping());
+        assertTrue(config.isAsyncEnabled());
+        assertEquals(1000, config.getAsyncBufferSize());
+        assertEquals(AuditorConfig.OverflowPolicy.BLOCK, config.getAsyncOverflowPolicy());
+        assertEquals(AuditorConfig.DumpFormat.JSON, config.getDumpFormat());
+        assertEquals(AuditorConfig.SamplingMode.RATE_LIMITED, config.getSamplingMode());
+        assertEquals(0.5, config.getSamplingProbability());
+        assertEquals(200, config.getSamplingRateLimit());
+        assertEquals(50, config.getWindowMaxKeys());
+        assertEquals(AuditorConfig.Sink.FILE, config.getSink());
+        assertEquals("/var/log/kafka/audit.log", config.getFilePath());
+        assertEquals(4096, config.getFileBufferSize());
+        assertEquals(1000000, config.getFileRotationBytes());
+        assertEquals(60000, config.getFileRotationMs());
+        assertTrue(config.isFileRotationGzip());
+        assertEquals(5, config.getWindowMaxOperationsPerKey());
+        assertEquals(500, config.getWindowMaxOperations());
     }
 
     @Test
@@ -79,4 +128,68 @@ class AuditorConfigTest {
             t.getMessage()
         );
     }
+
+    @Test
+    void incorrectOverflowPolicy() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("aiven.acl.authorizer.auditor.aggregation.period", "10");
+        properties.put("aiven.acl.authorizer.auditor.async.overflow.policy", "wait");
+
+        final Throwable t = assertThrows(
+            ConfigException.class,
+            () -> new AuditorConfig(properties));
+        assertEquals(
+            "Invalid value wait for configuration aiven.acl.authorizer.auditor.async.overflow.policy: "
+                + "String must be one of: drop, block",
+            t.getMessage()
+        );
+    }
+
+    @Test
+    void incorrectAsyncBufferSize() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("aiven.acl.authorizer.auditor.aggregation.period", "10");
+        properties.put("aiven.acl.authorizer.auditor.async.buffer.size", "1073741825");
+
+        final Throwable t = assertThrows(
+            ConfigException.class,
+            () -> new AuditorConfig(properties));
+        assertEquals(
+            "Invalid value 1073741825 for configuration aiven.acl.authorizer.auditor.async.buffer.size: "
+                + "Value must be no more than 1073741824",
+            t.getMessage()
+        );
+    }
+
+    @Test
+    void incorrectSamplingProbability() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("aiven.acl.authorizer.auditor.aggregation.period", "10");
+        properties.put("aiven.acl.authorizer.auditor.sampling.probability", "1.5");
+
+        final Throwable t = assertThrows(
+            ConfigException.class,
+            () -> new AuditorConfig(properties));
+        assertEquals(
+            "Invalid value 1.5 for configuration aiven.acl.authorizer.auditor.sampling.probability: "
+                + "Value must be no more than 1.0",
+            t.getMessage()
+        );
+    }
+
+    @Test
+    void missingFilePath() {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("aiven.acl.authorizer.auditor.aggregation.period", "10");
+        properties.put("aiven.acl.authorizer.auditor.sink", "file");
+
+        final Throwable t = assertThrows(
+            ConfigException.class,
+            () -> new AuditorConfig(properties));
+        assertEquals(
+            "Invalid value null for configuration aiven.acl.authorizer.auditor.file.path: "
+                + "Must be set when the auditor sink is file",
+            t.getMessage()
+        );
+    }
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.net.InetAddress;
+import java.util.Map;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+
+@ExtendWith(MockitoExtension.class)
+class AuditorMetricsTest {
+
+    private final Metrics metrics = new Metrics();
+
+    private final ResourcePattern resource = new ResourcePattern(ResourceType.TOPIC, "topic", PatternType.LITERAL);
+
+    @Mock
+    private Logger logger;
+
+    @AfterEach
+    void tearDown() {
+        metrics.close();
+    }
+
+    @Test
+    void shouldRecordCountedActivities() {
+        final AuditorMetrics auditorMetrics = new AuditorMetrics();
+        auditorMetrics.register(metrics);
+
+        auditorMetrics.countActivity();
+        auditorMetrics.countActivity();
+        auditorMetrics.countActivity();
+        assertThat(value("auditor-activities-total")).isEqualTo(0.0);
+
+        auditorMetrics.recordActivities();
+        assertThat(value("auditor-activities-total")).isEqualTo(3.0);
+        assertThat(value("auditor-activities-rate")).isGreaterThan(0.0);
+
+        auditorMetrics.recordActivities();
+        assertThat(value("auditor-activities-total")).isEqualTo(3.0);
+    }
+
+    @Test
+    void shouldNotRecordUntilRegistered() {
+        final AuditorMetrics auditorMetrics = new AuditorMetrics();
+        auditorMetrics.countActivity();
+        auditorMetrics.recordActivities();
+        auditorMetrics.recordDumpError();
+
+        auditorMetrics.register(metrics);
+        auditorMetrics.recordActivities();
+
+        assertThat(value("auditor-activities-total")).isEqualTo(0.0);
+        assertThat(value("auditor-dump-errors-total")).isEqualTo(0.0);
+    }
+
+    @Test
+    void shouldRecordWindowsAndDumps() throws Exception {
+        final UserOperationsActivityAuditor auditor = createAuditor(Map.of(
+            AuditorConfig.AGGREGATION_PERIOD_CONF, 10L,
+            AuditorConfig.WINDOW_MAX_KEYS_CONF, 1,
+            AuditorConfig.WINDOW_MAX_OPERATIONS_PER_KEY_CONF, 2));
+        auditor.registerMetrics(metrics);
+
+        final Session session = session("user1");
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.WRITE, resource, true);
+        auditor.addActivity(session, AclOperation.DELETE, resource, true);
+        auditor.addActivity(session("user2"), AclOperation.READ, resource, true);
+        auditor.dump();
+
+        assertThat(value("auditor-window-keys")).isEqualTo(1.0);
+        assertThat(value("auditor-window-operations")).isEqualTo(2.0);
+        assertThat(value("auditor-window-dropped-operations-total")).isEqualTo(1.0);
+        assertThat(value("auditor-window-dropped-activities-total")).isEqualTo(1.0);
+        assertThat(value("auditor-buffer-dropped-activities-total")).isEqualTo(0.0);
+        assertThat(value("auditor-dump-time-ms")).isGreaterThanOrEqualTo(0.0);
+        assertThat(value("auditor-dump-bytes")).isGreaterThan(0.0);
+        assertThat(value("auditor-dump-bytes-total")).isEqualTo(value("auditor-dump-bytes"));
+        assertThat(value("auditor-dump-errors-total")).isEqualTo(0.0);
+
+        auditor.dump();
+        assertThat(value("auditor-window-keys")).isEqualTo(0.0);
+        assertThat(value("auditor-window-operations")).isEqualTo(0.0);
+        assertThat(value("auditor-window-dropped-activities-total")).isEqualTo(1.0);
+        auditor.stop();
+    }
+
+    @Test
+    void shouldCountFailedDumps() throws Exception {
+        doThrow(new IllegalStateException("test")).when(logger).info(anyString());
+        final UserOperationsActivityAuditor auditor = createAuditor(Map.of(AuditorConfig.AGGREGATION_PERIOD_CONF, 10L));
+        auditor.registerMetrics(metrics);
+
+        auditor.addActivity(session("user1"), AclOperation.READ, resource, true);
+        auditor.dump();
+
+        assertThat(value("auditor-dump-errors-total")).isEqualTo(1.0);
+        auditor.stop();
+    }
+
+    @Test
+    void shouldRemoveMetricsWhenStopped() {
+        final UserOperationsActivityAuditor auditor = createAuditor(Map.of(AuditorConfig.AGGREGATION_PERIOD_CONF, 10L));
+        auditor.registerMetrics(metrics);
+        assertThat(metrics.metric(metricName("auditor-activities-total"))).isNotNull();
+
+        auditor.stop();
+
+        assertThat(metrics.metric(metricName("auditor-activities-total"))).isNull();
+    }
+
+    private UserOperationsActivityAuditor createAuditor(final Map<String, ?> props) {
+        final UserOperationsActivityAuditor auditor = new UserOperationsActivityAuditor(logger);
+        auditor.configure(props);
+        return auditor;
+    }
+
+    private Session session(final String name) throws Exception {
+        return new Session(new KafkaPrincipal(KafkaPrincipal.USER_TYPE, name), InetAddress.getLocalHost());
+    }
+
+    private double value(final String name) {
+        return (double) metrics.metric(metricName(name)).metricValue();
+    }
+
+    private MetricName metricName(final String name) {
+        return metrics.metricName(name, AuditorMetrics.METRIC_GROUP_NAME);
+    }
+}
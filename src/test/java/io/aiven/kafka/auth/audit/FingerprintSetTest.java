@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.net.InetAddress;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FingerprintSetTest {
+
+    @Test
+    void addedFingerprintsAreContained() {
+        final FingerprintSet set = new FingerprintSet(16);
+        assertThat(set.contains(42)).isFalse();
+        set.add(42);
+        set.add(42);
+        assertThat(set.contains(42)).isTrue();
+        // Same slot, different fingerprint
+        assertThat(set.contains(42 + 16)).isFalse();
+        set.add(42 + 16);
+        assertThat(set.contains(42 + 16)).isTrue();
+    }
+
+    @Test
+    void fullSetStopsAdding() {
+        final FingerprintSet set = new FingerprintSet(4);
+        for (long fingerprint = 1; fingerprint <= 10; fingerprint++) {
+            set.add(fingerprint);
+        }
+        assertThat(set.contains(1)).isTrue();
+        assertThat(set.contains(4)).isTrue();
+        assertThat(set.contains(10)).isFalse();
+    }
+
+    @Test
+    void fingerprintsDifferByEveryField() throws Exception {
+        final Session session = new Session(new KafkaPrincipal("User", "user"), InetAddress.getLoopbackAddress());
+        final ResourcePattern topic = new ResourcePattern(ResourceType.TOPIC, "topic", PatternType.LITERAL);
+        final long fingerprint = FingerprintSet.fingerprint(session, AclOperation.READ, topic, true);
+
+        assertThat(FingerprintSet.fingerprint(
+            new Session(new KafkaPrincipal("User", "user"), InetAddress.getLoopbackAddress()),
+            AclOperation.READ,
+            new ResourcePattern(ResourceType.TOPIC, "topic", PatternType.LITERAL),
+            true)).isEqualTo(fingerprint);
+
+        assertThat(FingerprintSet.fingerprint(
+            new Session(new KafkaPrincipal("User", "other"), InetAddress.getLoopbackAddress()),
+            AclOperation.READ, topic, true)).isNotEqualTo(fingerprint);
+        assertThat(FingerprintSet.fingerprint(
+            new Session(new KafkaPrincipal("User", "user"), InetAddress.getByName("192.168.0.1")),
+            AclOperation.READ, topic, true)).isNotEqualTo(fingerprint);
+        assertThat(FingerprintSet.fingerprint(session, AclOperation.WRITE, topic, true))
+            .isNotEqualTo(fingerprint);
+        assertThat(FingerprintSet.fingerprint(session, AclOperation.READ, topic, false))
+            .isNotEqualTo(fingerprint);
+        assertThat(FingerprintSet.fingerprint(session, AclOperation.READ,
+            new ResourcePattern(ResourceType.GROUP, "topic", PatternType.LITERAL), true))
+            .isNotEqualTo(fingerprint);
+        assertThat(FingerprintSet.fingerprint(session, AclOperation.READ,
+            new ResourcePattern(ResourceType.TOPIC, "topic", PatternType.PREFIXED), true))
+            .isNotEqualTo(fingerprint);
+        // The same String.hashCode()
+        assertThat(FingerprintSet.fingerprint(session, AclOperation.READ,
+            new ResourcePattern(ResourceType.TOPIC, "Aa", PatternType.LITERAL), true))
+            .isNotEqualTo(FingerprintSet.fingerprint(session, AclOperation.READ,
+                new ResourcePattern(ResourceType.TOPIC, "BB", PatternType.LITERAL), true));
+    }
+
+    @Test
+    void fingerprintsDifferByWholeIpv6Address() throws Exception {
+        // The hash code of an IPv6 address is the sum of its 32-bit words, swapping two of them collides
+        final InetAddress address = InetAddress.getByName("2001:db8:0:1::");
+        final InetAddress collidingAddress = InetAddress.getByName("2001:db8::1");
+        assertThat(collidingAddress.hashCode()).isEqualTo(address.hashCode());
+
+        final KafkaPrincipal principal = new KafkaPrincipal("User", "user");
+        final Session session = new Session(principal, address);
+        final Session collidingSession = new Session(principal, collidingAddress);
+        assertThat(FingerprintSet.fingerprint(collidingSession)).isNotEqualTo(FingerprintSet.fingerprint(session));
+
+        final ResourcePattern topic = new ResourcePattern(ResourceType.TOPIC, "topic", PatternType.LITERAL);
+        assertThat(FingerprintSet.fingerprint(collidingSession, AclOperation.READ, topic, true))
+            .isNotEqualTo(FingerprintSet.fingerprint(session, AclOperation.READ, topic, true));
+    }
+
+    @Test
+    void hasherIsSipHash() {
+        // The test vectors of the reference implementation: key 00..0f, messages 00, 00 01, ...
+        final long[] expected = {0x726FDB47DD0E0E31L, 0x93F5F5799A932462L, 0xA129CA6149BE45E5L, 0x958A324CEB064572L};
+        final int[] lengths = {0, 8, 15, 63};
+        for (int i = 0; i < lengths.length; i++) {
+            final FingerprintSet.Hasher hasher = new FingerprintSet.Hasher(0x0706050403020100L, 0x0F0E0D0C0B0A0908L);
+            for (int b = 0; b < lengths[i]; b++) {
+                hasher.add(b, Byte.SIZE);
+            }
+            assertThat(hasher.finish()).isEqualTo(expected[i]);
+        }
+
+        // Wider values are added as their little-endian bytes
+        final FingerprintSet.Hasher hasher = new FingerprintSet.Hasher(0x0706050403020100L, 0x0F0E0D0C0B0A0908L);
+        hasher.add(0x0100, Short.SIZE);
+        hasher.add(0x05040302, Integer.SIZE);
+        hasher.add(0x06, Byte.SIZE);
+        hasher.add(0x0A090807, Integer.SIZE);
+        hasher.add(0x0C0B, Short.SIZE);
+        hasher.add(0x0D, Byte.SIZE);
+        hasher.add(0x0E, Byte.SIZE);
+        assertThat(hasher.finish()).isEqualTo(0xA129CA6149BE45E5L);
+    }
+}
@@ -18,6 +18,7 @@ package io.aiven.kafka.auth.audit;
 
 import java.net.InetAddress;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -83,7 +84,7 @@ public class FormatterTestBase {
         formatAndAssert(dump, expected);
     }
 
-    protected void twoOperations(final ZonedDateTime now, final String expected) {
+    protected void twoOperations(final ZonedDateTime now, final String... expected) {
         final Map<Auditor.AuditKey, UserActivity> dump = new HashMap<>();
         final UserActivity userActivity = createUserActivity(now);
         userActivity.addOperation(new UserOperation(session.getClientAddress(), operation, resource, false));
@@ -121,5 +122,9 @@ public class FormatterTestBase {
 
         assertEquals(expected.length, entries.size());
         assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(entries));
+
+        final List<String> streamedEntries = new ArrayList<>();
+        formatter.format(dump, streamedEntries::add);
+        assertEquals(entries, streamedEntries);
     }
 }
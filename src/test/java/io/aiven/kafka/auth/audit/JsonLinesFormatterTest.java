@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.net.InetAddress;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link JsonLinesFormatter}.
+ */
+public class JsonLinesFormatterTest extends FormatterTestBase {
+
+    public JsonLinesFormatterTest() {
+        super(AuditorConfig.AggregationGrouping.USER_AND_IP);
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        formatter = new JsonLinesFormatter();
+    }
+
+    @Test
+    public void shouldBuildRightLogMessageZeroOperations() throws Exception {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final String expected = String.format(
+                "{\"principal_type\":\"PRINCIPAL_TYPE\",\"principal_name\":\"PRINCIPAL_NAME\","
+                        + "\"source_ip\":\"%s\",\"active_since\":\"%s\",\"operations\":[]}",
+                InetAddress.getLocalHost().getHostAddress(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+        zeroOperations(now, expected);
+    }
+
+    @Test
+    public void shouldBuildRightLogMessageTwoOperations() throws Exception {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final String expected = String.format(
+                "{\"principal_type\":\"PRINCIPAL_TYPE\",\"principal_name\":\"PRINCIPAL_NAME\","
+                        + "\"source_ip\":\"%s\",\"active_since\":\"%s\",\"operations\":["
+                        + "{\"allowed\":false,\"operation\":\"ALTER\",\"resource_type\":\"CLUSTER\","
+                        + "\"resource_name\":\"resource\",\"pattern_type\":\"LITERAL\"},"
+                        + "{\"allowed\":true,\"operation\":\"ALTER\",\"resource_type\":\"DELEGATION_TOKEN\","
+                        + "\"resource_name\":\"ANOTHER_RESOURCE_NAME\",\"pattern_type\":\"LITERAL\"}]}",
+                InetAddress.getLocalHost().getHostAddress(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+
+        twoOperations(now, expected);
+    }
+
+    @Test
+    public void shouldSplitLongLogMessages() throws Exception {
+        formatter = new JsonLinesFormatter(1);
+        final ZonedDateTime now = ZonedDateTime.now();
+        final String prefix = String.format(
+                "{\"principal_type\":\"PRINCIPAL_TYPE\",\"principal_name\":\"PRINCIPAL_NAME\","
+                        + "\"source_ip\":\"%s\",\"active_since\":\"%s\",\"operations\":[",
+                InetAddress.getLocalHost().getHostAddress(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+
+        twoOperations(now,
+                prefix + "{\"allowed\":false,\"operation\":\"ALTER\",\"resource_type\":\"CLUSTER\","
+                        + "\"resource_name\":\"resource\",\"pattern_type\":\"LITERAL\"}]}",
+                prefix + "{\"allowed\":true,\"operation\":\"ALTER\",\"resource_type\":\"DELEGATION_TOKEN\","
+                        + "\"resource_name\":\"ANOTHER_RESOURCE_NAME\",\"pattern_type\":\"LITERAL\"}]}");
+    }
+
+    @Test
+    public void shouldCreateEntryPerIpWhenGroupedByPrincipal() throws Exception {
+        final UserActivity userActivity = new UserActivity.UserActivityOperationsGropedByIP(ZonedDateTime.now());
+        userActivity.addOperation(new UserOperation(session.getClientAddress(), operation, resource, false));
+        userActivity.addOperation(
+                new UserOperation(anotherSession.getClientAddress(), anotherOperation, anotherResource, true));
+        final Map<Auditor.AuditKey, UserActivity> dump = new HashMap<>();
+        dump.put(new Auditor.AuditKey(session.getPrincipal(), null), userActivity);
+
+        final List<String> entries = formatter.format(dump);
+        assertEquals(2, entries.size());
+        assertEquals(InetAddress.getLocalHost().getHostAddress(),
+                parse(entries.get(0)).get("source_ip").getAsString());
+        assertEquals("CLUSTER",
+                parse(entries.get(0)).getAsJsonArray("operations").get(0).getAsJsonObject()
+                        .get("resource_type").getAsString());
+        assertEquals(anotherInetAddress.getHostAddress(), parse(entries.get(1)).get("source_ip").getAsString());
+    }
+
+    @Test
+    public void shouldFormatCounts() {
+        final UserActivity.UserActivityOperationCounts userActivity =
+                new UserActivity.UserActivityOperationCounts(ZonedDateTime.now(), 1);
+        userActivity.count(resource, AclOperation.READ, true, 2.0);
+        userActivity.count(resource, AclOperation.READ, true, 2.0);
+        userActivity.count(resource, AclOperation.WRITE, false);
+        final Map<Auditor.AuditKey, UserActivity> dump = new HashMap<>();
+        dump.put(createAuditKey(session), userActivity);
+
+        final List<String> entries = formatter.format(dump);
+        assertEquals(1, entries.size());
+        final JsonObject entry = parse(entries.get(0));
+        final JsonObject counted = entry.getAsJsonArray("operations").get(0).getAsJsonObject();
+        assertEquals("READ", counted.get("operation").getAsString());
+        assertEquals(4, counted.get("count").getAsLong());
+        assertTrue(counted.get("sampled").getAsBoolean());
+        assertEquals(1, entry.getAsJsonArray("operations").size());
+        assertEquals(1, entry.get("dropped_operations").getAsLong());
+    }
+
+    @Test
+    public void shouldEscapeStrings() {
+        final String name = "CN=\"quoted\",O=back\\slash\nnew line\t" + (char) 1;
+        final Session escapedSession = new Session(new KafkaPrincipal("User", name), session.getClientAddress());
+        final Map<Auditor.AuditKey, UserActivity> dump = new HashMap<>();
+        dump.put(createAuditKey(escapedSession), createUserActivity(ZonedDateTime.now()));
+
+        final List<String> entries = formatter.format(dump);
+        assertEquals(name, parse(entries.get(0)).get("principal_name").getAsString());
+        assertFalse(entries.get(0).chars().anyMatch(c -> c < 0x20));
+    }
+
+    private static JsonObject parse(final String entry) {
+        return JsonParser.parseString(entry).getAsJsonObject();
+    }
+}
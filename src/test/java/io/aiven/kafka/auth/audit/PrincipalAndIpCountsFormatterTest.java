@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.net.InetAddress;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.common.acl.AclOperation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link PrincipalAndIpCountsFormatter}.
+ */
+public class PrincipalAndIpCountsFormatterTest extends FormatterTestBase {
+
+    public PrincipalAndIpCountsFormatterTest() {
+        super(AuditorConfig.AggregationGrouping.USER_AND_IP);
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        super.setUp();
+        formatter = new PrincipalAndIpCountsFormatter();
+    }
+
+    @Override
+    protected UserActivity createUserActivity(final ZonedDateTime time) {
+        return new UserActivity.UserActivityOperationCounts(time);
+    }
+
+    @Test
+    public void shouldBuildRightLogMessageZeroOperations() throws Exception {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final String expected = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since %s",
+                InetAddress.getLocalHost(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+        zeroOperations(now, expected);
+    }
+
+    @Test
+    public void shouldBuildRightLogMessageTwoOperations() throws Exception {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final String expected = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since %s: "
+                        + "Deny ALTER on CLUSTER:resource (1), "
+                        + "Allow ALTER on DELEGATION_TOKEN:ANOTHER_RESOURCE_NAME (1)",
+                InetAddress.getLocalHost(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+
+        twoOperations(now, expected);
+    }
+
+    @Test
+    public void shouldCountOperations() throws Exception {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final UserActivity.UserActivityOperationCounts userActivity =
+                new UserActivity.UserActivityOperationCounts(now);
+        userActivity.count(anotherResource, AclOperation.DESCRIBE, true);
+        userActivity.count(resource, AclOperation.WRITE, true);
+        userActivity.count(resource, AclOperation.WRITE, false);
+        userActivity.count(resource, AclOperation.WRITE, true);
+        userActivity.count(resource, AclOperation.READ, true);
+        final Map<Auditor.AuditKey, UserActivity> dump = new HashMap<>();
+        dump.put(createAuditKey(session), userActivity);
+
+        final String expected = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since %s: "
+                        + "Allow READ on CLUSTER:resource (1), "
+                        + "Deny WRITE on CLUSTER:resource (1), "
+                        + "Allow WRITE on CLUSTER:resource (2), "
+                        + "Allow DESCRIBE on DELEGATION_TOKEN:ANOTHER_RESOURCE_NAME (1)",
+                InetAddress.getLocalHost(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+        formatAndAssert(dump, expected);
+    }
+
+    @Test
+    public void shouldLabelSampledCounts() throws Exception {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final UserActivity.UserActivityOperationCounts userActivity =
+                new UserActivity.UserActivityOperationCounts(now);
+        userActivity.count(resource, AclOperation.READ, true, 2.5);
+        userActivity.count(resource, AclOperation.READ, true, 2.5);
+        userActivity.count(resource, AclOperation.READ, false);
+        final Map<Auditor.AuditKey, UserActivity> dump = new HashMap<>();
+        dump.put(createAuditKey(session), userActivity);
+
+        final String expected = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since %s: "
+                        + "Deny READ on CLUSTER:resource (1), "
+                        + "Allow READ on CLUSTER:resource (~5 sampled)",
+                InetAddress.getLocalHost(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+        formatAndAssert(dump, expected);
+    }
+
+    @Test
+    public void shouldSplitLongLogMessages() throws Exception {
+        formatter = new PrincipalAndIpCountsFormatter(1);
+        final ZonedDateTime now = ZonedDateTime.now();
+        final String expected1 = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since %s: Deny ALTER on CLUSTER:resource (1)",
+                InetAddress.getLocalHost(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+        final String expected2 = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since %s: "
+                        + "Allow ALTER on DELEGATION_TOKEN:ANOTHER_RESOURCE_NAME (1)",
+                InetAddress.getLocalHost(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+
+        twoOperations(now, expected1, expected2);
+    }
+
+}
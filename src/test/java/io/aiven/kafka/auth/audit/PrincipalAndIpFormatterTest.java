@@ -64,6 +64,25 @@ public class PrincipalAndIpFormatterTest extends FormatterTestBase {
         twoOperations(now, expected);
     }
 
+    @Test
+    public void shouldSplitLongLogMessages() throws Exception {
+        formatter = new PrincipalAndIpFormatter(1);
+        final ZonedDateTime now = ZonedDateTime.now();
+        final String expected1 = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since %s: Deny ALTER on CLUSTER:resource",
+                InetAddress.getLocalHost(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+        final String expected2 = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since %s: "
+                        + "Allow ALTER on DELEGATION_TOKEN:ANOTHER_RESOURCE_NAME",
+                InetAddress.getLocalHost(),
+                now.format(AuditorDumpFormatter.dateFormatter())
+        );
+
+        twoOperations(now, expected1, expected2);
+    }
+
     @Test
     public void shouldBuildRightLogMessageTwoOperationsTwoIps() throws Exception {
         final ZonedDateTime now = ZonedDateTime.now();
@@ -58,6 +58,25 @@ public class PrincipalFormatterTest extends FormatterTestBase {
         twoOperations(now, expected);
     }
 
+    @Test
+    public void shouldSplitLongLogMessages() throws Exception {
+        formatter = new PrincipalFormatter(1);
+        final ZonedDateTime now = ZonedDateTime.now();
+        final String expected1 = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME was active since %s. %s: Deny ALTER on CLUSTER:resource",
+                now.format(AuditorDumpFormatter.dateFormatter()),
+                InetAddress.getLocalHost()
+        );
+        final String expected2 = String.format(
+                "PRINCIPAL_TYPE:PRINCIPAL_NAME was active since %s. %s: "
+                        + "Allow ALTER on DELEGATION_TOKEN:ANOTHER_RESOURCE_NAME",
+                now.format(AuditorDumpFormatter.dateFormatter()),
+                InetAddress.getLocalHost()
+        );
+
+        twoOperations(now, expected1, expected2);
+    }
+
     @Test
     public void shouldBuildRightLogMessageTwoOperationsTwoIps() throws Exception {
         final ZonedDateTime now = ZonedDateTime.now();
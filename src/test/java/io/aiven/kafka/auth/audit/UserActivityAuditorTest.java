@@ -40,6 +40,7 @@ import org.slf4j.Logger;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -80,9 +81,9 @@ class UserActivityAuditorTest {
         final Auditor auditor = createAuditor();
 
         auditor.addActivity(session, operation, resource, false);
-        assertEquals(1, auditor.auditStorage.size());
+        assertEquals(1, auditor.auditStorage().size());
         auditor.dump();
-        assertEquals(0, auditor.auditStorage.size());
+        assertEquals(0, auditor.auditStorage().size());
 
         final ArgumentCaptor<String> argument = ArgumentCaptor.forClass(String.class);
         verify(logger).info(argument.capture());
@@ -99,6 +100,59 @@ class UserActivityAuditorTest {
         assertTrue(diffSeconds < 3);
     }
 
+    @Test
+    void shouldRecordIpv6AddressesWithTheSameHashCode() throws UnknownHostException {
+        final Auditor auditor = createAuditor();
+        final KafkaPrincipal principal = session.getPrincipal();
+
+        auditor.addActivity(new Session(principal, InetAddress.getByName("2001:db8:0:1::")), operation, resource, true);
+        auditor.addActivity(new Session(principal, InetAddress.getByName("2001:db8::1")), operation, resource, true);
+
+        assertEquals(2, auditor.auditStorage().size());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void shouldAddActivitiesOfSubclassesUsingTheAuditStorageField() {
+        final Auditor auditor = new Auditor(logger) {
+            @Override
+            protected void addActivity0(final Session session,
+                                        final AclOperation operation,
+                                        final ResourcePattern resource,
+                                        final boolean hasAccess) {
+                auditStorage.computeIfAbsent(
+                    new AuditKey(session.getPrincipal(), session.getClientAddress()),
+                    auditKey -> new UserActivity.UserActivityOperations());
+            }
+
+            @Override
+            protected AuditorDumpFormatter createFormatter() {
+                return new PrincipalAndIpFormatter();
+            }
+        };
+        auditor.configure(Map.of(AuditorConfig.AGGREGATION_PERIOD_CONF, Long.MAX_VALUE));
+
+        auditor.addActivity(session, operation, resource, false);
+        assertEquals(1, auditor.auditStorage().size());
+        auditor.dump();
+        assertEquals(0, auditor.auditStorage().size());
+        verify(logger).info(anyString());
+    }
+
+    @Test
+    void shouldThrowConfigExceptionForSubclassesNotAddingActivities() {
+        final Auditor auditor = new Auditor(logger) {
+            @Override
+            protected AuditorDumpFormatter createFormatter() {
+                return new PrincipalAndIpFormatter();
+            }
+        };
+        final var e = assertThrows(ConfigException.class,
+            () -> auditor.configure(Map.of(AuditorConfig.AGGREGATION_PERIOD_CONF, Long.MAX_VALUE)));
+        assertEquals(auditor.getClass().getName() + " must override addActivity0 with the audit storage",
+            e.getMessage());
+    }
+
     @Test
     void shouldThrowConfigExceptionForAggregationGrouping() {
 
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.audit;
+
+import java.net.InetAddress;
+import java.util.Map;
+
+import org.apache.kafka.common.acl.AclOperation;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.resource.PatternType;
+import org.apache.kafka.common.resource.ResourcePattern;
+import org.apache.kafka.common.resource.ResourceType;
+import org.apache.kafka.common.security.auth.KafkaPrincipal;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserOperationCountsAuditorTest {
+
+    @Mock
+    private Logger logger;
+
+    private Session session;
+
+    private ResourcePattern resource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final KafkaPrincipal principal = new KafkaPrincipal("PRINCIPAL_TYPE", "PRINCIPAL_NAME");
+        session = new Session(principal, InetAddress.getLocalHost());
+        resource = new ResourcePattern(ResourceType.TOPIC, "topic", PatternType.LITERAL);
+    }
+
+    @Test
+    public void shouldDumpMessagesWhenStop() {
+        final UserOperationCountsAuditor auditor = spy(createAuditor());
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.stop();
+        verify(auditor).dump();
+    }
+
+    @Test
+    public void shouldCountEveryOperation() throws Exception {
+        final UserOperationCountsAuditor auditor = createAuditor();
+
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.WRITE, resource, false);
+        auditor.dump();
+
+        final ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger).info(logCaptor.capture());
+        assertTrue(logCaptor.getValue().startsWith(
+                String.format("PRINCIPAL_TYPE:PRINCIPAL_NAME (%s) was active since ", InetAddress.getLocalHost())));
+        assertTrue(logCaptor.getValue().endsWith(
+                ": Allow READ on TOPIC:topic (3), Deny WRITE on TOPIC:topic (1)"));
+    }
+
+    @Test
+    public void shouldAlwaysRecordDeniedOperationsWhenSampling() {
+        final UserOperationCountsAuditor auditor = createAuditor(Map.of(
+                AuditorConfig.AGGREGATION_PERIOD_CONF, Long.MAX_VALUE,
+                AuditorConfig.SAMPLING_MODE_CONF, AuditorConfig.SamplingMode.PROBABILISTIC.getConfigValue(),
+                AuditorConfig.SAMPLING_PROBABILITY_CONF, 0.0));
+
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.WRITE, resource, false);
+        auditor.dump();
+
+        final ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger).info(logCaptor.capture());
+        assertTrue(logCaptor.getValue().endsWith(": Deny WRITE on TOPIC:topic (1)"));
+    }
+
+    @Test
+    public void shouldDumpJsonLines() throws Exception {
+        final UserOperationCountsAuditor auditor = createAuditor(Map.of(
+                AuditorConfig.AGGREGATION_PERIOD_CONF, Long.MAX_VALUE,
+                AuditorConfig.FORMAT_CONF, AuditorConfig.DumpFormat.JSON.getConfigValue()));
+
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.dump();
+
+        final ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger).info(logCaptor.capture());
+        final JsonObject entry = JsonParser.parseString(logCaptor.getValue()).getAsJsonObject();
+        assertEquals("PRINCIPAL_NAME", entry.get("principal_name").getAsString());
+        assertEquals(InetAddress.getLocalHost().getHostAddress(), entry.get("source_ip").getAsString());
+        final JsonObject operation = entry.getAsJsonArray("operations").get(0).getAsJsonObject();
+        assertEquals("topic", operation.get("resource_name").getAsString());
+        assertEquals(2, operation.get("count").getAsLong());
+    }
+
+    @Test
+    public void shouldShareResourcesBetweenUsers() throws Exception {
+        final Session anotherSession =
+                new Session(new KafkaPrincipal("PRINCIPAL_TYPE", "ANOTHER_NAME"), InetAddress.getLocalHost());
+        final UserOperationCountsAuditor auditor = createAuditor();
+
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(anotherSession, AclOperation.READ,
+                new ResourcePattern(ResourceType.TOPIC, "topic", PatternType.LITERAL), true);
+
+        final ResourcePattern recorded = countedResource(auditor, session);
+        assertSame(resource, recorded);
+        assertSame(recorded, countedResource(auditor, anotherSession));
+    }
+
+    @Test
+    public void shouldNotKeepResourcesOfDroppedOperations() throws Exception {
+        final UserOperationCountsAuditor auditor = createAuditor(Map.of(
+                AuditorConfig.AGGREGATION_PERIOD_CONF, Long.MAX_VALUE,
+                AuditorConfig.WINDOW_MAX_OPERATIONS_PER_KEY_CONF, 2));
+
+        for (int i = 0; i < 100; i++) {
+            final ResourcePattern topic = new ResourcePattern(ResourceType.TOPIC, "topic-" + i, PatternType.LITERAL);
+            auditor.addActivity(session, AclOperation.READ, topic, true);
+        }
+
+        final UserActivity.UserActivityOperationCounts userActivity =
+                (UserActivity.UserActivityOperationCounts) auditor.auditStorage().get(
+                        new Auditor.AuditKey(session.getPrincipal(), session.getClientAddress()));
+        assertEquals(2, userActivity.resourceCount());
+        assertEquals(98, userActivity.droppedOperations());
+        assertEquals(2, auditor.internedResources());
+    }
+
+    @Test
+    void shouldThrowConfigExceptionForAggregationGrouping() {
+        final var props = Map.of(
+                AuditorConfig.AGGREGATION_PERIOD_CONF, Long.MAX_VALUE,
+                AuditorConfig.AGGREGATION_GROUPING_CONF, AuditorConfig.AggregationGrouping.USER.getConfigValue()
+        );
+        final var e = assertThrows(
+                ConfigException.class, () -> createAuditor(props));
+        assertEquals("Grouping by user is not supported for this type of auditor", e.getMessage());
+    }
+
+    private ResourcePattern countedResource(final Auditor auditor, final Session session) {
+        final UserActivity.UserActivityOperationCounts userActivity =
+                (UserActivity.UserActivityOperationCounts) auditor.auditStorage().get(
+                        new Auditor.AuditKey(session.getPrincipal(), session.getClientAddress()));
+        return userActivity.operationCounts().keySet().iterator().next();
+    }
+
+    private UserOperationCountsAuditor createAuditor() {
+        return createAuditor(Map.of(AuditorConfig.AGGREGATION_PERIOD_CONF, Long.MAX_VALUE));
+    }
+
+    private UserOperationCountsAuditor createAuditor(final Map<String, ?> props) {
+        final UserOperationCountsAuditor auditor = new UserOperationCountsAuditor(logger);
+        auditor.configure(props);
+        return auditor;
+    }
+}
@@ -18,9 +18,13 @@ package io.aiven.kafka.auth.audit;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -34,6 +38,7 @@ import org.apache.kafka.common.security.auth.KafkaPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -43,7 +48,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -87,15 +98,15 @@ class UserOperationsActivityAuditorTest {
         final UserOperationsActivityAuditor auditor = createAuditor();
 
         auditor.addActivity(session, operation, resource, false);
-        assertEquals(1, auditor.auditStorage.size());
+        assertEquals(1, auditor.auditStorage().size());
         assertEquals(
                 1,
-                cast(auditor.auditStorage.get(
+                cast(auditor.auditStorage().get(
                         new Auditor.AuditKey(principal, InetAddress.getLocalHost())
-                ), UserActivity.UserActivityOperations.class).operations.size()
+                ), UserActivity.UserActivityOperations.class).operations().size()
         );
         auditor.dump();
-        assertEquals(0, auditor.auditStorage.size());
+        assertEquals(0, auditor.auditStorage().size());
     }
 
     @Test
@@ -109,25 +120,25 @@ class UserOperationsActivityAuditorTest {
         auditor.addActivity(session, operation, resource, false);
         auditor.addActivity(session, operation, resource, true);
         auditor.addActivity(anotherSession, operation, resource, true);
-        assertEquals(2, auditor.auditStorage.size());
+        assertEquals(2, auditor.auditStorage().size());
         assertEquals(
                 2,
-                cast(auditor.auditStorage.get(
+                cast(auditor.auditStorage().get(
                         new Auditor.AuditKey(
                                 session.getPrincipal(),
                                 session.getClientAddress())
-                ), UserActivity.UserActivityOperations.class).operations.size()
+                ), UserActivity.UserActivityOperations.class).operations().size()
         );
         assertEquals(
                 1,
-                cast(auditor.auditStorage.get(
+                cast(auditor.auditStorage().get(
                         new Auditor.AuditKey(
                                 anotherSession.getPrincipal(),
                                 anotherSession.getClientAddress())
-                ), UserActivity.UserActivityOperations.class).operations.size()
+                ), UserActivity.UserActivityOperations.class).operations().size()
         );
         auditor.dump();
-        assertEquals(0, auditor.auditStorage.size());
+        assertEquals(0, auditor.auditStorage().size());
     }
 
     @Test
@@ -146,17 +157,215 @@ class UserOperationsActivityAuditorTest {
         auditor.addActivity(session, operation, resource, false);
         auditor.addActivity(session, operation, resource, true);
         auditor.addActivity(anotherSession, operation, resource, true);
-        assertEquals(1, auditor.auditStorage.size());
+        assertEquals(1, auditor.auditStorage().size());
         assertEquals(
                 2,
-                cast(auditor.auditStorage.get(
+                cast(auditor.auditStorage().get(
                         new Auditor.AuditKey(
                                 session.getPrincipal(),
                                 null)
-                ), UserActivity.UserActivityOperationsGropedByIP.class).operations.size()
+                ), UserActivity.UserActivityOperationsGropedByIP.class).operations().size()
         );
         auditor.dump();
-        assertEquals(0, auditor.auditStorage.size());
+        assertEquals(0, auditor.auditStorage().size());
+    }
+
+    @Test
+    void shouldSkipOperationsAlreadyInWindow() {
+        final UserOperationsActivityAuditor auditor = spy(createAuditor());
+
+        auditor.addActivity(session, operation, resource, false);
+        auditor.addActivity(session, operation, resource, false);
+        auditor.addActivity(session, operation, resource, false);
+        verify(auditor, times(1)).addActivity0(any(), any(), any(), any(), anyBoolean());
+        auditor.addActivity(session, operation, resource, true);
+        verify(auditor, times(2)).addActivity0(any(), any(), any(), any(), anyBoolean());
+
+        // A new window records it again
+        auditor.dump();
+        auditor.addActivity(session, operation, resource, false);
+        verify(auditor, times(3)).addActivity0(any(), any(), any(), any(), anyBoolean());
+        assertEquals(
+                1,
+                cast(auditor.auditStorage().get(
+                        new Auditor.AuditKey(principal, session.getClientAddress())
+                ), UserActivity.UserActivityOperations.class).operations().size()
+        );
+    }
+
+    @Test
+    void shouldCountActivitiesOverWindowBounds() throws Exception {
+        final Session anotherSession =
+                new Session(new KafkaPrincipal("PRINCIPAL_TYPE", "ANOTHER_NAME"), InetAddress.getLocalHost());
+        final UserOperationsActivityAuditor auditor =
+                createAuditor(Map.of(
+                        AuditorConfig.AGGREGATION_PERIOD_CONF,
+                        10L,
+                        AuditorConfig.WINDOW_MAX_KEYS_CONF,
+                        1,
+                        AuditorConfig.WINDOW_MAX_OPERATIONS_PER_KEY_CONF,
+                        2));
+
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.WRITE, resource, true);
+        auditor.addActivity(session, AclOperation.DELETE, resource, true);
+        auditor.addActivity(anotherSession, AclOperation.READ, resource, true);
+        assertEquals(1, auditor.auditStorage().size());
+        assertEquals(
+                2,
+                cast(auditor.auditStorage().get(
+                        new Auditor.AuditKey(principal, session.getClientAddress())
+                ), UserActivity.UserActivityOperations.class).operations().size()
+        );
+        auditor.dump();
+
+        final ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger).info(logCaptor.capture());
+        assertTrue(logCaptor.getValue().endsWith(
+                "Allow READ on CLUSTER:RESOURCE_NAME, Allow WRITE on CLUSTER:RESOURCE_NAME"
+                        + " (1 more operations not recorded)"));
+        verify(logger).warn("Dropped {} activities of users over the maximum of {} per aggregation period", 1L, 1);
+    }
+
+    @Test
+    void shouldCountEveryDroppedActivity() throws Exception {
+        final Session anotherSession =
+                new Session(new KafkaPrincipal("PRINCIPAL_TYPE", "ANOTHER_NAME"), InetAddress.getLocalHost());
+        final UserOperationsActivityAuditor auditor =
+                createAuditor(Map.of(
+                        AuditorConfig.AGGREGATION_PERIOD_CONF,
+                        10L,
+                        AuditorConfig.WINDOW_MAX_KEYS_CONF,
+                        1,
+                        AuditorConfig.WINDOW_MAX_OPERATIONS_PER_KEY_CONF,
+                        1));
+
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        // The same dropped activities are counted every time, rather than skipped as already recorded
+        for (int i = 0; i < 3; i++) {
+            auditor.addActivity(session, AclOperation.WRITE, resource, true);
+            auditor.addActivity(anotherSession, AclOperation.READ, resource, true);
+        }
+        assertEquals(
+                3,
+                auditor.auditStorage().get(new Auditor.AuditKey(principal, session.getClientAddress()))
+                        .droppedOperations());
+        auditor.dump();
+
+        verify(logger).warn("Dropped {} activities of users over the maximum of {} per aggregation period", 3L, 1);
+    }
+
+    @Test
+    void shouldBoundOperationsOfAllUsers() throws Exception {
+        final Session anotherSession =
+                new Session(new KafkaPrincipal("PRINCIPAL_TYPE", "ANOTHER_NAME"), InetAddress.getLocalHost());
+        final UserOperationsActivityAuditor auditor =
+                createAuditor(Map.of(
+                        AuditorConfig.AGGREGATION_PERIOD_CONF,
+                        10L,
+                        AuditorConfig.WINDOW_MAX_OPERATIONS_CONF,
+                        3));
+
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.addActivity(session, AclOperation.WRITE, resource, true);
+        auditor.addActivity(anotherSession, AclOperation.READ, resource, true);
+        auditor.addActivity(anotherSession, AclOperation.WRITE, resource, true);
+
+        final UserActivity.UserActivityOperations anotherActivity = cast(auditor.auditStorage().get(
+                new Auditor.AuditKey(anotherSession.getPrincipal(), anotherSession.getClientAddress())
+        ), UserActivity.UserActivityOperations.class);
+        assertEquals(1, anotherActivity.operations().size());
+        assertEquals(1, anotherActivity.droppedOperations());
+
+        // The next window starts empty
+        auditor.dump();
+        auditor.addActivity(anotherSession, AclOperation.WRITE, resource, true);
+        assertEquals(
+                1,
+                cast(auditor.auditStorage().get(
+                        new Auditor.AuditKey(anotherSession.getPrincipal(), anotherSession.getClientAddress())
+                ), UserActivity.UserActivityOperations.class).operations().size()
+        );
+    }
+
+    @Test
+    void shouldNotLoseOperationsAddedWhileDumping() throws Exception {
+        final UserOperationsActivityAuditor auditor = createAuditor();
+        final int threadCount = 4;
+        final int operationsPerThread = 5_000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < operationsPerThread; i++) {
+                    final ResourcePattern topic =
+                        new ResourcePattern(ResourceType.TOPIC, "topic-" + thread + "-" + i, PatternType.LITERAL);
+                    auditor.addActivity(session, AclOperation.READ, topic, true);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            auditor.dump();
+        }
+        auditor.dump();
+
+        final ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger, atLeastOnce()).info(logCaptor.capture());
+        final long loggedOperations = logCaptor.getAllValues().stream()
+                .mapToLong(line -> line.split("Allow READ on TOPIC:", -1).length - 1)
+                .sum();
+        assertEquals(threadCount * operationsPerThread, loggedOperations);
+    }
+
+    @Test
+    void shouldAddActivitiesAsynchronously() throws Exception {
+        final UserOperationsActivityAuditor auditor =
+                createAuditor(Map.of(
+                        AuditorConfig.AGGREGATION_PERIOD_CONF,
+                        10L,
+                        AuditorConfig.ASYNC_ENABLED_CONF,
+                        true,
+                        AuditorConfig.ASYNC_OVERFLOW_POLICY_CONF,
+                        AuditorConfig.OverflowPolicy.BLOCK.getConfigValue()));
+        final int operationCount = 10_000;
+        for (int i = 0; i < operationCount; i++) {
+            final ResourcePattern topic = new ResourcePattern(ResourceType.TOPIC, "topic-" + i, PatternType.LITERAL);
+            auditor.addActivity(session, AclOperation.READ, topic, true);
+        }
+        // Stopping adds the buffered activities before the last dump
+        auditor.stop();
+
+        final ArgumentCaptor<String> logCaptor = ArgumentCaptor.forClass(String.class);
+        verify(logger, atLeastOnce()).info(logCaptor.capture());
+        final long loggedOperations = logCaptor.getAllValues().stream()
+                .mapToLong(line -> line.split("Allow READ on TOPIC:", -1).length - 1)
+                .sum();
+        assertEquals(operationCount, loggedOperations);
+    }
+
+    @Test
+    void shouldWriteDumpsToFile(@TempDir final Path directory) throws Exception {
+        final Path path = directory.resolve("audit.log");
+        final UserOperationsActivityAuditor auditor =
+                createAuditor(Map.of(
+                        AuditorConfig.AGGREGATION_PERIOD_CONF,
+                        10L,
+                        AuditorConfig.SINK_CONF,
+                        AuditorConfig.Sink.FILE.getConfigValue(),
+                        AuditorConfig.FILE_PATH_CONF,
+                        path.toString()));
+
+        auditor.addActivity(session, operation, resource, false);
+        auditor.dump();
+        auditor.addActivity(session, AclOperation.READ, resource, true);
+        auditor.stop();
+
+        final List<String> lines = Files.readAllLines(path);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).endsWith(": Deny ALL on CLUSTER:RESOURCE_NAME"));
+        assertTrue(lines.get(1).endsWith(": Allow READ on CLUSTER:RESOURCE_NAME"));
+        verify(logger, never()).info(anyString());
     }
 
     private <T extends UserActivity> T cast(final UserActivity userActivity, final Class<T> clazz) {
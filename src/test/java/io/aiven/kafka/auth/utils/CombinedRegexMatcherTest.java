@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CombinedRegexMatcherTest {
+
+    @Test
+    public void findsFirstMatchingPattern() {
+        final CombinedRegexMatcher matcher = matcher(
+            "^CN=a(.*)$", "CN=(b)(c)?.*", "(?i)CN=X", "CN=(d)\\1", "^CN=.*e$", "CN=\\Qq(\\E");
+
+        assertThat(matcher.firstMatch("CN=abc")).isEqualTo(0);
+        assertThat(matcher.firstMatch("CN=bzz")).isEqualTo(1);
+        assertThat(matcher.firstMatch("cn=x")).isEqualTo(2);
+        assertThat(matcher.firstMatch("CN=dd")).isEqualTo(3);
+        assertThat(matcher.firstMatch("CN=de")).isEqualTo(4);
+        assertThat(matcher.firstMatch("CN=ze")).isEqualTo(4);
+        assertThat(matcher.firstMatch("CN=q(")).isEqualTo(5);
+        assertThat(matcher.firstMatch("CN=zz")).isEqualTo(-1);
+        // The patterns with inline flags and backreferences are matched on their own
+        assertThat(matcher.segmentCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void mergesCombinablePatterns() {
+        final CombinedRegexMatcher matcher = matcher("CN=(a)", "CN=(?:b)", "CN=(?=c)c", "CN=[(]");
+
+        assertThat(matcher.segmentCount()).isEqualTo(1);
+        assertThat(matcher.firstMatch("CN=a")).isEqualTo(0);
+        assertThat(matcher.firstMatch("CN=b")).isEqualTo(1);
+        assertThat(matcher.firstMatch("CN=c")).isEqualTo(2);
+        assertThat(matcher.firstMatch("CN=(")).isEqualTo(3);
+    }
+
+    @Test
+    public void matchesNothingWithoutPatterns() {
+        assertThat(matcher().firstMatch("CN=a")).isEqualTo(-1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"(a)\\1", "(?<name>a)\\k<name>", "(?i)a", "a(?-i:b)", "\\Qa"})
+    public void notCombinable(final String regex) {
+        assertThat(CombinedRegexMatcher.isCombinable(Pattern.compile(regex))).isFalse();
+    }
+
+    @Test
+    public void patternsWithFlagsAreNotCombinable() {
+        assertThat(CombinedRegexMatcher.isCombinable(Pattern.compile("a", Pattern.CASE_INSENSITIVE))).isFalse();
+    }
+
+    private static CombinedRegexMatcher matcher(final String... regexes) {
+        final List<Pattern> patterns = new ArrayList<>();
+        for (final String regex : regexes) {
+            patterns.add(Pattern.compile(regex));
+        }
+        return new CombinedRegexMatcher(patterns);
+    }
+}
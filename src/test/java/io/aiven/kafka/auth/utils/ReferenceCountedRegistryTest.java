@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.utils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class ReferenceCountedRegistryTest {
+
+    @Test
+    public void closesTheResourceReleasedByAllHolders() {
+        final ReferenceCountedRegistry<String, Resource> registry = new ReferenceCountedRegistry<>();
+        final Resource resource = registry.acquire("key", Resource::new);
+        assertThat(registry.acquire("key", Resource::new)).isSameAs(resource);
+
+        registry.release("key");
+        assertThat(resource.closed).isFalse();
+        registry.release("key");
+        assertThat(resource.closed).isTrue();
+
+        assertThat(registry.acquire("key", Resource::new)).isNotSameAs(resource);
+    }
+
+    @Test
+    public void keepsTheResourceReleasedByAllHoldersForTheGracePeriod() {
+        final ReferenceCountedRegistry<String, Resource> registry =
+            new ReferenceCountedRegistry<>(TimeUnit.HOURS.toMillis(1));
+        final Resource resource = registry.acquire("key", Resource::new);
+        registry.release("key");
+        assertThat(resource.closed).isFalse();
+
+        assertThat(registry.acquire("key", Resource::new)).isSameAs(resource);
+        registry.release("key");
+        // Released more times than acquired
+        registry.release("key");
+        assertThat(resource.closed).isFalse();
+    }
+
+    @Test
+    public void closesTheResourceOnceTheGracePeriodHasPassed() {
+        final ReferenceCountedRegistry<String, Resource> registry = new ReferenceCountedRegistry<>(10);
+        final Resource resource = registry.acquire("key", Resource::new);
+        registry.release("key");
+
+        await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(10)).until(() -> resource.closed);
+        assertThat(registry.acquire("key", Resource::new)).isNotSameAs(resource);
+    }
+
+    private static final class Resource implements AutoCloseable {
+        private volatile boolean closed;
+
+        private Resource(final String key) {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Aiven Oy https://aiven.io
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.aiven.kafka.auth.utils;
+
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RegexLiteralsTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "CN=foo|CN=foo",
+        "^CN=foo$|CN=foo",
+        "CN=foo\\.bar|CN=foo.bar",
+        "CN=foo\\,O=bar|CN=foo,O=bar",
+        "CN=\\$|CN=$",
+        "\\QCN=a.b*c\\E|CN=a.b*c",
+        "\\QCN=a.b|CN=a.b",
+        "CN=\\Qx$\\E$|CN=x$"
+    })
+    public void literals(final String regex, final String literal) {
+        final Pattern pattern = Pattern.compile(regex);
+        assertThat(RegexLiterals.literal(pattern)).isEqualTo(literal);
+        assertThat(pattern.matcher(literal).matches()).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "CN=a.b",
+        "^CN=p_(.*)_s$",
+        "CN=\\d",
+        "CN=(a)\\1",
+        "(?i)CN=x",
+        "CN=a|CN=b",
+        "a^b",
+        "a$b",
+        "CN=[ab]",
+        "CN=a{2}"
+    })
+    public void notLiterals(final String regex) {
+        assertThat(RegexLiterals.literal(Pattern.compile(regex))).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "^", "$", "^$"})
+    public void emptyLiterals(final String regex) {
+        assertThat(RegexLiterals.literal(Pattern.compile(regex))).isEmpty();
+    }
+
+    @Test
+    public void flags() {
+        assertThat(RegexLiterals.literal(Pattern.compile("CN=x", Pattern.CASE_INSENSITIVE))).isNull();
+        assertThat(RegexLiterals.literal(null)).isNull();
+    }
+}